@@ -17,7 +17,7 @@ public class GatewayConfig {
                         .uri("lb://AUTH-SERVICE"))
 
                 // Restaurant Service - Port 9002
-                .route("restaurant-service", r -> r.path("/api/restaurants/**", "/api/menu-items/**")
+                .route("restaurant-service", r -> r.path("/api/restaurants/**", "/api/menu-items/**", "/api/search/**")
                         .uri("lb://RESTAURANT-SERVICE"))
 
                 // Order Service - Port 9003
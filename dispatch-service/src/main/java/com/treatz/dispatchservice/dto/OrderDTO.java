@@ -1,16 +1,21 @@
 package com.treatz.dispatchservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
-// This is the "contract" for the message we receive from the Order Service.
-// It's a simplified version of the Order entity.
+// This is the "contract" for the messages we receive from the Order Service:
+// its order.* events (OrderEvent, schema version 1) and its status feed.
 @Data
 public class OrderDTO {
+    @JsonAlias("orderId") // events call it orderId, the status feed id
     private Long id;
     private Long customerId;
     private Long restaurantId;
     private BigDecimal totalPrice;
     private String status;
     private Long riderId;
+    @JsonAlias("occurredAt")
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -3,58 +3,122 @@ package com.treatz.dispatchservice.scheduler;
 
 import com.treatz.dispatchservice.dto.OrderDTO;
 import com.treatz.dispatchservice.service.DispatchService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class DispatchScheduler {
 
     private final WebClient.Builder webClientBuilder;
     private final DispatchService dispatchService;
+    private final long watermarkOverlapSeconds;
+    private final int fullResyncEvery;
+
+    // Largest updatedAt we have processed; each tick only pulls orders that changed after it
+    private LocalDateTime watermark;
+    // Orders we saw but could not dispatch (e.g. no free riders). They don't change, so the feed won't resend them.
+    private final Map<Long, OrderDTO> retryQueue = new LinkedHashMap<>();
+    private int ticksSinceFullResync;
+
+    public DispatchScheduler(WebClient.Builder webClientBuilder,
+                             DispatchService dispatchService,
+                             @Value("${dispatch.scheduler.watermark-overlap-seconds:5}") long watermarkOverlapSeconds,
+                             @Value("${dispatch.scheduler.full-resync-every:30}") int fullResyncEvery) {
+        this.webClientBuilder = webClientBuilder;
+        this.dispatchService = dispatchService;
+        this.watermarkOverlapSeconds = watermarkOverlapSeconds;
+        this.fullResyncEvery = fullResyncEvery;
+    }
 
     // This method runs automatically every 60 seconds to catch missed dispatch events
     @Scheduled(fixedRate = 60000)
     public void findAndProcessStuckOrders() {
         log.info("⏰ [Scheduler] Checking for stuck READY_FOR_PICKUP orders...");
 
+        // Every so often pull the full list again, so the retry queue can't hold on to orders
+        // that were dispatched or cancelled through another path
+        if (++ticksSinceFullResync >= fullResyncEvery) {
+            watermark = null;
+            retryQueue.clear();
+            ticksSinceFullResync = 0;
+        }
+
+        int successCount = 0;
+        int failCount = 0;
+        Set<Long> attempted = new HashSet<>();
+
+        // === Step 1: Process the orders that changed since the last tick, one at a time as they stream in ===
         try {
-            List<OrderDTO> stuckOrders = webClientBuilder.build()
+            // Go back a few seconds: a transaction that committed late may carry an older updatedAt
+            LocalDateTime since = watermark == null ? null : watermark.minusSeconds(watermarkOverlapSeconds);
+            Iterable<OrderDTO> changedOrders = webClientBuilder.build()
                     .get()
-                    .uri("http://order-service/api/orders/internal/status/READY_FOR_PICKUP")
+                    .uri("http://order-service/api/orders/internal/status/READY_FOR_PICKUP/stream",
+                            uri -> uri.queryParamIfPresent("since", Optional.ofNullable(since)).build())
+                    .accept(MediaType.APPLICATION_NDJSON)
                     .retrieve()
                     .bodyToFlux(OrderDTO.class)
-                    .collectList()
-                    .block();
-
-            if (stuckOrders != null && !stuckOrders.isEmpty()) {
-                log.warn("⚠️ Found {} stuck orders without riders. Attempting to dispatch...", stuckOrders.size());
-                int successCount = 0;
-                int failCount = 0;
+                    .toIterable();
 
-                for (OrderDTO order : stuckOrders) {
-                    try {
-                        dispatchService.processOrderForDispatch(order);
+            for (OrderDTO order : changedOrders) {
+                if (attempted.add(order.getId())) {
+                    if (tryDispatch(order)) {
                         successCount++;
-                    } catch (RuntimeException e) {
+                    } else {
                         failCount++;
-                        log.warn("❌ Could not dispatch order {}: {}", order.getId(), e.getMessage());
-                        // This is expected if no riders are available. Will retry in 60 seconds.
                     }
                 }
-
-                log.info("✅ Scheduler results: {} dispatched, {} failed (will retry)", successCount, failCount);
-            } else {
-                log.debug("✓ No stuck orders found. All orders properly dispatched.");
+                // Rows arrive oldest first, so everything up to here has been handled
+                if (order.getUpdatedAt() != null && (watermark == null || order.getUpdatedAt().isAfter(watermark))) {
+                    watermark = order.getUpdatedAt();
+                }
             }
         } catch (Exception e) {
-            log.error("💥 Scheduler error while fetching orders from Order Service: {}", e.getMessage(), e);
+            // Keep the watermark where it got to; the next tick resumes from there
+            log.error("💥 Scheduler error while streaming orders from Order Service: {}", e.getMessage(), e);
+        }
+
+        // === Step 2: Retry orders that failed on earlier ticks ===
+        for (OrderDTO order : new ArrayList<>(retryQueue.values())) {
+            if (attempted.add(order.getId())) {
+                if (tryDispatch(order)) {
+                    successCount++;
+                } else {
+                    failCount++;
+                }
+            }
+        }
+
+        if (successCount + failCount > 0) {
+            log.info("✅ Scheduler results: {} dispatched, {} failed (will retry)", successCount, failCount);
+        } else {
+            log.debug("✓ No stuck orders found. All orders properly dispatched.");
+        }
+    }
+
+    private boolean tryDispatch(OrderDTO order) {
+        try {
+            dispatchService.processOrderForDispatch(order);
+            retryQueue.remove(order.getId());
+            return true;
+        } catch (RuntimeException e) {
+            // This is expected if no riders are available. Will retry in 60 seconds.
+            log.warn("❌ Could not dispatch order {}: {}", order.getId(), e.getMessage());
+            retryQueue.put(order.getId(), order);
+            return false;
         }
     }
-}
\ No newline at end of file
+}
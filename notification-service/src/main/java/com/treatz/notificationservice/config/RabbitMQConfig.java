@@ -4,6 +4,8 @@ import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -35,4 +37,10 @@ public class RabbitMQConfig {
         // "Send any message with the 'order.placed' label to my 'notification_queue' mailbox."
         return BindingBuilder.bind(queue).to(exchange).with(ORDER_PLACED_ROUTING_KEY);
     }
+
+    // Order events are JSON (OrderEvent), so we need the JSON converter to read them
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.treatz.notificationservice.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// The Order Service's order.* event payload (schema version 1). Only the fields we use are listed.
+@Data
+public class OrderEventDTO {
+    private int schemaVersion;
+    private Long orderId;
+    private Long restaurantId;
+    private Long customerId;
+    private String status;
+    private BigDecimal totalPrice;
+    private LocalDateTime occurredAt;
+}
@@ -1,6 +1,7 @@
 package com.treatz.notificationservice.listener;
 
 import com.treatz.notificationservice.config.RabbitMQConfig;
+import com.treatz.notificationservice.dto.OrderEventDTO;
 import com.treatz.notificationservice.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -13,8 +14,8 @@ public class OrderListener {
     private final NotificationService notificationService;
 
     @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-    public void handleOrderPlaced(Long orderId) {
+    public void handleOrderPlaced(OrderEventDTO event) {
         System.out.println("\n📩 [RabbitMQ] Message received from queue: " + RabbitMQConfig.QUEUE_NAME);
-        notificationService.sendOrderPlacedNotification(orderId);
+        notificationService.sendOrderPlacedNotification(event);
     }
 }
\ No newline at end of file
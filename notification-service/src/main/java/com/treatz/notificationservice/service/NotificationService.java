@@ -1,27 +1,32 @@
 package com.treatz.notificationservice.service;
 
+import com.treatz.notificationservice.dto.OrderEventDTO;
 import org.springframework.stereotype.Service;
 
 @Service
 public class NotificationService {
 
-    public void sendOrderPlacedNotification(Long orderId) {
-        String message = buildOrderPlacedMessage(orderId);
+    public void sendOrderPlacedNotification(OrderEventDTO event) {
+        String message = buildOrderPlacedMessage(event);
         sendNotification(message);
     }
 
-    private String buildOrderPlacedMessage(Long orderId) {
+    private String buildOrderPlacedMessage(OrderEventDTO event) {
         return String.format(
                 """
                 =======================================
                 🔔 NEW ORDER NOTIFICATION
                 =======================================
                 Order ID: %d
+                Restaurant ID: %d
+                Total: %s
                 Status: Order has been placed
                 Action Required: Restaurant should accept the order
                 =======================================
                 """,
-                orderId
+                event.getOrderId(),
+                event.getRestaurantId(),
+                event.getTotalPrice()
         );
     }
 
@@ -0,0 +1,64 @@
+package com.treatz.orderservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.treatz.orderservice.client.RestaurantServiceClient;
+import com.treatz.orderservice.dto.MenuItemResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local, size-bounded copy of menu item details (keyed by menuItemId).
+ * Entries expire after a TTL and are evicted early when the Restaurant Service
+ * announces a menu change. Hit/miss/eviction stats are published as "cache.*" metrics
+ * with the tag cache=menuItemDetails.
+ */
+@Component
+@Slf4j
+public class MenuItemCache {
+
+    private final RestaurantServiceClient restaurantServiceClient;
+    private final Cache<Long, MenuItemResponseDTO> cache;
+
+    public MenuItemCache(RestaurantServiceClient restaurantServiceClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${order.menu-cache.max-size:10000}") long maxSize,
+                         @Value("${order.menu-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.restaurantServiceClient = restaurantServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "menuItemDetails");
+    }
+
+    /**
+     * Returns details for every ID that exists. Only the IDs that are not cached
+     * are fetched from the Restaurant Service, in a single call.
+     */
+    public List<MenuItemResponseDTO> getAll(List<Long> menuItemIds) {
+        Map<Long, MenuItemResponseDTO> found = cache.getAll(menuItemIds, this::loadMissing);
+        return List.copyOf(found.values());
+    }
+
+    public void evict(Long menuItemId) {
+        cache.invalidate(menuItemId);
+    }
+
+    private Map<Long, MenuItemResponseDTO> loadMissing(Set<? extends Long> missingIds) {
+        log.debug("Menu item cache miss for {} item(s), fetching from Restaurant Service", missingIds.size());
+        return restaurantServiceClient.getMenuItemDetails(List.copyOf(missingIds)).stream()
+                .collect(Collectors.toMap(MenuItemResponseDTO::getId, Function.identity()));
+    }
+}
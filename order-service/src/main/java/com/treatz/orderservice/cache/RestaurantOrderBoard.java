@@ -0,0 +1,126 @@
+package com.treatz.orderservice.cache;
+
+import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.entity.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Live, in-memory read model of every active order, grouped by restaurant and then by status.
+ * Restaurant dashboards poll this instead of PostgreSQL.
+ *
+ * It is loaded from the database on startup (see OrderEventListener), updated by this instance right
+ * after each commit, and kept in step with other instances through the order.# events.
+ * Orders leave the board once they are DELIVERED or CANCELLED.
+ */
+@Component
+@Slf4j
+public class RestaurantOrderBoard {
+
+    private static final Set<OrderStatus> ACTIVE_STATUSES = EnumSet.of(
+            OrderStatus.PENDING, OrderStatus.ACCEPTED, OrderStatus.PREPARING,
+            OrderStatus.READY_FOR_PICKUP, OrderStatus.DISPATCHED);
+
+    private final ConcurrentMap<Long, RestaurantQueue> restaurants = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> restaurantByOrderId = new ConcurrentHashMap<>();
+    private volatile boolean ready; // false until the startup load has finished
+
+    public static Set<OrderStatus> activeStatuses() {
+        return ACTIVE_STATUSES;
+    }
+
+    /**
+     * The restaurant's orders in this status, oldest first, or empty if the board can't answer
+     * (still loading, or a finished status it doesn't keep) and the caller should ask the database.
+     */
+    public Optional<List<OrderResponseDTO>> getOrders(Long restaurantId, OrderStatus status) {
+        if (!ready || !ACTIVE_STATUSES.contains(status)) {
+            return Optional.empty();
+        }
+        RestaurantQueue queue = restaurants.get(restaurantId);
+        return Optional.of(queue == null ? List.of() : queue.list(status));
+    }
+
+    // Adds, moves or removes the order to match this (committed) state; older states than what we hold are ignored
+    public void apply(OrderResponseDTO order) {
+        boolean onBoard = restaurants.computeIfAbsent(order.getRestaurantId(), id -> new RestaurantQueue()).apply(order);
+        if (onBoard) {
+            restaurantByOrderId.put(order.getId(), order.getRestaurantId());
+        } else {
+            restaurantByOrderId.remove(order.getId());
+        }
+    }
+
+    /**
+     * True if the board already shows the order in this status (status null: shows it at all),
+     * so an event about it needs no reload. A finished order counts as current when it's off the board.
+     */
+    public boolean isCurrent(Long orderId, String status) {
+        Long restaurantId = restaurantByOrderId.get(orderId);
+        String held = restaurantId == null ? null : restaurants.get(restaurantId).statusOf(orderId);
+        if (held == null) {
+            return status != null && !ACTIVE_STATUSES.contains(OrderStatus.valueOf(status));
+        }
+        return status == null || held.equals(status);
+    }
+
+    public void load(Collection<OrderResponseDTO> activeOrders) {
+        activeOrders.forEach(this::apply);
+        ready = true;
+        log.info("Restaurant order board loaded with {} active order(s) across {} restaurant(s)",
+                activeOrders.size(), restaurants.size());
+    }
+
+    private static final class RestaurantQueue {
+
+        // TreeMap keyed by order ID: Snowflake IDs sort by creation time, so each bucket is already a FIFO queue
+        private final Map<OrderStatus, TreeMap<Long, OrderResponseDTO>> buckets = new EnumMap<>(OrderStatus.class);
+        private final Map<Long, OrderResponseDTO> byId = new HashMap<>();
+
+        // Returns whether the order is on this restaurant's board afterwards
+        synchronized boolean apply(OrderResponseDTO order) {
+            OrderResponseDTO current = byId.get(order.getId());
+            if (current != null) {
+                if (isOlder(order.getUpdatedAt(), current.getUpdatedAt())) {
+                    return true; // a late update; we already hold something newer
+                }
+                buckets.get(OrderStatus.valueOf(current.getStatus())).remove(order.getId());
+                byId.remove(order.getId());
+            }
+            OrderStatus status = OrderStatus.valueOf(order.getStatus());
+            if (ACTIVE_STATUSES.contains(status)) {
+                buckets.computeIfAbsent(status, s -> new TreeMap<>()).put(order.getId(), order);
+                byId.put(order.getId(), order);
+                return true;
+            }
+            return false;
+        }
+
+        synchronized List<OrderResponseDTO> list(OrderStatus status) {
+            TreeMap<Long, OrderResponseDTO> bucket = buckets.get(status);
+            return bucket == null ? List.of() : List.copyOf(bucket.values());
+        }
+
+        synchronized String statusOf(Long orderId) {
+            OrderResponseDTO order = byId.get(orderId);
+            return order == null ? null : order.getStatus();
+        }
+
+        private static boolean isOlder(LocalDateTime candidate, LocalDateTime held) {
+            return candidate != null && held != null && candidate.isBefore(held);
+        }
+    }
+}
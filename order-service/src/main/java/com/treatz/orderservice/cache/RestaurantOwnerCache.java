@@ -0,0 +1,83 @@
+package com.treatz.orderservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.treatz.orderservice.client.RestaurantServiceClient;
+import com.treatz.orderservice.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caches restaurantId -> ownerId for the owner authorization checks.
+ * <ul>
+ *   <li>Unknown restaurants are cached as empty (negative caching) with a shorter TTL.</li>
+ *   <li>Concurrent misses for the same restaurant share a single Restaurant Service call.</li>
+ *   <li>Entries are dropped when the Restaurant Service announces a restaurant change.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class RestaurantOwnerCache {
+
+    private final RestaurantServiceClient restaurantServiceClient;
+    private final Cache<Long, Optional<Long>> cache;
+
+    public RestaurantOwnerCache(RestaurantServiceClient restaurantServiceClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${order.owner-cache.max-size:50000}") long maxSize,
+                                @Value("${order.owner-cache.ttl-seconds:600}") long ttlSeconds,
+                                @Value("${order.owner-cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        this.restaurantServiceClient = restaurantServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new OwnerExpiry(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "restaurantOwners");
+    }
+
+    // Returns the owner's user ID, or throws ResourceNotFoundException for an unknown restaurant
+    public Long getOwnerId(Long restaurantId) {
+        // Caffeine runs the loader at most once per key; concurrent callers wait for that result
+        return cache.get(restaurantId, this::load)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + restaurantId));
+    }
+
+    public void evict(Long restaurantId) {
+        cache.invalidate(restaurantId);
+    }
+
+    private Optional<Long> load(Long restaurantId) {
+        log.debug("Owner cache miss for restaurant {}, asking Restaurant Service", restaurantId);
+        try {
+            return Optional.ofNullable(restaurantServiceClient.getRestaurantOwnerId(restaurantId));
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private record OwnerExpiry(Duration ttl, Duration negativeTtl) implements Expiry<Long, Optional<Long>> {
+
+        @Override
+        public long expireAfterCreate(Long restaurantId, Optional<Long> ownerId, long currentTime) {
+            return (ownerId.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long restaurantId, Optional<Long> ownerId, long currentTime, long currentDuration) {
+            return expireAfterCreate(restaurantId, ownerId, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long restaurantId, Optional<Long> ownerId, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
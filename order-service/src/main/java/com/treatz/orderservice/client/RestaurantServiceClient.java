@@ -0,0 +1,83 @@
+package com.treatz.orderservice.client;
+
+import com.treatz.orderservice.dto.MenuItemResponseDTO;
+import com.treatz.orderservice.exception.ResourceNotFoundException;
+import com.treatz.orderservice.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * All synchronous calls from the Order Service to the Restaurant Service go through here.
+ * Every call has an explicit deadline, so a slow Restaurant Service turns into a fast 503
+ * instead of piling up request threads.
+ */
+@Component
+@Slf4j
+public class RestaurantServiceClient {
+
+    private static final String RESTAURANT_SERVICE_URL = "http://restaurant-service"; // Eureka resolves the name
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public RestaurantServiceClient(WebClient.Builder webClientBuilder,
+                                   @Value("${order.restaurant-service.timeout-ms:3000}") long timeoutMs) {
+        this.webClient = webClientBuilder.build();
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    // Fetches price/availability details for the given menu items
+    public List<MenuItemResponseDTO> getMenuItemDetails(List<Long> menuItemIds) {
+        try {
+            return webClient.post()
+                    .uri(RESTAURANT_SERVICE_URL + "/api/menu-items/details")
+                    .bodyValue(menuItemIds)
+                    .retrieve()
+                    .bodyToFlux(MenuItemResponseDTO.class)
+                    .collectList()
+                    .timeout(timeout)
+                    .block();
+        } catch (RuntimeException ex) {
+            throw translate(ex, "menu item details");
+        }
+    }
+
+    // Returns the user ID of the restaurant's owner
+    public Long getRestaurantOwnerId(Long restaurantId) {
+        try {
+            return webClient.get()
+                    .uri(RESTAURANT_SERVICE_URL + "/api/restaurants/{id}/owner", restaurantId)
+                    .retrieve()
+                    .bodyToMono(Long.class)
+                    .timeout(timeout)
+                    .block();
+        } catch (WebClientResponseException.NotFound ex) {
+            throw new ResourceNotFoundException("Restaurant not found with id: " + restaurantId);
+        } catch (RuntimeException ex) {
+            throw translate(ex, "restaurant owner");
+        }
+    }
+
+    private RuntimeException translate(RuntimeException ex, String what) {
+        // block() wraps checked exceptions such as TimeoutException in a RuntimeException
+        Throwable cause = ex.getCause() instanceof TimeoutException ? ex.getCause() : ex;
+        boolean unavailable = cause instanceof TimeoutException
+                || cause instanceof WebClientRequestException
+                || (cause instanceof WebClientResponseException responseException
+                        && responseException.getStatusCode().is5xxServerError());
+        if (unavailable) {
+            log.warn("Restaurant Service call for {} failed: {}", what, cause.toString());
+            return new ServiceUnavailableException(
+                    "Restaurant Service is not responding. Please try again shortly.", cause);
+        }
+        return ex;
+    }
+}
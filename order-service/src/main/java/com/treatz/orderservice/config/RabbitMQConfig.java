@@ -1,5 +1,6 @@
 package com.treatz.orderservice.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
@@ -16,12 +17,55 @@ public class RabbitMQConfig {
 
     public static final String EXCHANGE_NAME = "treatz_exchange";
     public static final String ORDER_PLACED_ROUTING_KEY = "order.placed";
+    // Card/UPI authorization succeeded (a declined payment is published as order.status.cancelled)
+    public static final String ORDER_PAYMENT_COMPLETED_ROUTING_KEY = "order.payment.completed";
+    // Menu change events published by the Restaurant Service (menu.item.updated, menu.item.deleted)
+    public static final String MENU_ITEM_EVENTS_ROUTING_KEY = "menu.item.*";
+    // Restaurant lifecycle events (restaurant.created, restaurant.updated, restaurant.deleted)
+    public static final String RESTAURANT_EVENTS_ROUTING_KEY = "restaurant.*";
+    // Every order event, including our own (order.placed, order.payment.completed, order.status.*)
+    public static final String ORDER_EVENTS_ROUTING_KEY = "order.#";
 
     @Bean
     public TopicExchange exchange() {
         return new TopicExchange(EXCHANGE_NAME);
     }
 
+    // Every Order Service instance keeps its own menu cache, so each one needs its own
+    // private, auto-deleted queue to hear about menu changes.
+    @Bean
+    public Queue menuItemEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding menuItemEventsBinding(Queue menuItemEventsQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(menuItemEventsQueue).to(exchange).with(MENU_ITEM_EVENTS_ROUTING_KEY);
+    }
+
+    // Same idea for restaurant ownership: each instance invalidates its own ownership cache
+    @Bean
+    public Queue restaurantEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding restaurantEventsBinding(Queue restaurantEventsQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(restaurantEventsQueue).to(exchange).with(RESTAURANT_EVENTS_ROUTING_KEY);
+    }
+
+    // Each instance keeps its own restaurant order board, so it listens to every order event
+    // (from any instance) on a private queue to stay in step
+    @Bean
+    public Queue orderEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding orderEventsBinding(Queue orderEventsQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(orderEventsQueue).to(exchange).with(ORDER_EVENTS_ROUTING_KEY);
+    }
+
     // !!! THIS IS THE NEW, IMPORTANT PART !!!
     // We are creating the specialist "JSON packer" tool.
     @Bean
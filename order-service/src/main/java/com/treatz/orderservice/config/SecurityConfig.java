@@ -1,5 +1,6 @@
 package com.treatz.orderservice.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,9 +29,12 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (SSE, NDJSON) finish on an async dispatch of an already-authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Internal endpoints for service-to-service calls
                         .requestMatchers(HttpMethod.PUT, "/api/orders/*/status").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/orders/internal/status/*").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/orders/internal/status/*/stream").permitAll()
                         // Everything else needs authentication
                         .anyRequest().authenticated()
                 )
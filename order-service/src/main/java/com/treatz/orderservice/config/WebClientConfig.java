@@ -1,16 +1,33 @@
 package com.treatz.orderservice.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    @Value("${order.restaurant-service.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${order.restaurant-service.response-timeout-ms:2000}")
+    private long responseTimeoutMs;
+
     @Bean
     @LoadBalanced // This is the magic! It tells WebClient to use Eureka.
     public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+        // Fail fast instead of letting a slow downstream service hold the request open forever
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
     }
-}
\ No newline at end of file
+}
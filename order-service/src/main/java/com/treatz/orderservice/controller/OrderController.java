@@ -1,16 +1,28 @@
 package com.treatz.orderservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.treatz.orderservice.dto.CreateOrderRequestDTO;
+import com.treatz.orderservice.dto.OrderPageResponseDTO;
 import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.dto.SalesReportDTO;
+import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.entity.RollupGranularity;
 import com.treatz.orderservice.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.treatz.orderservice.dto.UpdateOrderStatusRequestDTO;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,13 +30,23 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    // Matches hibernate.default_batch_fetch_size, so a full page loads its items in one query
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Keeps an hourly sales report to a few hundred buckets
+    private static final int MAX_HOURLY_REPORT_DAYS = 31;
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     // This is the security rule: Only users with the 'CUSTOMER' authority can access this.
     @PreAuthorize("hasAuthority('ROLE_CUSTOMER')")
-    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody CreateOrderRequestDTO request) {
-        OrderResponseDTO createdOrder = orderService.createOrder(request);
+    public ResponseEntity<OrderResponseDTO> createOrder(
+            @Valid @RequestBody CreateOrderRequestDTO request,
+            // Clients send a unique value per order and reuse it when retrying, so a retry never places a second order
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        OrderResponseDTO createdOrder = orderService.createOrder(request, idempotencyKey);
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
 
@@ -40,6 +62,27 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Sales dashboard: orders placed, orders delivered, revenue and average basket per hour or day in [from, to).
+     * Read from pre-aggregated rollups, so any range costs at most one row per bucket.
+     */
+    @GetMapping("/restaurant/{restaurantId}/sales")
+    @PreAuthorize("hasAuthority('ROLE_RESTAURANT_OWNER')")
+    public ResponseEntity<SalesReportDTO> getSalesReport(
+            @PathVariable Long restaurantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") String granularity) {
+        RollupGranularity bucketSize = RollupGranularity.valueOf(granularity.toUpperCase());
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (bucketSize == RollupGranularity.HOUR && from.plusDays(MAX_HOURLY_REPORT_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Hourly reports can span at most " + MAX_HOURLY_REPORT_DAYS + " days");
+        }
+        return ResponseEntity.ok(orderService.getSalesReport(restaurantId, bucketSize, from, to));
+    }
+
     @PutMapping("/{orderId}/status")
 // This security rule allows EITHER a RESTAURANT_OWNER OR a RIDER to call this endpoint.
    // @PreAuthorize("hasAuthority('ROLE_RESTAURANT_OWNER') or hasAuthority('ROLE_RIDER')")
@@ -59,12 +102,44 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Streaming variant of the status feed for the Dispatch Service.
+     * Writes one slim JSON object per line (NDJSON) straight off a database cursor, so neither side
+     * holds the whole backlog in memory. Pass the largest updatedAt seen as ?since= to get only changes.
+     */
+    @GetMapping(value = "/internal/status/{status}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        // Parse before streaming starts, so a bad status is still a clean 400
+        OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
+
+        StreamingResponseBody body = out -> orderService.streamOrdersByStatus(orderStatus, since, snapshot -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(snapshot));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // client went away; ends the stream and releases the cursor
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     // === CUSTOMER ORDER APIs ===
 
+    /**
+     * Customer's order history, newest first, one page at a time.
+     * First call without a cursor; then pass the returned nextCursor until hasMore is false.
+     */
     @GetMapping("/my-orders")
     @PreAuthorize("hasAuthority('ROLE_CUSTOMER')")
-    public ResponseEntity<List<OrderResponseDTO>> getMyOrders() {
-        List<OrderResponseDTO> orders = orderService.getMyOrders();
+    public ResponseEntity<OrderPageResponseDTO> getMyOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        OrderPageResponseDTO orders = orderService.getMyOrders(cursor, size);
         return ResponseEntity.ok(orders);
     }
 
@@ -75,4 +150,17 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    /**
+     * Live updates for one order as Server-Sent Events: the current order first, then every status change.
+     * The stream ends once the order is DELIVERED or CANCELLED. Browsers' EventSource reconnects on its own
+     * and sends Last-Event-ID, so a reconnect only resends the order if it changed meanwhile.
+     */
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_CUSTOMER')")
+    public SseEmitter streamOrderUpdates(
+            @PathVariable Long orderId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderService.streamOrderUpdates(orderId, lastEventId);
+    }
+
 }
\ No newline at end of file
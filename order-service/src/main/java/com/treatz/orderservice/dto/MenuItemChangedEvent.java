@@ -0,0 +1,11 @@
+package com.treatz.orderservice.dto;
+
+import lombok.Data;
+
+// The "contract" for menu change messages we receive from the Restaurant Service.
+@Data
+public class MenuItemChangedEvent {
+    private Long menuItemId;
+    private Long restaurantId;
+    private String changeType; // UPDATED or DELETED
+}
@@ -0,0 +1,17 @@
+package com.treatz.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of a customer's order history. Pass nextCursor back as ?cursor= to get the following page.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageResponseDTO {
+    private List<OrderResponseDTO> orders;
+    private String nextCursor; // null on the last page
+    private boolean hasMore;
+}
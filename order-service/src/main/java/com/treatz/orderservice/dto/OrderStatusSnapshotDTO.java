@@ -0,0 +1,21 @@
+package com.treatz.orderservice.dto;
+
+import com.treatz.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// The slim view of an order streamed to the Dispatch Service: just what it needs to assign a rider.
+// updatedAt doubles as the watermark the caller sends back as ?since= on its next pull.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusSnapshotDTO {
+    private Long id;
+    private Long restaurantId;
+    private Long riderId;
+    private OrderStatus status;
+    private LocalDateTime updatedAt;
+}
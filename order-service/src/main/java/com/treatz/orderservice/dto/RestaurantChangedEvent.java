@@ -0,0 +1,11 @@
+package com.treatz.orderservice.dto;
+
+import lombok.Data;
+
+// The "contract" for restaurant lifecycle messages we receive from the Restaurant Service.
+@Data
+public class RestaurantChangedEvent {
+    private Long restaurantId;
+    private Long ownerId;
+    private String changeType; // CREATED, UPDATED or DELETED
+}
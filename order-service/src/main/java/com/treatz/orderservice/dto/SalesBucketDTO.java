@@ -0,0 +1,20 @@
+package com.treatz.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Sales of one hour/day. Revenue and average basket count delivered orders only.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketDTO {
+    private LocalDateTime bucketStart;
+    private long ordersPlaced;
+    private long ordersDelivered;
+    private BigDecimal revenue;
+    private BigDecimal averageBasket; // null when nothing was delivered
+}
@@ -0,0 +1,21 @@
+package com.treatz.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A restaurant's sales over [from, to): one entry per hour/day that had any activity, plus the total
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportDTO {
+    private Long restaurantId;
+    private String granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<SalesBucketDTO> buckets;
+    private SalesBucketDTO total; // bucketStart is 'from'
+}
@@ -0,0 +1,79 @@
+package com.treatz.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A delivered or cancelled order moved out of the live tables by OrderArchiver. Read-only.
+@Data
+@Entity
+@Table(name = "orders_archive", indexes = {
+        // Same keyset pagination as the live table: WHERE customer_id = ? ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_orders_archive_customer_created_id", columnList = "customer_id, created_at, id")
+})
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private Long restaurantId;
+
+    @Column(name = "rider_id")
+    private Long riderId;
+
+    @Column(nullable = false)
+    private BigDecimal totalPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private PaymentStatus paymentStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false)
+    private PaymentMethod paymentMethod;
+
+    @Column(name = "payment_transaction_id", length = 100)
+    private String paymentTransactionId;
+
+    @Column(name = "delivery_address", nullable = false, length = 500)
+    private String deliveryAddress;
+
+    @Column(name = "customer_phone", nullable = false, length = 20)
+    private String customerPhone;
+
+    @Column(name = "delivery_instructions", length = 500)
+    private String deliveryInstructions;
+
+    // The order's items, inlined (jsonb in PostgreSQL)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private List<Item> items;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Data
+    public static class Item {
+        private Long menuItemId;
+        private Integer quantity;
+        private BigDecimal pricePerItem;
+    }
+}
@@ -0,0 +1,45 @@
+package com.treatz.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+// The outcome of an order request sent with an Idempotency-Key header.
+// Written in the same transaction as the order, so a stored key always means the order exists.
+@Data
+@Entity
+@Table(name = "order_idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_customer_key", columnNames = {"customer_id", "idempotency_key"})
+})
+@EntityListeners(AuditingEntityListener.class)
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Keys are scoped per customer, so two clients can't collide on the same value
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of the request body; a key reused for a different request is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // The OrderResponseDTO returned the first time, as JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String response;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
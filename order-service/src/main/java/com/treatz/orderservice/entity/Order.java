@@ -1,5 +1,6 @@
 package com.treatz.orderservice.entity;
 
+import com.treatz.orderservice.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
@@ -14,12 +15,22 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "orders")
+// Partitioned by ID (that is, by creation month) in PostgreSQL; see schema.sql
+@Table(name = "orders", indexes = {
+        // Serves keyset pagination of a customer's history: WHERE customer_id = ? ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_orders_customer_created_id", columnList = "customer_id, created_at, id"),
+        // Serves the Dispatch Service's incremental feed: WHERE status = ? AND updated_at > ? ORDER BY updated_at
+        @Index(name = "idx_orders_status_updated", columnList = "status, updated_at"),
+        // Serves the sweep for payments stuck in PENDING: WHERE payment_status = ? AND created_at < ?
+        @Index(name = "idx_orders_payment_status_created", columnList = "payment_status, created_at"),
+        // Serves the restaurant's orders by status when the live board can't: WHERE restaurant_id = ? AND status = ?
+        @Index(name = "idx_orders_restaurant_status", columnList = "restaurant_id, status")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Order implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // time-ordered, assigned before INSERT so inserts can be batched
     private Long id;
 
     @Column(nullable = false)
@@ -1,6 +1,7 @@
 package com.treatz.orderservice.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.treatz.orderservice.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -13,7 +14,7 @@ import java.math.BigDecimal;
 public class OrderItem implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,39 @@
+package com.treatz.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+// A message waiting to be published to RabbitMQ.
+// Rows are written in the same transaction as the order change and deleted once the broker confirms them.
+@Data
+@Entity
+@Table(name = "order_outbox")
+@EntityListeners(AuditingEntityListener.class)
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "routing_key", nullable = false, length = 100)
+    private String routingKey;
+
+    // Already-converted JSON message body
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    // Jackson type hint (__TypeId__ header), kept so the wire format matches a direct send
+    @Column(name = "payload_type", length = 255)
+    private String payloadType;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,41 @@
+package com.treatz.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Pre-aggregated sales of one restaurant for one hour or day. Written only by SalesRollupService (as upserts).
+@Data
+@Entity
+@Table(name = "restaurant_sales_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_rollup_bucket", columnNames = {"restaurant_id", "granularity", "bucket_start"})
+})
+public class RestaurantSalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Orders placed in this bucket
+    @Column(name = "orders_placed", nullable = false)
+    private long ordersPlaced;
+
+    // Orders delivered in this bucket, and what they were worth
+    @Column(name = "orders_delivered", nullable = false)
+    private long ordersDelivered;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+}
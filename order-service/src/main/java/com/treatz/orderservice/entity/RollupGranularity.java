@@ -0,0 +1,15 @@
+package com.treatz.orderservice.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// Bucket size of the restaurant sales rollups
+public enum RollupGranularity {
+    HOUR,
+    DAY;
+
+    // Start of the bucket 'time' falls into
+    public LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(this == HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+    }
+}
@@ -0,0 +1,29 @@
+package com.treatz.orderservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// The payload of every order.* event (order.placed, order.payment.completed, order.status.*).
+// Consumers get the order's current summary; anything else they need, they fetch from the Order Service.
+// Bump SCHEMA_VERSION on incompatible changes; adding a field is compatible.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    private int schemaVersion;
+    private Long orderId;
+    private Long restaurantId;
+    private Long customerId;
+    private Long riderId;
+    private String status;
+    private String paymentStatus;
+    private BigDecimal totalPrice;
+    private LocalDateTime occurredAt; // the order's updatedAt, so consumers can discard out-of-order events
+}
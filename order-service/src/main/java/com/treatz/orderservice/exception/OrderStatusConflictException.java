@@ -0,0 +1,13 @@
+package com.treatz.orderservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The order was not in the status the transition starts from, usually because a concurrent
+// request moved it first. The client should re-read the order and retry if it still makes sense.
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderStatusConflictException extends RuntimeException {
+    public OrderStatusConflictException(String message) {
+        super(message);
+    }
+}
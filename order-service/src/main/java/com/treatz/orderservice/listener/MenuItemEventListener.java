@@ -0,0 +1,22 @@
+package com.treatz.orderservice.listener;
+
+import com.treatz.orderservice.cache.MenuItemCache;
+import com.treatz.orderservice.dto.MenuItemChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MenuItemEventListener {
+
+    private final MenuItemCache menuItemCache;
+
+    @RabbitListener(queues = "#{menuItemEventsQueue.name}")
+    public void handleMenuItemChanged(MenuItemChangedEvent event) {
+        log.debug("Menu item {} was {} - evicting cached details", event.getMenuItemId(), event.getChangeType());
+        menuItemCache.evict(event.getMenuItemId());
+    }
+}
@@ -0,0 +1,86 @@
+package com.treatz.orderservice.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treatz.orderservice.cache.RestaurantOrderBoard;
+import com.treatz.orderservice.config.RabbitMQConfig;
+import com.treatz.orderservice.mapper.OrderMapper;
+import com.treatz.orderservice.repository.OrderRepository;
+import com.treatz.orderservice.service.OrderPartitionService;
+import com.treatz.orderservice.service.OrderUpdateStreams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Keeps this instance's {@link RestaurantOrderBoard} and customers' live order streams in step with
+ * order changes made anywhere. On an event the order is re-read from the database, unless both already
+ * show it in that state (typically our own change, which was applied right after commit).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventListener {
+
+    private static final String LISTENER_ID = "restaurantOrderBoard";
+
+    private final RestaurantOrderBoard restaurantOrderBoard;
+    private final OrderUpdateStreams orderUpdateStreams;
+    private final OrderRepository orderRepository;
+    private final OrderPartitionService orderPartitionService;
+    private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+    private final AmqpAdmin amqpAdmin;
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+
+    // Declare the queue first so events buffer up, then load the board, then start consuming.
+    // Events that arrived during the load are applied afterwards and can only move the board forward.
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBoardThenListen() {
+        try {
+            if (amqpAdmin instanceof RabbitAdmin rabbitAdmin) {
+                rabbitAdmin.initialize();
+            }
+        } catch (AmqpException e) {
+            log.warn("RabbitMQ unavailable while loading the order board; events resume once it's back: {}", e.getMessage());
+        }
+        restaurantOrderBoard.load(orderRepository.findAllByStatusInAndIdGreaterThanEqual(
+                        RestaurantOrderBoard.activeStatuses(), orderPartitionService.activeOrdersMinId()).stream()
+                .map(orderMapper::orderToResponseDTO)
+                .toList());
+        listenerRegistry.getListenerContainer(LISTENER_ID).start();
+    }
+
+    // Read the raw JSON rather than binding an OrderEvent: the converter only trusts java.lang/java.util types,
+    // and only orderId and status are needed here
+    @RabbitListener(id = LISTENER_ID, queues = "#{orderEventsQueue.name}", autoStartup = "false")
+    public void handleOrderEvent(Message message) throws IOException {
+        JsonNode payload = objectMapper.readTree(message.getBody());
+        Long orderId = payload.path("orderId").asLong();
+        String status = payload.hasNonNull("status") ? payload.get("status").asText() : null;
+
+        // A payment outcome leaves the status as it was, so only a status change can be recognised as already applied
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        boolean statusOnly = !RabbitMQConfig.ORDER_PAYMENT_COMPLETED_ROUTING_KEY.equals(routingKey);
+        if (statusOnly && restaurantOrderBoard.isCurrent(orderId, status) && orderUpdateStreams.isCurrent(orderId, status)) {
+            return;
+        }
+        log.debug("Refreshing order {} after {}", orderId, routingKey);
+        orderRepository.findWithItemsById(orderId)
+                .map(orderMapper::orderToResponseDTO)
+                .ifPresent(order -> {
+                    restaurantOrderBoard.apply(order);
+                    orderUpdateStreams.publish(order);
+                });
+    }
+}
@@ -0,0 +1,23 @@
+package com.treatz.orderservice.listener;
+
+import com.treatz.orderservice.cache.RestaurantOwnerCache;
+import com.treatz.orderservice.dto.RestaurantChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RestaurantEventListener {
+
+    private final RestaurantOwnerCache restaurantOwnerCache;
+
+    @RabbitListener(queues = "#{restaurantEventsQueue.name}")
+    public void handleRestaurantChanged(RestaurantChangedEvent event) {
+        // CREATED also matters: it clears a cached "not found" for that ID
+        log.debug("Restaurant {} was {} - evicting cached owner", event.getRestaurantId(), event.getChangeType());
+        restaurantOwnerCache.evict(event.getRestaurantId());
+    }
+}
@@ -1,7 +1,9 @@
 package com.treatz.orderservice.mapper;
 
 import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.entity.ArchivedOrder;
 import com.treatz.orderservice.entity.Order;
+import com.treatz.orderservice.event.OrderEvent;
 import com.treatz.orderservice.entity.OrderStatus;
 import com.treatz.orderservice.entity.PaymentMethod;
 import com.treatz.orderservice.entity.PaymentStatus;
@@ -18,6 +20,18 @@ public interface OrderMapper {
     @Mapping(target = "paymentMethod", expression = "java(order.getPaymentMethod().name())")
     OrderResponseDTO orderToResponseDTO(Order order);
 
+    // Maps an archived order (items inlined) to the same OrderResponseDTO
+    @Mapping(target = "status", expression = "java(order.getStatus().name())")
+    @Mapping(target = "paymentStatus", expression = "java(order.getPaymentStatus().name())")
+    @Mapping(target = "paymentMethod", expression = "java(order.getPaymentMethod().name())")
+    OrderResponseDTO archivedOrderToResponseDTO(ArchivedOrder order);
+
+    // Maps Order entity to the order.* event payload (never touches the lazy items)
+    @Mapping(target = "schemaVersion", constant = "" + OrderEvent.SCHEMA_VERSION)
+    @Mapping(source = "id", target = "orderId")
+    @Mapping(source = "updatedAt", target = "occurredAt")
+    OrderEvent orderToEvent(Order order);
+
     // Helper methods for enum to string conversion
     default String mapOrderStatus(OrderStatus status) {
         return status != null ? status.name() : null;
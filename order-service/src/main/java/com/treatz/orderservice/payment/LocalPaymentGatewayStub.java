@@ -0,0 +1,73 @@
+package com.treatz.orderservice.payment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for a real payment provider, for local runs and load tests.
+ * Latency is log-normal (most calls near the median, a long tail up to p99 and beyond), and a configurable
+ * share of calls is declined or fails outright. Calls slower than the timeout fail like a provider timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "order.payment.gateway", havingValue = "local-stub", matchIfMissing = true)
+@Slf4j
+public class LocalPaymentGatewayStub implements PaymentGateway {
+
+    private static final double Z_99 = 2.326; // standard normal 99th percentile
+
+    private final double mu;
+    private final double sigma;
+    private final long timeoutMs;
+    private final double declineRate;
+    private final double errorRate;
+
+    public LocalPaymentGatewayStub(@Value("${order.payment.stub.median-latency-ms:500}") long medianLatencyMs,
+                                   @Value("${order.payment.stub.p99-latency-ms:2000}") long p99LatencyMs,
+                                   @Value("${order.payment.stub.timeout-ms:5000}") long timeoutMs,
+                                   @Value("${order.payment.stub.decline-rate:0.0}") double declineRate,
+                                   @Value("${order.payment.stub.error-rate:0.0}") double errorRate) {
+        this.mu = Math.log(Math.max(1, medianLatencyMs));
+        this.sigma = Math.max(0, (Math.log(Math.max(medianLatencyMs, p99LatencyMs)) - mu) / Z_99);
+        this.timeoutMs = timeoutMs;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public PaymentResult authorize(PaymentRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latencyMs = Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+
+        sleep(Math.min(latencyMs, timeoutMs));
+        if (latencyMs > timeoutMs) {
+            throw new PaymentGatewayException("Payment gateway timed out after " + timeoutMs + "ms");
+        }
+        if (random.nextDouble() < errorRate) {
+            throw new PaymentGatewayException("Payment gateway unavailable");
+        }
+        if (random.nextDouble() < declineRate) {
+            return PaymentResult.declined("Declined by issuer");
+        }
+        log.debug("Stub authorized {} {} for {} in {}ms", request.method(), request.amount(), request.reference(), latencyMs);
+        return PaymentResult.approved(request.method().name() + "-" + UUID.randomUUID());
+    }
+
+    @Override
+    public void voidAuthorization(String transactionId) {
+        log.debug("Stub voided authorization {}", transactionId);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while waiting for the payment gateway");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.treatz.orderservice.payment;
+
+import com.treatz.orderservice.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Authorizes card/UPI payments with a payment provider.
+ * Implementations block for the provider's round trip; {@link PaymentProcessor} calls them off the request path.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Returns the provider's decision. Throws {@link PaymentGatewayException} if there was no decision
+     * (timeout, provider down); the payment then stays PENDING and is retried.
+     */
+    PaymentResult authorize(PaymentRequest request);
+
+    /**
+     * Releases an approved authorization that will not be captured, e.g. because the order was cancelled
+     * while the gateway was deciding. Throws {@link PaymentGatewayException} if the provider can't be reached.
+     */
+    void voidAuthorization(String transactionId);
+
+    // reference is stable per order, so a provider can de-duplicate a retried authorization
+    record PaymentRequest(String reference, BigDecimal amount, PaymentMethod method) {
+    }
+
+    record PaymentResult(boolean approved, String transactionId, String declineReason) {
+
+        public static PaymentResult approved(String transactionId) {
+            return new PaymentResult(true, transactionId, null);
+        }
+
+        public static PaymentResult declined(String reason) {
+            return new PaymentResult(false, null, reason);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.treatz.orderservice.payment;
+
+// The gateway gave no decision (timeout, outage). Unlike a decline, the payment can be retried.
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,220 @@
+package com.treatz.orderservice.payment;
+
+import com.treatz.orderservice.cache.RestaurantOrderBoard;
+import com.treatz.orderservice.config.RabbitMQConfig;
+import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.entity.Order;
+import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.entity.PaymentStatus;
+import com.treatz.orderservice.mapper.OrderMapper;
+import com.treatz.orderservice.payment.PaymentGateway.PaymentRequest;
+import com.treatz.orderservice.payment.PaymentGateway.PaymentResult;
+import com.treatz.orderservice.repository.OrderRepository;
+import com.treatz.orderservice.service.OrderUpdateStreams;
+import com.treatz.orderservice.service.OutboxService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs card/UPI authorization off the request path. Orders are saved with payment PENDING and handed over
+ * here after commit; a bounded pool calls the {@link PaymentGateway} and records the outcome.
+ *
+ * The pool has a fixed number of workers (how many authorizations may be in flight with the provider)
+ * and a bounded queue. Workers are virtual threads, since they spend almost all their time waiting on the gateway.
+ * If the queue is full, or the gateway gives no decision, the order simply stays PENDING and
+ * {@link com.treatz.orderservice.scheduler.PaymentSweeper} hands it back later.
+ *
+ * Before calling the gateway, or giving up on a payment, an instance claims it in the database for lease-seconds.
+ * While the claim runs no other instance touches the payment, so a sweeper elsewhere can't cancel an order
+ * whose authorization is still in progress here.
+ */
+@Component
+@Slf4j
+public class PaymentProcessor {
+
+    private final PaymentGateway paymentGateway;
+    private final OrderRepository orderRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMapper orderMapper;
+    private final RestaurantOrderBoard restaurantOrderBoard;
+    private final OrderUpdateStreams orderUpdateStreams;
+
+    private final Duration lease;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet(); // so the sweeper doesn't double-submit
+    private final Timer approvedTimer;
+    private final Timer declinedTimer;
+    private final Timer errorTimer;
+
+    public PaymentProcessor(PaymentGateway paymentGateway,
+                            OrderRepository orderRepository,
+                            OutboxService outboxService,
+                            TransactionTemplate transactionTemplate,
+                            OrderMapper orderMapper,
+                            RestaurantOrderBoard restaurantOrderBoard,
+                            OrderUpdateStreams orderUpdateStreams,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.payment.workers:200}") int workers,
+                            @Value("${order.payment.queue-capacity:10000}") int queueCapacity,
+                            @Value("${order.payment.lease-seconds:60}") long leaseSeconds) {
+        this.paymentGateway = paymentGateway;
+        this.orderRepository = orderRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.orderMapper = orderMapper;
+        this.restaurantOrderBoard = restaurantOrderBoard;
+        this.orderUpdateStreams = orderUpdateStreams;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("payment-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("order.payment.queue.depth", executor, e -> e.getQueue().size())
+                .description("Payments waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("order.payment.in-flight", inFlight, Set::size)
+                .description("Payments queued or being authorized")
+                .register(meterRegistry);
+        this.approvedTimer = authorizationTimer(meterRegistry, "approved");
+        this.declinedTimer = authorizationTimer(meterRegistry, "declined");
+        this.errorTimer = authorizationTimer(meterRegistry, "error");
+    }
+
+    private static Timer authorizationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("order.payment.authorization")
+                .description("Time spent waiting on the payment gateway")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Queues the order's authorization. Returns immediately; never throws.
+    public void submit(Long orderId) {
+        if (!inFlight.add(orderId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    authorize(orderId);
+                } catch (Exception e) {
+                    log.error("Payment for order {} failed unexpectedly, leaving it for the sweeper: {}", orderId, e.getMessage());
+                } finally {
+                    inFlight.remove(orderId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(orderId);
+            log.warn("Payment queue full, order {} waits for the next sweep", orderId);
+        }
+    }
+
+    // Gives up on a payment that never got a decision, cancelling the order
+    public void expire(Long orderId) {
+        if (inFlight.contains(orderId)) {
+            return; // still being authorized here; its outcome wins
+        }
+        // Giving up needs the claim too: an instance still waiting on the gateway holds it, and its outcome wins
+        if (claim(orderId) == null) {
+            return;
+        }
+        settle(orderId, PaymentResult.declined("No decision from the payment gateway"));
+    }
+
+    // Returns the order if this instance now holds the payment's lease, null if it is settled or claimed elsewhere
+    private Order claim(Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> orderRepository.claimPayment(orderId, now, now.plus(lease)).orElse(null));
+    }
+
+    private void authorize(Long orderId) {
+        // === Step 1: Claim the payment; skip it if it was settled meanwhile or another instance is on it ===
+        Order order = claim(orderId);
+        if (order == null) {
+            return;
+        }
+
+        // === Step 2: Ask the gateway, outside any transaction so no connection is held while we wait ===
+        PaymentRequest request = new PaymentRequest("order-" + orderId, order.getTotalPrice(), order.getPaymentMethod());
+        long start = System.nanoTime();
+        PaymentResult result;
+        try {
+            result = paymentGateway.authorize(request);
+        } catch (PaymentGatewayException e) {
+            errorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("No payment decision for order {}, will retry: {}", orderId, e.getMessage());
+            return;
+        }
+        (result.approved() ? approvedTimer : declinedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        // === Step 3: Record the outcome ===
+        settle(orderId, result);
+    }
+
+    private void settle(Long orderId, PaymentResult result) {
+        // The UPDATE only matches while the payment is PENDING, so the first outcome recorded is the only one.
+        // A decline cancels the order. The event commits together with the change, like every other order event.
+        OrderResponseDTO settled = transactionTemplate.execute(status -> orderRepository.settlePayment(orderId,
+                        (result.approved() ? PaymentStatus.COMPLETED : PaymentStatus.FAILED).name(),
+                        result.transactionId(),
+                        result.approved() ? null : OrderStatus.CANCELLED.name(),
+                        LocalDateTime.now())
+                .map(order -> {
+                    String routingKey = result.approved()
+                            ? RabbitMQConfig.ORDER_PAYMENT_COMPLETED_ROUTING_KEY
+                            : "order.status." + OrderStatus.CANCELLED.name().toLowerCase();
+                    outboxService.enqueue(routingKey, orderMapper.orderToEvent(order));
+                    return orderMapper.orderToResponseDTO(order);
+                })
+                .orElse(null));
+        if (settled == null) {
+            if (result.approved()) {
+                // The payment was settled elsewhere while the gateway decided (only possible once our lease ran out),
+                // so this approval will never be captured
+                voidApproval(orderId, result.transactionId());
+            }
+            return;
+        }
+        if (result.approved()) {
+            log.info("Payment completed for order {} - Transaction ID: {}", orderId, result.transactionId());
+        } else {
+            log.info("Payment failed for order {} ({}), order cancelled", orderId, result.declineReason());
+        }
+
+        // === Step 4: Update the restaurant's board and the customer's open streams (after commit) ===
+        restaurantOrderBoard.apply(settled);
+        orderUpdateStreams.publish(settled);
+    }
+
+    private void voidApproval(Long orderId, String transactionId) {
+        log.warn("Payment for order {} was approved ({}) after it had already been settled, voiding the approval", orderId, transactionId);
+        try {
+            paymentGateway.voidAuthorization(transactionId);
+        } catch (PaymentGatewayException e) {
+            log.error("Could not void authorization {} for order {}, it must be released by hand: {}", transactionId, orderId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Queued payments stay PENDING in the database and are picked up by the sweeper after restart
+        executor.shutdownNow();
+    }
+}
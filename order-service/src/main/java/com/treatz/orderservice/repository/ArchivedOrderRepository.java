@@ -0,0 +1,50 @@
+package com.treatz.orderservice.repository;
+
+import com.treatz.orderservice.entity.ArchivedOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    // Keyset pagination of a customer's archived orders, same order and cursor as OrderRepository's
+    @Query("SELECT a FROM ArchivedOrder a WHERE a.customerId = :customerId ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArchivedOrder> findFirstPageByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    @Query("SELECT a FROM ArchivedOrder a WHERE a.customerId = :customerId"
+            + " AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id))"
+            + " ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArchivedOrder> findNextPageByCustomerId(@Param("customerId") Long customerId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Limit limit);
+
+    // Moves up to batchSize delivered/cancelled orders with an ID from fromId up to (not including) beforeId
+    // (i.e. created in a given time span) and their items into orders_archive, in one statement. SKIP LOCKED lets several
+    // instances archive at once, and leaves orders alone that someone is updating right now.
+    @Modifying
+    @Query(value = "WITH victims AS ("
+            + "   SELECT id FROM orders WHERE id >= :fromId AND id < :beforeId AND status IN ('DELIVERED', 'CANCELLED')"
+            + "   ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED),"
+            + " moved_items AS ("
+            + "   DELETE FROM order_items WHERE order_id IN (SELECT id FROM victims)"
+            + "   RETURNING order_id, id, menu_item_id, quantity, price_per_item),"
+            + " moved AS ("
+            + "   DELETE FROM orders WHERE id IN (SELECT id FROM victims) RETURNING *)"
+            + " INSERT INTO orders_archive (id, customer_id, restaurant_id, rider_id, total_price, status,"
+            + "   payment_status, payment_method, payment_transaction_id, delivery_address, customer_phone,"
+            + "   delivery_instructions, created_at, updated_at, items, archived_at)"
+            + " SELECT m.id, m.customer_id, m.restaurant_id, m.rider_id, m.total_price, m.status,"
+            + "   m.payment_status, m.payment_method, m.payment_transaction_id, m.delivery_address, m.customer_phone,"
+            + "   m.delivery_instructions, m.created_at, m.updated_at,"
+            + "   COALESCE((SELECT jsonb_agg(jsonb_build_object('menuItemId', i.menu_item_id, 'quantity', i.quantity,"
+            + "       'pricePerItem', i.price_per_item) ORDER BY i.id) FROM moved_items i WHERE i.order_id = m.id), '[]'),"
+            + "   LOCALTIMESTAMP"
+            + " FROM moved m", nativeQuery = true)
+    int archiveFinishedOrdersBetween(@Param("fromId") long fromId, @Param("beforeId") long beforeId, @Param("batchSize") int batchSize);
+}
@@ -1,17 +1,125 @@
 package com.treatz.orderservice.repository;
 
+import com.treatz.orderservice.dto.OrderStatusSnapshotDTO;
 import com.treatz.orderservice.entity.Order;
 import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // The list queries below fetch the items in the same SELECT (LEFT JOIN FETCH),
+    // so mapping N orders to DTOs costs one statement instead of N + 1.
+    // The status queries only look at orders with id >= minId (OrderPartitionService.activeOrdersMinId()),
+    // so PostgreSQL only scans the most recent monthly partitions.
+
     // Find orders for a restaurant with specific status
-    List<Order> findByRestaurantIdAndStatus(Long restaurantId, OrderStatus status);
+    @EntityGraph(attributePaths = "items")
+    List<Order> findByRestaurantIdAndStatusAndIdGreaterThanEqual(Long restaurantId, OrderStatus status, Long minId);
 
     // Find all orders by status (for internal services)
-    List<Order> findAllByStatus(OrderStatus status);
+    @EntityGraph(attributePaths = "items")
+    List<Order> findAllByStatusAndIdGreaterThanEqual(OrderStatus status, Long minId);
+
+    // Every active order, to load the restaurant order board on startup
+    @EntityGraph(attributePaths = "items")
+    List<Order> findAllByStatusInAndIdGreaterThanEqual(Collection<OrderStatus> statuses, Long minId);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    // Customer order history, keyset-paginated on (createdAt, id) newest first.
+    // Items are not joined here (that would break the LIMIT); they arrive in one batch-fetch query.
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId"
+            + " AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))"
+            + " ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findNextPageByCustomerId(@Param("customerId") Long customerId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Limit limit);
+
+    // Internal status feed for the Dispatch Service, oldest change first.
+    // Rows come off a server-side cursor in chunks of 500, so memory stays flat however big the backlog is.
+    // Must be consumed inside a transaction (the PostgreSQL driver only uses a cursor with autocommit off).
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.treatz.orderservice.dto.OrderStatusSnapshotDTO(o.id, o.restaurantId, o.riderId, o.status, o.updatedAt)"
+            + " FROM Order o WHERE o.status = :status AND o.updatedAt > :since AND o.id >= :minId"
+            + " ORDER BY o.updatedAt, o.id")
+    Stream<OrderStatusSnapshotDTO> streamByStatusUpdatedAfter(@Param("status") OrderStatus status,
+                                                              @Param("since") LocalDateTime since,
+                                                              @Param("minId") Long minId);
+
+    // Compare-and-set status change in one round trip: applies only while the order is still in fromStatus
+    // (and, when assignedRiderId is given, still assigned to that rider), and returns the updated row.
+    // Empty means the guard did not match - the order is missing, in another status, or someone else's.
+    @Query(value = "UPDATE orders SET status = :toStatus,"
+            + " rider_id = COALESCE(CAST(:riderId AS BIGINT), rider_id),"
+            + " updated_at = :updatedAt"
+            + " WHERE id = :id AND status = :fromStatus"
+            + " AND (CAST(:assignedRiderId AS BIGINT) IS NULL OR rider_id = :assignedRiderId)"
+            + " AND (:requirePaid = FALSE OR payment_status = 'COMPLETED')"
+            + " RETURNING *", nativeQuery = true)
+    Optional<Order> compareAndSetStatus(@Param("id") Long id,
+                                        @Param("fromStatus") String fromStatus,
+                                        @Param("toStatus") String toStatus,
+                                        @Param("riderId") Long riderId,
+                                        @Param("assignedRiderId") Long assignedRiderId,
+                                        @Param("requirePaid") boolean requirePaid,
+                                        @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Claims a PENDING payment for one authorization attempt (or for giving up on it) until leaseUntil.
+    // Only matches while no other claim is running, so across all instances at most one talks to the
+    // gateway about an order at a time. Empty means the payment is settled, missing, or claimed elsewhere.
+    @Query(value = "UPDATE orders SET payment_lease_until = :leaseUntil"
+            + " WHERE id = :id AND payment_status = 'PENDING'"
+            + " AND (payment_lease_until IS NULL OR payment_lease_until < :now)"
+            + " RETURNING *", nativeQuery = true)
+    Optional<Order> claimPayment(@Param("id") Long id,
+                                 @Param("now") LocalDateTime now,
+                                 @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Records the gateway's decision, once: only matches while the payment is still PENDING.
+    // A declined payment also cancels the order (orderStatus); an approved one leaves the status alone (null).
+    @Query(value = "UPDATE orders SET payment_status = :paymentStatus,"
+            + " payment_transaction_id = :transactionId,"
+            + " status = COALESCE(CAST(:orderStatus AS VARCHAR), status),"
+            + " updated_at = :updatedAt"
+            + " WHERE id = :id AND payment_status = 'PENDING'"
+            + " RETURNING *", nativeQuery = true)
+    Optional<Order> settlePayment(@Param("id") Long id,
+                                  @Param("paymentStatus") String paymentStatus,
+                                  @Param("transactionId") String transactionId,
+                                  @Param("orderStatus") String orderStatus,
+                                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Orders whose payment has been waiting since before 'cutoff', oldest first
+    @Query("SELECT o.id FROM Order o WHERE o.paymentStatus = :paymentStatus AND o.createdAt < :cutoff ORDER BY o.createdAt")
+    List<Long> findIdsByPaymentStatusCreatedBefore(@Param("paymentStatus") PaymentStatus paymentStatus,
+                                                   @Param("cutoff") LocalDateTime cutoff,
+                                                   Limit limit);
 
-    // Find all orders for a customer (order history)
-    List<Order> findByCustomerIdOrderByCreatedAtDesc(Long customerId);
-}
\ No newline at end of file
+    // Just enough of an order to explain why a status change was rejected
+    @Query("SELECT new com.treatz.orderservice.dto.OrderStatusSnapshotDTO(o.id, o.restaurantId, o.riderId, o.status, o.updatedAt)"
+            + " FROM Order o WHERE o.id = :id")
+    Optional<OrderStatusSnapshotDTO> findStatusSnapshotById(@Param("id") Long id);
+}
@@ -0,0 +1,21 @@
+package com.treatz.orderservice.repository;
+
+import com.treatz.orderservice.entity.RestaurantSalesRollup;
+import com.treatz.orderservice.entity.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RestaurantSalesRollupRepository extends JpaRepository<RestaurantSalesRollup, Long> {
+
+    // The buckets in [from, to), oldest first (served by the unique key's index)
+    @Query("SELECT r FROM RestaurantSalesRollup r WHERE r.restaurantId = :restaurantId AND r.granularity = :granularity"
+            + " AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<RestaurantSalesRollup> findBuckets(@Param("restaurantId") Long restaurantId,
+                                            @Param("granularity") RollupGranularity granularity,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,34 @@
+package com.treatz.orderservice.scheduler;
+
+import com.treatz.orderservice.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Forgets Idempotency-Keys once clients can no longer be retrying them
+@Component
+@Slf4j
+public class IdempotencyKeyCleanup {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final long retentionHours;
+
+    public IdempotencyKeyCleanup(IdempotencyRecordRepository idempotencyRecordRepository,
+                                 @Value("${order.idempotency.retention-hours:24}") long retentionHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency key(s)", deleted);
+        }
+    }
+}
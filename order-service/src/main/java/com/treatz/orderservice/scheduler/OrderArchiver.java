@@ -0,0 +1,63 @@
+package com.treatz.orderservice.scheduler;
+
+import com.treatz.orderservice.repository.ArchivedOrderRepository;
+import com.treatz.orderservice.service.OrderPartitionService;
+import com.treatz.orderservice.util.Snowflake;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Moves delivered and cancelled orders older than order.archive.after-days into orders_archive
+ * (compressed, one row per order), then drops the monthly partitions that are left empty.
+ * Customers still see archived orders in their history and by ID.
+ */
+@Component
+@Slf4j
+public class OrderArchiver {
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderPartitionService orderPartitionService;
+    private final TransactionTemplate transactionTemplate;
+    private final long afterDays;
+    private final int batchSize;
+
+    public OrderArchiver(ArchivedOrderRepository archivedOrderRepository,
+                         OrderPartitionService orderPartitionService,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${order.archive.after-days:30}") long afterDays,
+                         @Value("${order.archive.batch-size:1000}") int batchSize) {
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderPartitionService = orderPartitionService;
+        this.transactionTemplate = transactionTemplate;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${order.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        Instant cutoff = Instant.now().minus(afterDays, ChronoUnit.DAYS);
+        try {
+            // Small transactions, so live order updates are never blocked for long
+            long beforeId = Snowflake.minIdAt(cutoff);
+            int total = 0;
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archivedOrderRepository.archiveFinishedOrdersBetween(0, beforeId, batchSize));
+                total += moved;
+            } while (moved == batchSize);
+            if (total > 0) {
+                log.info("Archived {} order(s) created before {}", total, cutoff);
+            }
+
+            orderPartitionService.dropEmptyPartitionsBefore(cutoff);
+        } catch (Exception e) {
+            log.error("Order archiving failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.treatz.orderservice.scheduler;
+
+import com.treatz.orderservice.config.RabbitMQConfig;
+import com.treatz.orderservice.entity.OutboxEvent;
+import com.treatz.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the order outbox to RabbitMQ in batches.
+ * Each batch is published with publisher confirms, and only rows the broker acknowledged are deleted.
+ * Anything else stays in the table and is retried on the next run (at-least-once delivery).
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${order.outbox.batch-size:100}") int batchSize,
+                       @Value("${order.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+
+        Gauge.builder("order.outbox.depth", depth, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("order.outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox event")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("order.outbox.published").register(meterRegistry);
+        this.failedCounter = Counter.builder("order.outbox.failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.flush-interval-ms:200}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full, so a backlog clears without waiting for the next tick
+            int published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay run failed: {}", e.getMessage());
+        } finally {
+            refreshMetrics();
+        }
+    }
+
+    // Returns how many events were confirmed and removed from the outbox
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // === Step 1: Send everything in the batch without waiting ===
+        Map<Long, CorrelationData> pending = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+            try {
+                rabbitTemplate.send(RabbitMQConfig.EXCHANGE_NAME, event.getRoutingKey(), toMessage(event), correlation);
+                pending.put(event.getId(), correlation);
+            } catch (AmqpException e) {
+                log.warn("Broker unavailable while relaying outbox event {}: {}", event.getId(), e.getMessage());
+                break;
+            }
+        }
+
+        // === Step 2: Wait for the broker's confirms, for at most confirmTimeoutMs for the whole batch ===
+        // The batch's rows stay locked while we wait, so a broker that stops confirming must not hold them
+        // for one timeout per event. Whatever is unconfirmed at the deadline counts as failed.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        List<Long> confirmed = new ArrayList<>();
+        for (Map.Entry<Long, CorrelationData> entry : pending.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = entry.getValue().getFuture().get(remaining, TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    confirmed.add(entry.getKey());
+                } else {
+                    log.warn("Broker nacked outbox event {}: {}", entry.getKey(), confirm.getReason());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("No confirm for outbox event {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+
+        // === Step 3: Delete only what the broker accepted ===
+        if (!confirmed.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(confirmed);
+        }
+        publishedCounter.increment(confirmed.size());
+        failedCounter.increment(batch.size() - confirmed.size());
+        if (confirmed.size() < batch.size()) {
+            // Stop draining this run; unconfirmed events are retried next time
+            return -1;
+        }
+        return confirmed.size();
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId("order-outbox-" + event.getId()); // lets consumers de-duplicate redeliveries
+        if (event.getPayloadType() != null) {
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType());
+        }
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private void refreshMetrics() {
+        try {
+            depth.set(outboxEventRepository.count());
+            LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+        } catch (Exception e) {
+            log.debug("Could not refresh outbox metrics: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.treatz.orderservice.scheduler;
+
+import com.treatz.orderservice.entity.PaymentStatus;
+import com.treatz.orderservice.payment.PaymentProcessor;
+import com.treatz.orderservice.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Picks up payments that are still PENDING long after the order was placed: the queue was full, the gateway
+ * gave no decision, or the instance restarted before authorizing. They are submitted again, and after
+ * give-up-after-minutes without a decision the payment is failed and the order cancelled.
+ * The gateway request carries the order as its reference, so retrying doesn't charge twice.
+ * Payments another instance has claimed (it is still waiting on the gateway) are left alone by both steps.
+ */
+@Component
+@Slf4j
+public class PaymentSweeper {
+
+    private final OrderRepository orderRepository;
+    private final PaymentProcessor paymentProcessor;
+    private final long staleAfterSeconds;
+    private final long giveUpAfterMinutes;
+    private final int batchSize;
+
+    public PaymentSweeper(OrderRepository orderRepository,
+                          PaymentProcessor paymentProcessor,
+                          @Value("${order.payment.stale-after-seconds:60}") long staleAfterSeconds,
+                          @Value("${order.payment.give-up-after-minutes:15}") long giveUpAfterMinutes,
+                          @Value("${order.payment.sweep-batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.paymentProcessor = paymentProcessor;
+        this.staleAfterSeconds = staleAfterSeconds;
+        this.giveUpAfterMinutes = giveUpAfterMinutes;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${order.payment.sweep-interval-ms:30000}")
+    public void sweep() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+
+            // Expire first, so the retry query below no longer sees those orders
+            List<Long> expired = orderRepository.findIdsByPaymentStatusCreatedBefore(
+                    PaymentStatus.PENDING, now.minusMinutes(giveUpAfterMinutes), Limit.of(batchSize));
+            expired.forEach(paymentProcessor::expire);
+
+            List<Long> stale = orderRepository.findIdsByPaymentStatusCreatedBefore(
+                    PaymentStatus.PENDING, now.minusSeconds(staleAfterSeconds), Limit.of(batchSize));
+            stale.forEach(paymentProcessor::submit);
+
+            if (!expired.isEmpty() || !stale.isEmpty()) {
+                log.info("Payment sweep: {} expired, {} resubmitted", expired.size(), stale.size());
+            }
+        } catch (Exception e) {
+            log.error("Payment sweep failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.treatz.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.entity.IdempotencyRecord;
+import com.treatz.orderservice.exception.IdempotencyKeyReuseException;
+import com.treatz.orderservice.exception.ServiceUnavailableException;
+import com.treatz.orderservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes POST /api/orders safe to retry with an Idempotency-Key header.
+ * The first request with a key runs; its response is stored next to the order (order_idempotency_keys)
+ * and kept in a bounded in-memory window. Retries get that response back without redoing any work,
+ * and a duplicate that arrives while the first is still running waits for it instead of running too.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final long waitTimeoutMs;
+
+    // customerId:key -> the first execution's outcome (possibly still running)
+    private final Cache<String, CompletableFuture<StoredResponse>> window;
+
+    private record StoredResponse(String requestHash, OrderResponseDTO response) {
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${order.idempotency.window-size:10000}") long windowSize,
+                              @Value("${order.idempotency.window-minutes:10}") long windowMinutes,
+                              @Value("${order.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.window = Caffeine.newBuilder()
+                .maximumSize(windowSize)
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, window, "idempotencyWindow");
+    }
+
+    /**
+     * Runs {@code placeOrder} at most once per (customer, key). The action must call
+     * {@link #record} inside its transaction so the response is stored with the order.
+     */
+    public OrderResponseDTO execute(Long customerId, String key, Object request, Supplier<OrderResponseDTO> placeOrder) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        String windowKey = customerId + ":" + key;
+
+        // === Step 1: Claim the key, or wait for whoever already has it ===
+        CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> inFlight = window.asMap().putIfAbsent(windowKey, claim);
+        if (inFlight != null) {
+            log.debug("Idempotency-Key {} is already known for customer {}, reusing its outcome", key, customerId);
+            return replay(await(inFlight), requestHash);
+        }
+
+        // === Step 2: Fall back to the durable store (the window may have forgotten it), else run ===
+        try {
+            StoredResponse outcome = idempotencyRecordRepository.findByCustomerIdAndIdempotencyKey(customerId, key)
+                    .map(this::fromRecord)
+                    .orElseGet(() -> runOnce(customerId, key, requestHash, placeOrder));
+            claim.complete(outcome);
+            return replay(outcome, requestHash);
+        } catch (RuntimeException e) {
+            // Failures aren't remembered: waiters see this error, and the next retry runs again
+            window.invalidate(windowKey);
+            claim.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Stores the response of a first execution. Must run in the transaction that saves the order.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long customerId, String key, Object request, OrderResponseDTO response) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setCustomerId(customerId);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(hash(request));
+        record.setOrderId(response.getId());
+        record.setResponse(toJson(response));
+        idempotencyRecordRepository.save(record);
+    }
+
+    private StoredResponse runOnce(Long customerId, String key, String requestHash, Supplier<OrderResponseDTO> placeOrder) {
+        try {
+            return new StoredResponse(requestHash, placeOrder.get());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored this key first (unique constraint); its order stands, ours was rolled back
+            return idempotencyRecordRepository.findByCustomerIdAndIdempotencyKey(customerId, key)
+                    .map(this::fromRecord)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> inFlight) {
+        try {
+            return inFlight.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("An earlier request with this Idempotency-Key is still being processed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for an earlier request with this Idempotency-Key", e);
+        }
+    }
+
+    private OrderResponseDTO replay(StoredResponse outcome, String requestHash) {
+        if (!outcome.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key was already used for a different order request");
+        }
+        return outcome.response();
+    }
+
+    private StoredResponse fromRecord(IdempotencyRecord record) {
+        try {
+            return new StoredResponse(record.getRequestHash(), objectMapper.readValue(record.getResponse(), OrderResponseDTO.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key " + record.getIdempotencyKey() + " is unreadable", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.treatz.orderservice.service;
+
+import com.treatz.orderservice.util.Snowflake;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the monthly partitions of orders and order_items (see schema.sql).
+ * Partitions are created a few months ahead, so new orders never land in the DEFAULT partition,
+ * and are dropped once the archiver has moved everything out of them.
+ *
+ * Also tells the hot status queries how far back active orders go, so PostgreSQL can skip older partitions.
+ */
+@Service
+@Slf4j
+public class OrderPartitionService {
+
+    // Partitioned table -> its partition key (an order ID)
+    private static final Map<String, String> TABLES = Map.of("orders", "id", "order_items", "order_id");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    // SQLSTATE of a statement canceled by lock_timeout
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final long activeWindowDays;
+    private final long detachLockTimeoutMillis;
+
+    public OrderPartitionService(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${order.partition.months-ahead:2}") int monthsAhead,
+                                 @Value("${order.partition.active-window-days:7}") long activeWindowDays,
+                                 @Value("${order.partition.detach-lock-timeout-ms:1000}") long detachLockTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.activeWindowDays = activeWindowDays;
+        this.detachLockTimeoutMillis = detachLockTimeoutMillis;
+    }
+
+    // Orders still open after this many days are treated as abandoned by the restaurant and dispatch views.
+    // Returns the smallest ID such an order can have.
+    public long activeOrdersMinId() {
+        return Snowflake.minIdAt(Instant.now().minus(activeWindowDays, ChronoUnit.DAYS));
+    }
+
+    // Runs before the web server starts taking orders, then daily
+    @PostConstruct
+    @Scheduled(cron = "${order.partition.maintenance-cron:0 15 0 * * *}")
+    public void ensurePartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            for (Map.Entry<String, String> table : TABLES.entrySet()) {
+                try {
+                    createPartition(table.getKey(), table.getValue(), current.plusMonths(i));
+                } catch (Exception e) {
+                    log.warn("Could not create {} partition for {}: {}", table.getKey(), current.plusMonths(i), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void createPartition(String table, String key, YearMonth month) {
+        String partition = partitionName(table, month);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition)) {
+            return;
+        }
+        long from = Snowflake.minIdAt(month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        long to = Snowflake.minIdAt(month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            // Rows written while this month had no partition went to the default one; bring them along
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + table + "_default"
+                    + " WHERE " + key + " >= ? AND " + key + " < ? RETURNING *)"
+                    + " INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+            log.info("Created partition {} ({} row(s) moved from the default partition)", partition, moved);
+        });
+    }
+
+    // Drops the months that ended before 'cutoff' once neither orders nor order_items has rows left in them.
+    // Detaching locks every query out of orders and order_items (DETACH ... CONCURRENTLY isn't allowed next to
+    // the DEFAULT partitions), so the emptiness scans run before it, and it gives up after detachLockTimeoutMillis
+    // instead of queueing behind a long query; the month is then tried again on the next run.
+    public void dropEmptyPartitionsBefore(Instant cutoff) {
+        YearMonth firstKept = YearMonth.from(cutoff.atZone(ZoneOffset.UTC));
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = 'orders'::regclass AND c.relname LIKE 'orders\\_p%'", String.class);
+
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring("orders_p".length()), SUFFIX);
+            if (!month.isBefore(firstKept)) {
+                continue;
+            }
+            if (!isEmpty(month)) {
+                continue; // open orders (or their items) are still in there
+            }
+            // No rows can arrive after the check: new order IDs come from the clock, and this month is over
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = " + detachLockTimeoutMillis);
+                    for (String table : TABLES.keySet()) {
+                        String name = partitionName(table, month);
+                        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name)) {
+                            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + name);
+                            jdbcTemplate.execute("DROP TABLE " + name);
+                        }
+                    }
+                });
+                log.info("Dropped empty partitions for {}", month);
+            } catch (DataAccessException e) {
+                if (!(e.getMostSpecificCause() instanceof SQLException sql) || !LOCK_NOT_AVAILABLE.equals(sql.getSQLState())) {
+                    throw e;
+                }
+                log.warn("Partitions for {} are in use, dropping them is left to the next run", month);
+            }
+        }
+    }
+
+    private boolean isEmpty(YearMonth month) {
+        for (String table : TABLES.keySet()) {
+            String name = partitionName(table, month);
+            boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+            if (exists && jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+}
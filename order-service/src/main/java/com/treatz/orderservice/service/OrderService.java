@@ -1,27 +1,45 @@
 package com.treatz.orderservice.service;
 
 import com.treatz.orderservice.dto.CreateOrderRequestDTO;
+import com.treatz.orderservice.dto.OrderPageResponseDTO;
 import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.dto.OrderStatusSnapshotDTO;
+import com.treatz.orderservice.dto.SalesReportDTO;
 import com.treatz.orderservice.dto.UpdateOrderStatusRequestDTO;
+import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.entity.RollupGranularity;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
-    // Create new order
-    OrderResponseDTO createOrder(CreateOrderRequestDTO createOrderRequest);
+    // Create new order (idempotencyKey is optional; a repeated key returns the first response)
+    OrderResponseDTO createOrder(CreateOrderRequestDTO createOrderRequest, String idempotencyKey);
 
     // Restaurant owner views orders
     List<OrderResponseDTO> getOrdersForRestaurant(Long restaurantId, String status);
 
+    // Restaurant owner views sales over [from, to), per hour or per day
+    SalesReportDTO getSalesReport(Long restaurantId, RollupGranularity granularity, LocalDateTime from, LocalDateTime to);
+
     // Update order status
     OrderResponseDTO updateOrderStatus(Long orderId, UpdateOrderStatusRequestDTO request);
 
     // Internal service - find by status
     List<OrderResponseDTO> findAllByStatus(String status);
 
-    // Customer views their order history
-    List<OrderResponseDTO> getMyOrders();
+    // Internal service - streams slim snapshots of orders in a status changed after 'since' (null = all)
+    void streamOrdersByStatus(OrderStatus status, LocalDateTime since, Consumer<OrderStatusSnapshotDTO> sink);
+
+    // Customer views their order history, one page at a time (cursor is null for the first page)
+    OrderPageResponseDTO getMyOrders(String cursor, int size);
 
     // Customer views specific order details
     OrderResponseDTO getOrderById(Long orderId);
+
+    // Customer follows an order live (Server-Sent Events), resuming after lastEventId if given
+    SseEmitter streamOrderUpdates(Long orderId, String lastEventId);
 }
\ No newline at end of file
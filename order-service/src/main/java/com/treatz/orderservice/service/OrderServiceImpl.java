@@ -1,126 +1,130 @@
 package com.treatz.orderservice.service;
 
+import com.treatz.orderservice.cache.MenuItemCache;
+import com.treatz.orderservice.cache.RestaurantOrderBoard;
+import com.treatz.orderservice.cache.RestaurantOwnerCache;
 import com.treatz.orderservice.config.RabbitMQConfig;
 import com.treatz.orderservice.dto.CreateOrderRequestDTO;
 import com.treatz.orderservice.dto.MenuItemResponseDTO; // This might need to be created or adjusted
 import com.treatz.orderservice.dto.OrderItemResponseDTO;
+import com.treatz.orderservice.dto.OrderPageResponseDTO;
+import com.treatz.orderservice.dto.OrderStatusSnapshotDTO;
 import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.dto.SalesReportDTO;
+import com.treatz.orderservice.entity.ArchivedOrder;
 import com.treatz.orderservice.entity.Order;
 import com.treatz.orderservice.entity.OrderItem;
 import com.treatz.orderservice.entity.OrderStatus;
-import com.treatz.orderservice.exception.InvalidOrderStatusTransitionException;
+import com.treatz.orderservice.entity.PaymentMethod;
+import com.treatz.orderservice.entity.PaymentStatus;
+import com.treatz.orderservice.entity.RollupGranularity;
+import com.treatz.orderservice.exception.OrderStatusConflictException;
 import com.treatz.orderservice.exception.ResourceNotFoundException;
+import com.treatz.orderservice.payment.PaymentProcessor;
+import com.treatz.orderservice.repository.ArchivedOrderRepository;
 import com.treatz.orderservice.repository.OrderRepository;
+import com.treatz.orderservice.service.OrderStatusTransition.Actor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient; // For making API calls
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.treatz.orderservice.mapper.OrderMapper;
 import com.treatz.orderservice.dto.UpdateOrderStatusRequestDTO;
 import org.springframework.security.access.AccessDeniedException;
 
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
-    private final WebClient.Builder webClientBuilder; // Tool for calling other services
-    private final RabbitTemplate rabbitTemplate; // Our "Postal Worker" for sending messages
+    private final RestaurantOwnerCache restaurantOwnerCache; // Who owns which restaurant (cached Restaurant Service lookup)
+    private final OutboxService outboxService; // Events are written to the outbox, OutboxRelay is our "Postal Worker"
+    private final TransactionTemplate transactionTemplate;
     private final OrderMapper orderMapper;
+    private final MenuItemCache menuItemCache;
+    private final IdempotencyService idempotencyService;
+    private final RestaurantOrderBoard restaurantOrderBoard;
+    private final OrderUpdateStreams orderUpdateStreams;
+    private final PaymentProcessor paymentProcessor;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderPartitionService orderPartitionService;
+    private final SalesRollupService salesRollupService;
 
     @Override
-    public OrderResponseDTO createOrder(CreateOrderRequestDTO createOrderRequest) {
+    public OrderResponseDTO createOrder(CreateOrderRequestDTO createOrderRequest, String idempotencyKey) {
         // === Step 1: Get User Info ===
         Jwt principal = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Long customerId = principal.getClaim("userId");
 
-        // === Step 2: Call the Restaurant Service to get menu item details ===
-        // We collect all the IDs of the menu items the customer wants to order.
-        List<Long> menuItemIds = createOrderRequest.getItems().stream()
-                .map(item -> item.getMenuItemId())
-                .toList();
-
-        // We use our WebClient "telephone" to call the Restaurant Service.
-        // This is a SYNCHRONOUS call. The Order Service will wait for a response.
-        List<MenuItemResponseDTO> menuItemDetails = webClientBuilder.build()
-                .post()
-                .uri("http://restaurant-service/api/menu-items/details") // Eureka helps us find the service by name!
-                .bodyValue(menuItemIds)
-                .retrieve()
-                .bodyToFlux(MenuItemResponseDTO.class)
-                .collectList()
-                .block(); // .block() makes it wait for the response
-
-        // === Step 3: Validate the Order ===
-        if (menuItemDetails == null || menuItemDetails.size() != menuItemIds.size()) {
-            throw new IllegalArgumentException("One or more menu items could not be found.");
+        // A retried request with the same Idempotency-Key gets the first response back instead of a second order
+        if (idempotencyKey == null) {
+            return placeOrder(customerId, createOrderRequest, null);
         }
+        return idempotencyService.execute(customerId, idempotencyKey, createOrderRequest,
+                () -> placeOrder(customerId, createOrderRequest, idempotencyKey));
+    }
 
-        // Convert the list to a map for easy lookup
-        Map<Long, MenuItemResponseDTO> menuItemMap = menuItemDetails.stream()
-                .collect(Collectors.toMap(MenuItemResponseDTO::getId, item -> item));
-
-        // === Step 4: Build the Order Entity ===
-        Order order = new Order();
-        order.setCustomerId(customerId);
-        order.setRestaurantId(createOrderRequest.getRestaurantId());
-        order.setStatus(OrderStatus.PENDING);
-
-        // Set payment information
-        order.setPaymentMethod(createOrderRequest.getPaymentMethod());
-        order.setPaymentStatus(com.treatz.orderservice.entity.PaymentStatus.PENDING);
-
-        // Set delivery information
-        order.setDeliveryAddress(createOrderRequest.getDeliveryAddress());
-        order.setCustomerPhone(createOrderRequest.getCustomerPhone());
-        order.setDeliveryInstructions(createOrderRequest.getDeliveryInstructions());
-
-        List<OrderItem> orderItems = createOrderRequest.getItems().stream().map(reqItem -> {
-            MenuItemResponseDTO details = menuItemMap.get(reqItem.getMenuItemId());
-            OrderItem orderItem = new OrderItem();
-            orderItem.setMenuItemId(reqItem.getMenuItemId());
-            orderItem.setQuantity(reqItem.getQuantity());
-            orderItem.setPricePerItem(details.getPrice()); // Already BigDecimal, no valueOf needed
-            orderItem.setOrder(order);
-            return orderItem;
-        }).toList();
-
-        order.setItems(orderItems);
+    private OrderResponseDTO placeOrder(Long customerId, CreateOrderRequestDTO createOrderRequest, String idempotencyKey) {
+        // === Step 2: Get menu item details (local cache, falling back to the Restaurant Service) ===
+        Map<Long, MenuItemResponseDTO> menuItemMap = fetchMenuItems(createOrderRequest);
 
-        // Calculate total price
-        BigDecimal totalPrice = orderItems.stream()
-                .map(item -> item.getPricePerItem().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setTotalPrice(totalPrice);
+        // === Step 3: Build the Order Entity ===
+        Order order = buildOrder(customerId, createOrderRequest, menuItemMap);
 
-        // === Step 5: Process Payment ===
+        // === Step 4: Process Payment ===
+        // Cash on delivery is settled right away; card/UPI is saved as PENDING and authorized after commit
         processPayment(order);
 
-        // === Step 6: Save the Order to the Database ===
-        Order savedOrder = orderRepository.save(order);
+        // === Step 5 & 6: Save the Order and record the "order placed" event in ONE transaction ===
+        // The event goes to the outbox table; OutboxRelay publishes it to RabbitMQ in the background,
+        // so a slow or unavailable broker never delays the customer's request.
+        // The idempotency record (if any) commits together with the order, too.
+        OrderResponseDTO response = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            outboxService.enqueue(RabbitMQConfig.ORDER_PLACED_ROUTING_KEY, orderMapper.orderToEvent(saved));
+            OrderResponseDTO created = toCreatedResponse(saved);
+            if (idempotencyKey != null) {
+                idempotencyService.record(customerId, idempotencyKey, createOrderRequest, created);
+            }
+            return created;
+        });
+        log.debug("Recorded order placed event for order {}", response.getId());
+
+        // === Step 8: Show it on the restaurant's live board and count it in its sales (after commit) ===
+        restaurantOrderBoard.apply(response);
+        salesRollupService.recordPlaced(response.getRestaurantId(), response.getCreatedAt());
 
-        // === Step 6: PUBLISH THE EVENT! ===
-        // The mail is ready to be sent. We give it to our postal worker (RabbitTemplate).
-        System.out.println("Publishing order placed event for order ID: " + savedOrder.getId());
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.EXCHANGE_NAME,
-                RabbitMQConfig.ORDER_PLACED_ROUTING_KEY,
-                savedOrder.getId() // We'll just send the order ID for now
-        );
+        // === Step 9: Hand card/UPI payments to the payment workers (the response says PENDING) ===
+        if (PaymentStatus.PENDING.name().equals(response.getPaymentStatus())) {
+            paymentProcessor.submit(response.getId());
+        }
+        return response;
+    }
 
-        // === Step 7: Return the Response ===
+    // === Step 7: Build the Response ===
+    private OrderResponseDTO toCreatedResponse(Order savedOrder) {
         OrderResponseDTO response = new OrderResponseDTO();
         response.setId(savedOrder.getId());
         response.setCustomerId(savedOrder.getCustomerId());
@@ -152,32 +156,23 @@ public class OrderServiceImpl implements OrderService {
     // In OrderServiceImpl.java
 
     @Override
+    // Not @Transactional: the board answers without the database, so a connection is only taken for the fallback below
     public List<OrderResponseDTO> getOrdersForRestaurant(Long restaurantId, String status) {
-        // === Step 1: Get the ID of the user making the request from the JWT ===
-        Jwt principal = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Long authenticatedUserId = principal.getClaim("userId");
-
-        // === Step 2: Call the Restaurant Service to find out who the real owner is ===
-        Long actualOwnerId = webClientBuilder.build()
-                .get()
-                .uri("http://restaurant-service/api/restaurants/" + restaurantId + "/owner")
-                .retrieve()
-                .bodyToMono(Long.class)
-                .block();
+        // === Steps 1-3: Only the restaurant's owner may look ===
+        checkRestaurantOwner(restaurantId, "User is not authorized to view these orders.");
 
-        // === Step 3: THE CRITICAL SECURITY CHECK ===
-        if (!actualOwnerId.equals(authenticatedUserId)) {
-            throw new AccessDeniedException("User is not authorized to view these orders.");
-        }
-
-        // === Step 4: If security passes, fetch the orders from the database ===
+        // === Step 4: Serve active orders from the in-memory board (no database access) ===
         OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-        List<Order> orders = orderRepository.findByRestaurantIdAndStatus(restaurantId, orderStatus);
+        Optional<List<OrderResponseDTO>> live = restaurantOrderBoard.getOrders(restaurantId, orderStatus);
+        if (live.isPresent()) {
+            return live.get();
+        }
 
-        // === Step 5: Map the results to DTOs and return them ===
-        return orders.stream()
+        // === Step 5: Otherwise (finished orders, or board still loading) fetch from the database ===
+        return readOnly(() -> orderRepository.findByRestaurantIdAndStatusAndIdGreaterThanEqual(
+                        restaurantId, orderStatus, orderPartitionService.activeOrdersMinId()).stream()
                 .map(orderMapper::orderToResponseDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     // In OrderServiceImpl.java
@@ -188,111 +183,182 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public OrderResponseDTO updateOrderStatus(Long orderId, UpdateOrderStatusRequestDTO request) {
-        // === Step 1: Find the order and get the new status ===
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
         OrderStatus newStatus = OrderStatus.valueOf(request.getStatus().toUpperCase());
-        OrderStatus currentStatus = order.getStatus();
 
-        // === Step 2: THE CRITICAL FIX - Check the type of caller BEFORE accessing the JWT ===
+        // === Step 1: Check the type of caller BEFORE accessing the JWT ===
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         boolean isExternalUser = authentication != null && authentication.getPrincipal() instanceof Jwt;
 
+        Actor actor;
+        Long authenticatedUserId = null;
         if (isExternalUser) {
             // --- This is a REAL USER with a JWT (Restaurant Owner or Rider) ---
-            Jwt principal = (Jwt) authentication.getPrincipal();
-            Long authenticatedUserId = principal.getClaim("userId");
-
-            // We check the user's official granted authorities.
+            authenticatedUserId = ((Jwt) authentication.getPrincipal()).getClaim("userId");
             if (authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_RESTAURANT_OWNER"))) {
-                // --- Security & State Logic for RESTAURANT_OWNER ---
-                Long actualOwnerId = webClientBuilder.build().get().uri("http://restaurant-service/api/restaurants/" + order.getRestaurantId() + "/owner").retrieve().bodyToMono(Long.class).block();
-                if (!actualOwnerId.equals(authenticatedUserId)) {
-                    throw new AccessDeniedException("User is not authorized to update this order.");
-                }
-
-                switch (newStatus) {
-                    case ACCEPTED:
-                        if (currentStatus != OrderStatus.PENDING) throw new InvalidOrderStatusTransitionException("Can only accept a PENDING order.");
-                        break;
-                    case PREPARING:
-                        if (currentStatus != OrderStatus.ACCEPTED) throw new InvalidOrderStatusTransitionException("Can only prepare an ACCEPTED order.");
-                        break;
-                    case READY_FOR_PICKUP:
-                        if (currentStatus != OrderStatus.PREPARING) throw new InvalidOrderStatusTransitionException("Can only mark a PREPARING order as ready.");
-                        break;
-                    default:
-                        throw new InvalidOrderStatusTransitionException("Restaurant owner cannot change status to " + newStatus);
-                }
+                actor = Actor.RESTAURANT_OWNER;
             } else if (authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_RIDER"))) {
-                // --- Security & State Logic for RIDER ---
-                switch (newStatus) {
-                    case DELIVERED:
-                        if (currentStatus != OrderStatus.DISPATCHED) throw new InvalidOrderStatusTransitionException("Can only deliver a DISPATCHED order.");
-                        if (order.getRiderId() == null || !order.getRiderId().equals(authenticatedUserId)) {
-                            throw new AccessDeniedException("Rider is not authorized to deliver this order.");
-                        }
-                        break;
-                    default:
-                        throw new InvalidOrderStatusTransitionException("Rider cannot change status to " + newStatus);
-                }
+                actor = Actor.RIDER;
             } else {
                 throw new AccessDeniedException("User is not authorized to update order status.");
             }
         } else {
             // --- This is an INTERNAL, anonymous call (from Dispatch Service) ---
-            // We trust this call and only check the state transition.
-            if (newStatus != OrderStatus.DISPATCHED || currentStatus != OrderStatus.READY_FOR_PICKUP) {
-                throw new InvalidOrderStatusTransitionException("Internal service can only change status from READY_FOR_PICKUP to DISPATCHED.");
-            }
+            actor = Actor.INTERNAL;
         }
 
-        // === Step 3: If all rules pass, update the order object ===
-        order.setStatus(newStatus);
-        // Set the rider ID if it was provided in the request (from Dispatch Service or Rider)
-        if (request.getRiderId() != null) {
-            order.setRiderId(request.getRiderId());
-        } else if (isExternalUser && "ROLE_RIDER".equals(((Jwt) authentication.getPrincipal()).getClaim("role")) && newStatus == OrderStatus.DISPATCHED){
-            // If a rider is dispatching, assign them to the order
-            order.setRiderId(((Jwt) authentication.getPrincipal()).getClaim("userId"));
+        // === Step 2: Look up the allowed transition (no database access) ===
+        OrderStatusTransition transition = OrderStatusTransition.of(actor, newStatus);
+        Long userId = authenticatedUserId;
+
+        // Owners are checked before the transaction: the owner lookup may call the Restaurant Service, and that
+        // must not happen while the UPDATE holds the order's row lock and a connection. restaurant_id never
+        // changes, so checking it up front is as good as checking the updated row.
+        if (actor == Actor.RESTAURANT_OWNER) {
+            OrderStatusSnapshotDTO current = orderRepository.findStatusSnapshotById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+            if (!restaurantOwnerCache.getOwnerId(current.getRestaurantId()).equals(userId)) {
+                throw new AccessDeniedException("User is not authorized to update this order.");
+            }
         }
 
-        // === Step 4: Save to database, publish event, and return response ===
-        Order updatedOrder = orderRepository.save(order);
+        // === Step 3: Apply it as ONE conditional UPDATE and record the event in the same transaction ===
+        // The UPDATE only matches while the order is still in transition.from(), so concurrent
+        // restaurant/rider/dispatch updates can't overwrite each other - the loser gets a 409.
+        Long assignedRiderId = actor == Actor.RIDER ? userId : null; // riders may only deliver their own orders
         String routingKey = "order.status." + newStatus.name().toLowerCase();
-        rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, routingKey, updatedOrder);
-        System.out.println("Published event with routing key: " + routingKey);
+        Order updatedOrder = transactionTemplate.execute(status -> {
+            Order updated = orderRepository.compareAndSetStatus(orderId, transition.from().name(), transition.to().name(),
+                            request.getRiderId(), assignedRiderId, transition.requiresPayment(), LocalDateTime.now())
+                    .orElseThrow(() -> rejectedTransition(orderId, transition));
+            outboxService.enqueue(routingKey, orderMapper.orderToEvent(updated));
+            return updated;
+        });
+        log.debug("Recorded {} event for order {}", routingKey, orderId);
+
+        // === Step 4: Move it on the restaurant's live board and push it to the customer's open streams ===
+        OrderResponseDTO response = orderMapper.orderToResponseDTO(updatedOrder);
+        restaurantOrderBoard.apply(response);
+        orderUpdateStreams.publish(response);
+        if (newStatus == OrderStatus.DELIVERED) {
+            salesRollupService.recordDelivered(response.getRestaurantId(), response.getUpdatedAt(), response.getTotalPrice());
+        }
+        return response;
+    }
+
+    @Override
+    // Not @Transactional: the ownership check may call the Restaurant Service, and must not hold a connection meanwhile
+    public SalesReportDTO getSalesReport(Long restaurantId, RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        // Only the restaurant's owner may see its sales
+        checkRestaurantOwner(restaurantId, "User is not authorized to view this restaurant's sales.");
+
+        // Answered from the pre-aggregated hourly/daily buckets, never from the orders table
+        return readOnly(() -> salesRollupService.getReport(restaurantId, granularity, from, to));
+    }
+
+    // Runs work in a read-only transaction, served by a read replica when one is configured
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> work.get());
+    }
+
+    private void checkRestaurantOwner(Long restaurantId, String deniedMessage) {
+        // === Step 1: Get the ID of the user making the request from the JWT ===
+        Jwt principal = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        Long authenticatedUserId = principal.getClaim("userId");
+
+        // === Step 2: Find out who the real owner is (cached, falls back to the Restaurant Service) ===
+        Long actualOwnerId = restaurantOwnerCache.getOwnerId(restaurantId);
 
-        return orderMapper.orderToResponseDTO(updatedOrder);
+        // === Step 3: THE CRITICAL SECURITY CHECK ===
+        if (!actualOwnerId.equals(authenticatedUserId)) {
+            throw new AccessDeniedException(deniedMessage);
+        }
+    }
+
+    // Works out why the conditional UPDATE matched nothing, so the caller gets the right error
+    // (owners were already checked, so no remote call is made here)
+    private RuntimeException rejectedTransition(Long orderId, OrderStatusTransition transition) {
+        OrderStatusSnapshotDTO current = orderRepository.findStatusSnapshotById(orderId).orElse(null);
+        if (current == null) {
+            return new ResourceNotFoundException("Order not found with id: " + orderId);
+        }
+        if (transition.actor() == Actor.RIDER && current.getStatus() == transition.from()) {
+            // Right status, so the rider guard is what failed
+            return new AccessDeniedException("Rider is not authorized to deliver this order.");
+        }
+        if (transition.requiresPayment() && current.getStatus() == transition.from()) {
+            // Right status and owner, so the payment guard is what failed
+            return new OrderStatusConflictException("Payment for this order has not completed yet.");
+        }
+        return new OrderStatusConflictException(transition.wrongStateMessage() + " Current status is " + current.getStatus() + ".");
     }
     @Override
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> findAllByStatus(String status) {
         OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-        return orderRepository.findAllByStatus(orderStatus).stream()
+        return orderRepository.findAllByStatusAndIdGreaterThanEqual(orderStatus, orderPartitionService.activeOrdersMinId()).stream()
                 .map(orderMapper::orderToResponseDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<OrderResponseDTO> getMyOrders() {
+    @Transactional(readOnly = true) // keeps the connection (and its cursor) open while rows are streamed
+    public void streamOrdersByStatus(OrderStatus status, LocalDateTime since, Consumer<OrderStatusSnapshotDTO> sink) {
+        LocalDateTime watermark = since != null ? since : LocalDateTime.of(1970, 1, 1, 0, 0);
+        Long minId = orderPartitionService.activeOrdersMinId();
+        try (Stream<OrderStatusSnapshotDTO> snapshots = orderRepository.streamByStatusUpdatedAfter(status, watermark, minId)) {
+            snapshots.forEach(sink);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageResponseDTO getMyOrders(String cursor, int size) {
         // Get customer ID from JWT
         Jwt principal = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Long customerId = principal.getClaim("userId");
 
-        // Fetch all orders for this customer, newest first
-        List<Order> orders = orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
-
-        // Map to DTOs
-        return orders.stream()
-                .map(orderMapper::orderToResponseDTO)
+        // Fetch one row more than asked for, so we know whether another page exists.
+        // Seeking past the cursor uses the (customer_id, created_at, id) index, so every page costs the same.
+        // Live and archived orders are read the same way and merged, so the archive is invisible to the customer.
+        Limit limit = Limit.of(size + 1);
+        OrderCursor after = (cursor == null || cursor.isBlank()) ? null : OrderCursor.decode(cursor);
+        List<Order> live = after == null
+                ? orderRepository.findFirstPageByCustomerId(customerId, limit)
+                : orderRepository.findNextPageByCustomerId(customerId, after.createdAt(), after.id(), limit);
+        List<ArchivedOrder> archived = after == null
+                ? archivedOrderRepository.findFirstPageByCustomerId(customerId, limit)
+                : archivedOrderRepository.findNextPageByCustomerId(customerId, after.createdAt(), after.id(), limit);
+
+        // Map to DTOs, newest first
+        List<OrderResponseDTO> orders = Stream.concat(
+                        live.stream().map(orderMapper::orderToResponseDTO),
+                        archived.stream().map(orderMapper::archivedOrderToResponseDTO))
+                .sorted(Comparator.comparing(OrderResponseDTO::getCreatedAt).thenComparing(OrderResponseDTO::getId).reversed())
+                .limit(size + 1)
                 .collect(Collectors.toList());
+
+        boolean hasMore = orders.size() > size;
+        if (hasMore) {
+            orders = orders.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderResponseDTO last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new OrderPageResponseDTO(orders, nextCursor, hasMore);
     }
 
     @Override
+    // Not read-only: customers open an order right after placing it, before a replica may have it
     public OrderResponseDTO getOrderById(Long orderId) {
-        // Find the order
-        Order order = orderRepository.findById(orderId)
+        // Find the order (live first, then the archive)
+        OrderResponseDTO order = orderRepository.findById(orderId)
+                .map(orderMapper::orderToResponseDTO)
+                .or(() -> archivedOrderRepository.findById(orderId).map(orderMapper::archivedOrderToResponseDTO))
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
         // Security check: Only the customer who placed the order can view it
@@ -304,39 +370,81 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // Return the order details
-        return orderMapper.orderToResponseDTO(order);
+        return order;
     }
 
-    // === PAYMENT PROCESSING (Simulated) ===
-    private void processPayment(Order order) {
-        com.treatz.orderservice.entity.PaymentMethod method = order.getPaymentMethod();
+    @Override
+    public SseEmitter streamOrderUpdates(Long orderId, String lastEventId) {
+        // Same lookup and ownership check as a normal GET, made once the stream is registered; its result is the first event
+        return orderUpdateStreams.subscribe(orderId, () -> getOrderById(orderId), lastEventId);
+    }
+
+    // === ORDER PLACEMENT STAGES ===
+
+    // Looks up all requested items at once and validates that every item exists
+    private Map<Long, MenuItemResponseDTO> fetchMenuItems(CreateOrderRequestDTO createOrderRequest) {
+        List<Long> menuItemIds = createOrderRequest.getItems().stream()
+                .map(item -> item.getMenuItemId())
+                .distinct()
+                .toList();
+
+        // Served from the local menu cache; only uncached IDs go over the network
+        List<MenuItemResponseDTO> menuItemDetails = menuItemCache.getAll(menuItemIds);
+
+        if (menuItemDetails == null || menuItemDetails.size() != menuItemIds.size()) {
+            throw new IllegalArgumentException("One or more menu items could not be found.");
+        }
+
+        // Convert the list to a map for easy lookup
+        return menuItemDetails.stream()
+                .collect(Collectors.toMap(MenuItemResponseDTO::getId, item -> item));
+    }
+
+    private Order buildOrder(Long customerId, CreateOrderRequestDTO createOrderRequest,
+                             Map<Long, MenuItemResponseDTO> menuItemMap) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setRestaurantId(createOrderRequest.getRestaurantId());
+        order.setStatus(OrderStatus.PENDING);
+
+        // Set payment information
+        order.setPaymentMethod(createOrderRequest.getPaymentMethod());
+        order.setPaymentStatus(com.treatz.orderservice.entity.PaymentStatus.PENDING);
 
-        if (method == com.treatz.orderservice.entity.PaymentMethod.CASH_ON_DELIVERY) {
+        // Set delivery information
+        order.setDeliveryAddress(createOrderRequest.getDeliveryAddress());
+        order.setCustomerPhone(createOrderRequest.getCustomerPhone());
+        order.setDeliveryInstructions(createOrderRequest.getDeliveryInstructions());
+
+        List<OrderItem> orderItems = createOrderRequest.getItems().stream().map(reqItem -> {
+            MenuItemResponseDTO details = menuItemMap.get(reqItem.getMenuItemId());
+            OrderItem orderItem = new OrderItem();
+            orderItem.setMenuItemId(reqItem.getMenuItemId());
+            orderItem.setQuantity(reqItem.getQuantity());
+            orderItem.setPricePerItem(details.getPrice()); // Already BigDecimal, no valueOf needed
+            orderItem.setOrder(order);
+            return orderItem;
+        }).toList();
+
+        order.setItems(orderItems);
+
+        // Calculate total price
+        BigDecimal totalPrice = orderItems.stream()
+                .map(item -> item.getPricePerItem().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        order.setTotalPrice(totalPrice);
+        return order;
+    }
+
+    // === PAYMENT PROCESSING ===
+    private void processPayment(Order order) {
+        if (order.getPaymentMethod() == PaymentMethod.CASH_ON_DELIVERY) {
             // Cash on delivery - no payment verification needed
-            order.setPaymentStatus(com.treatz.orderservice.entity.PaymentStatus.COMPLETED);
+            order.setPaymentStatus(PaymentStatus.COMPLETED);
             order.setPaymentTransactionId("COD-" + System.currentTimeMillis());
-            System.out.println("💵 Payment: Cash on Delivery - No verification needed");
         } else {
-            // Card/UPI payment - simulate payment gateway call
-            // In real world, you'd call Stripe/Razorpay API here
-            boolean paymentSuccess = simulatePaymentGateway(order);
-
-            if (paymentSuccess) {
-                order.setPaymentStatus(com.treatz.orderservice.entity.PaymentStatus.COMPLETED);
-                order.setPaymentTransactionId(method.name() + "-" + System.currentTimeMillis());
-                System.out.println("✅ Payment successful via " + method + " - Transaction ID: " + order.getPaymentTransactionId());
-            } else {
-                order.setPaymentStatus(com.treatz.orderservice.entity.PaymentStatus.FAILED);
-                throw new IllegalArgumentException("Payment failed. Please check your payment details and try again.");
-            }
+            // Card/UPI - the gateway takes from 300ms to seconds, so PaymentProcessor authorizes it in the background
+            order.setPaymentStatus(PaymentStatus.PENDING);
         }
     }
-
-    // Simulates payment gateway response
-    private boolean simulatePaymentGateway(Order order) {
-        // In real world: Call Stripe/Razorpay API, handle webhooks
-        // For demo: Always return true (payment successful)
-        System.out.println("🔄 Simulating payment gateway call for amount: $" + order.getTotalPrice());
-        return true;  // Payment always succeeds in simulation
-    }
-}
\ No newline at end of file
+}
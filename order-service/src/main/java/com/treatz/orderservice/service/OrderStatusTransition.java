@@ -0,0 +1,72 @@
+package com.treatz.orderservice.service;
+
+import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.exception.InvalidOrderStatusTransitionException;
+
+import static com.treatz.orderservice.entity.OrderStatus.*;
+
+/**
+ * Every status change the system allows, as (actor, from, to).
+ * updateOrderStatus looks the request up here without touching the database, then applies it
+ * as a single compare-and-set UPDATE guarded by {@code from} (and, for ACCEPT, by a completed payment).
+ */
+enum OrderStatusTransition {
+    ACCEPT(Actor.RESTAURANT_OWNER, PENDING, ACCEPTED, "Can only accept a PENDING order."),
+    START_PREPARING(Actor.RESTAURANT_OWNER, ACCEPTED, PREPARING, "Can only prepare an ACCEPTED order."),
+    MARK_READY(Actor.RESTAURANT_OWNER, PREPARING, READY_FOR_PICKUP, "Can only mark a PREPARING order as ready."),
+    DISPATCH(Actor.INTERNAL, READY_FOR_PICKUP, DISPATCHED, "Internal service can only change status from READY_FOR_PICKUP to DISPATCHED."),
+    DELIVER(Actor.RIDER, DISPATCHED, DELIVERED, "Can only deliver a DISPATCHED order.");
+
+    enum Actor {
+        RESTAURANT_OWNER,
+        RIDER,
+        INTERNAL // anonymous service-to-service call (Dispatch Service)
+    }
+
+    private final Actor actor;
+    private final OrderStatus from;
+    private final OrderStatus to;
+    private final String wrongStateMessage;
+
+    // Restaurants only see paid orders through; cash on delivery counts as paid when the order is placed
+    boolean requiresPayment() {
+        return this == ACCEPT;
+    }
+
+    OrderStatusTransition(Actor actor, OrderStatus from, OrderStatus to, String wrongStateMessage) {
+        this.actor = actor;
+        this.from = from;
+        this.to = to;
+        this.wrongStateMessage = wrongStateMessage;
+    }
+
+    // The transition this actor may use to reach 'to', or an InvalidOrderStatusTransitionException if there is none
+    static OrderStatusTransition of(Actor actor, OrderStatus to) {
+        for (OrderStatusTransition transition : values()) {
+            if (transition.actor == actor && transition.to == to) {
+                return transition;
+            }
+        }
+        throw new InvalidOrderStatusTransitionException(switch (actor) {
+            case RESTAURANT_OWNER -> "Restaurant owner cannot change status to " + to;
+            case RIDER -> "Rider cannot change status to " + to;
+            case INTERNAL -> DISPATCH.wrongStateMessage;
+        });
+    }
+
+    Actor actor() {
+        return actor;
+    }
+
+    OrderStatus from() {
+        return from;
+    }
+
+    OrderStatus to() {
+        return to;
+    }
+
+    String wrongStateMessage() {
+        return wrongStateMessage;
+    }
+}
@@ -0,0 +1,159 @@
+package com.treatz.orderservice.service;
+
+import com.treatz.orderservice.dto.OrderResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Pushes order changes to customers over Server-Sent Events, so the app can stop polling GET /api/orders/{id}.
+ * An open stream holds no thread (SseEmitter is an async servlet response), only a socket and a small entry here.
+ * Each instance serves its own connections; changes made on other instances reach it through the
+ * order.# events (see OrderEventListener).
+ *
+ * Every event carries the whole order, with its updatedAt as the event ID. A client that reconnects with
+ * Last-Event-ID gets the current order only if it changed since then.
+ */
+@Service
+@Slf4j
+public class OrderUpdateStreams {
+
+    private static final String EVENT_NAME = "order";
+
+    private final ConcurrentMap<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+
+    public OrderUpdateStreams(@Value("${order.sse.timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    // Everyone watching one order, plus the latest state they were sent
+    private static final class Subscription {
+        final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+        OrderResponseDTO latest;
+
+        synchronized boolean advance(OrderResponseDTO order) {
+            if (latest != null && order.getUpdatedAt() != null && latest.getUpdatedAt() != null
+                    && !order.getUpdatedAt().isAfter(latest.getUpdatedAt())) {
+                return false;
+            }
+            latest = order;
+            return true;
+        }
+
+        synchronized String latestStatus() {
+            return latest == null ? null : latest.getStatus();
+        }
+    }
+
+    // The emitter is registered before the order is loaded, so a change committed in between is not lost: either
+    // publish() sends it to this emitter, or the load sees it. If load throws (e.g. the caller may not view the
+    // order), the emitter is dropped before the controller ever returns it, so nothing it was sent goes out.
+    public SseEmitter subscribe(Long orderId, Supplier<OrderResponseDTO> load, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = subscriptions.compute(orderId, (id, existing) -> {
+            Subscription s = existing != null ? existing : new Subscription();
+            s.emitters.add(emitter);
+            return s;
+        });
+        emitter.onCompletion(() -> unsubscribe(orderId, emitter));
+        emitter.onTimeout(emitter::complete); // the client reconnects with Last-Event-ID
+        emitter.onError(e -> unsubscribe(orderId, emitter));
+
+        OrderResponseDTO loaded;
+        try {
+            loaded = load.get();
+        } catch (RuntimeException e) {
+            unsubscribe(orderId, emitter);
+            throw e;
+        }
+
+        // The first event is the newest state known, never one older than publish() may already have sent.
+        // Sending under the subscription's lock keeps it ordered with publish().
+        OrderResponseDTO current;
+        synchronized (subscription) {
+            subscription.advance(loaded);
+            current = subscription.latest;
+            // Resuming: skip the current state if the client already has it
+            if (!eventId(current).equals(lastEventId)) {
+                send(emitter, current);
+            }
+        }
+        if (isFinished(current)) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    // Sends a committed order change to everyone watching it. Older states than the last one sent are ignored.
+    public void publish(OrderResponseDTO order) {
+        Subscription subscription = subscriptions.get(order.getId());
+        if (subscription == null) {
+            return;
+        }
+        synchronized (subscription) {
+            if (!subscription.advance(order)) {
+                return;
+            }
+            for (SseEmitter emitter : subscription.emitters) {
+                send(emitter, order);
+                if (isFinished(order)) {
+                    emitter.complete(); // nothing more will happen to this order
+                }
+            }
+        }
+    }
+
+    // True if nobody here is watching the order, or watchers were already sent this status
+    public boolean isCurrent(Long orderId, String status) {
+        Subscription subscription = subscriptions.get(orderId);
+        return subscription == null || (status != null && status.equals(subscription.latestStatus()));
+    }
+
+    // Keeps idle connections open through proxies and weeds out clients that went away without closing
+    @Scheduled(fixedDelayString = "${order.sse.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        subscriptions.forEach((orderId, subscription) -> subscription.emitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(orderId, emitter);
+            }
+        }));
+    }
+
+    private void send(SseEmitter emitter, OrderResponseDTO order) {
+        try {
+            emitter.send(SseEmitter.event().id(eventId(order)).name(EVENT_NAME).data(order));
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected (or the emitter already completed); onError/onCompletion cleans up
+            log.debug("Dropping order stream for order {}: {}", order.getId(), e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Long orderId, SseEmitter emitter) {
+        subscriptions.computeIfPresent(orderId, (id, subscription) -> {
+            subscription.emitters.remove(emitter);
+            return subscription.emitters.isEmpty() ? null : subscription;
+        });
+    }
+
+    private static String eventId(OrderResponseDTO order) {
+        LocalDateTime updatedAt = order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt();
+        return String.valueOf(updatedAt);
+    }
+
+    private static boolean isFinished(OrderResponseDTO order) {
+        return "DELIVERED".equals(order.getStatus()) || "CANCELLED".equals(order.getStatus());
+    }
+}
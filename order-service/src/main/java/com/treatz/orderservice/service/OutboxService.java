@@ -0,0 +1,41 @@
+package com.treatz.orderservice.service;
+
+import com.treatz.orderservice.entity.OutboxEvent;
+import com.treatz.orderservice.event.OrderEvent;
+import com.treatz.orderservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records order events in the outbox table instead of sending them to RabbitMQ directly.
+ * Must be called inside the transaction that changes the order, so the event is saved
+ * if and only if the change is. {@link com.treatz.orderservice.scheduler.OutboxRelay} publishes it later.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageConverter jsonMessageConverter;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String routingKey, OrderEvent payload) {
+        // Convert now (inside the transaction) with the same converter RabbitTemplate would use
+        Message message = jsonMessageConverter.toMessage(payload, new MessageProperties());
+
+        OutboxEvent event = new OutboxEvent();
+        event.setOrderId(payload.getOrderId());
+        event.setRoutingKey(routingKey);
+        event.setPayload(new String(message.getBody(), StandardCharsets.UTF_8));
+        event.setPayloadType(message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME));
+        outboxEventRepository.save(event);
+    }
+}
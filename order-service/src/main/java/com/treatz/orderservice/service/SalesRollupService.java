@@ -0,0 +1,169 @@
+package com.treatz.orderservice.service;
+
+import com.treatz.orderservice.dto.SalesBucketDTO;
+import com.treatz.orderservice.dto.SalesReportDTO;
+import com.treatz.orderservice.entity.RestaurantSalesRollup;
+import com.treatz.orderservice.entity.RollupGranularity;
+import com.treatz.orderservice.repository.RestaurantSalesRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-restaurant sales per hour and per day, kept up to date as orders are placed and delivered,
+ * so dashboards never scan the orders table.
+ *
+ * Order placement and delivery only bump in-memory counters (LongAdders, which don't contend across threads).
+ * Every few seconds the counters are drained and added onto restaurant_sales_rollup with upserts.
+ * Each instance adds its own deltas, so the table holds the sum over all instances. Reports read the table,
+ * so they trail live traffic by up to one flush interval.
+ */
+@Service
+@Slf4j
+public class SalesRollupService {
+
+    private static final String UPSERT = "INSERT INTO restaurant_sales_rollup"
+            + " (restaurant_id, granularity, bucket_start, orders_placed, orders_delivered, revenue)"
+            + " VALUES (?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (restaurant_id, granularity, bucket_start) DO UPDATE SET"
+            + " orders_placed = restaurant_sales_rollup.orders_placed + EXCLUDED.orders_placed,"
+            + " orders_delivered = restaurant_sales_rollup.orders_delivered + EXCLUDED.orders_delivered,"
+            + " revenue = restaurant_sales_rollup.revenue + EXCLUDED.revenue";
+
+    private final RestaurantSalesRollupRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Unflushed counts per (restaurant, hour); daily rows are built from these at flush time
+    private final ConcurrentMap<Bucket, Counters> pending = new ConcurrentHashMap<>();
+
+    public SalesRollupService(RestaurantSalesRollupRepository rollupRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    record Bucket(Long restaurantId, LocalDateTime start) {
+    }
+
+    // Revenue is kept in cents, so it can be a LongAdder too
+    private static final class Counters {
+        final LongAdder placed = new LongAdder();
+        final LongAdder delivered = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+    }
+
+    // One row's worth of drained counts
+    record Delta(long placed, long delivered, long revenueCents) {
+        Delta plus(Delta other) {
+            return new Delta(placed + other.placed, delivered + other.delivered, revenueCents + other.revenueCents);
+        }
+
+        boolean isEmpty() {
+            return placed == 0 && delivered == 0 && revenueCents == 0;
+        }
+    }
+
+    public void recordPlaced(Long restaurantId, LocalDateTime placedAt) {
+        counters(restaurantId, placedAt).placed.increment();
+    }
+
+    public void recordDelivered(Long restaurantId, LocalDateTime deliveredAt, BigDecimal orderTotal) {
+        Counters counters = counters(restaurantId, deliveredAt);
+        counters.delivered.increment();
+        counters.revenueCents.add(orderTotal.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    private Counters counters(Long restaurantId, LocalDateTime time) {
+        return pending.computeIfAbsent(new Bucket(restaurantId, RollupGranularity.HOUR.bucketOf(time)), b -> new Counters());
+    }
+
+    @Scheduled(fixedDelayString = "${order.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        // === Step 1: Drain the counters ===
+        // sumThenReset never loses an increment: one that races with the drain lands in this flush or the next.
+        Map<Bucket, Delta> hours = new TreeMap<>(Comparator.comparing(Bucket::restaurantId).thenComparing(Bucket::start));
+        LocalDateTime idleBefore = RollupGranularity.HOUR.bucketOf(LocalDateTime.now()).minusHours(1);
+        pending.forEach((bucket, counters) -> {
+            Delta delta = new Delta(counters.placed.sumThenReset(), counters.delivered.sumThenReset(), counters.revenueCents.sumThenReset());
+            if (!delta.isEmpty()) {
+                hours.put(bucket, delta);
+            } else if (bucket.start().isBefore(idleBefore)) {
+                pending.remove(bucket, counters); // past hours don't get new orders; stop tracking them
+            }
+        });
+        if (hours.isEmpty()) {
+            return;
+        }
+
+        // === Step 2: Roll the hours up into days ===
+        Map<Bucket, Delta> days = new TreeMap<>(Comparator.comparing(Bucket::restaurantId).thenComparing(Bucket::start));
+        hours.forEach((hour, delta) ->
+                days.merge(new Bucket(hour.restaurantId(), RollupGranularity.DAY.bucketOf(hour.start())), delta, Delta::plus));
+
+        // === Step 3: Add everything onto the table in one transaction ===
+        // Rows go in key order, so instances flushing at the same time can't deadlock on each other
+        List<Object[]> rows = new ArrayList<>(hours.size() + days.size());
+        hours.forEach((bucket, delta) -> rows.add(row(bucket, RollupGranularity.HOUR, delta)));
+        days.forEach((bucket, delta) -> rows.add(row(bucket, RollupGranularity.DAY, delta)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, rows));
+        } catch (Exception e) {
+            // Put the counts back; the next flush tries again
+            hours.forEach((bucket, delta) -> {
+                Counters counters = pending.computeIfAbsent(bucket, b -> new Counters());
+                counters.placed.add(delta.placed());
+                counters.delivered.add(delta.delivered());
+                counters.revenueCents.add(delta.revenueCents());
+            });
+            log.warn("Could not flush {} sales rollup row(s), will retry: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    private static Object[] row(Bucket bucket, RollupGranularity granularity, Delta delta) {
+        return new Object[]{bucket.restaurantId(), granularity.name(), Timestamp.valueOf(bucket.start()),
+                delta.placed(), delta.delivered(), BigDecimal.valueOf(delta.revenueCents(), 2)};
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Reads pre-aggregated buckets only: at most one row per hour/day in the range
+    public SalesReportDTO getReport(Long restaurantId, RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.bucketOf(from);
+        List<SalesBucketDTO> buckets = rollupRepository.findBuckets(restaurantId, granularity, start, to).stream()
+                .map(r -> bucket(r.getBucketStart(), r.getOrdersPlaced(), r.getOrdersDelivered(), r.getRevenue()))
+                .toList();
+
+        long placed = buckets.stream().mapToLong(SalesBucketDTO::getOrdersPlaced).sum();
+        long delivered = buckets.stream().mapToLong(SalesBucketDTO::getOrdersDelivered).sum();
+        BigDecimal revenue = buckets.stream().map(SalesBucketDTO::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new SalesReportDTO(restaurantId, granularity.name(), start, to, buckets, bucket(start, placed, delivered, revenue));
+    }
+
+    private static SalesBucketDTO bucket(LocalDateTime start, long placed, long delivered, BigDecimal revenue) {
+        BigDecimal averageBasket = delivered == 0 ? null : revenue.divide(BigDecimal.valueOf(delivered), 2, RoundingMode.HALF_UP);
+        return new SalesBucketDTO(start, placed, delivered, revenue, averageBasket);
+    }
+}
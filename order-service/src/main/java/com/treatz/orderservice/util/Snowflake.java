@@ -0,0 +1,82 @@
+package com.treatz.orderservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Time-ordered 64-bit IDs, Snowflake style:
+ * <pre>
+ *   0 | 41 bits: milliseconds since 2024-01-01 | 10 bits: node | 12 bits: sequence
+ * </pre>
+ * IDs from one node are strictly increasing, and IDs from different nodes sort by creation time
+ * (to within clock skew). Up to 4096 IDs per millisecond per node; beyond that, or if the wall clock
+ * steps back, the generator runs slightly ahead on its own logical clock instead of blocking.
+ * Nodes must be unique among running instances; {@link SnowflakeNodeLease} leases them.
+ */
+public class Snowflake {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // One generator per node for the whole JVM, so every table shares the same sequence
+    private static final Map<Integer, Snowflake> NODES = new ConcurrentHashMap<>();
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private long lastMillis = -1;
+    private long sequence;
+    private volatile boolean retired;
+
+    Snowflake(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Snowflake node id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public static Snowflake forNode(int nodeId) {
+        return NODES.computeIfAbsent(nodeId, id -> new Snowflake(id, System::currentTimeMillis));
+    }
+
+    // Where an instance (e.g. its Eureka instance ID) starts looking for a free node
+    public static int nodeIdFor(String instanceId) {
+        CRC32 crc = new CRC32();
+        crc.update(instanceId.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() & MAX_NODE_ID);
+    }
+
+    // The smallest ID generated at or after 'instant', on any node. IDs are range-partitioned on this.
+    public static long minIdAt(Instant instant) {
+        return Math.max(0, instant.toEpochMilli() - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    // Stops issuing IDs for good, once another instance may be using this node
+    public void retire() {
+        retired = true;
+    }
+
+    public synchronized long nextId() {
+        if (retired) {
+            throw new IllegalStateException("Snowflake node " + nodeId + " is no longer leased by this instance");
+        }
+        long now = Math.max(clock.getAsLong(), lastMillis); // never go backwards
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                now++; // this millisecond is used up; borrow the next one
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,18 @@
+package com.treatz.orderservice.util;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Put on an @Id field to have Hibernate assign a Snowflake ID before the INSERT.
+// Unlike IDENTITY, the ID is known up front, so Hibernate can batch the inserts.
+@IdGeneratorType(SnowflakeIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface SnowflakeId {
+}
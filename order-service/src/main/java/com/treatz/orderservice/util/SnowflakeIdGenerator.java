@@ -0,0 +1,47 @@
+package com.treatz.orderservice.util;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Hibernate side of {@link SnowflakeId}. Hibernate creates this (not Spring), so the node comes from
+ * the Hibernate setting hibernate.id.snowflake.node-id, which {@link SnowflakeNodeLease} fills in with
+ * the node it leased. Without it the persistence unit fails to start rather than guess a node.
+ */
+public class SnowflakeIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String NODE_ID_SETTING = "hibernate.id.snowflake.node-id";
+
+    private final Snowflake snowflake;
+
+    public SnowflakeIdGenerator(SnowflakeId config, Member idMember, CustomIdGeneratorCreationContext context) {
+        Map<String, Object> settings = context.getServiceRegistry().requireService(ConfigurationService.class).getSettings();
+        this.snowflake = Snowflake.forNode(resolveNodeId(settings));
+    }
+
+    private static int resolveNodeId(Map<String, Object> settings) {
+        Object nodeId = settings.get(NODE_ID_SETTING);
+        if (nodeId == null || nodeId.toString().isBlank()) {
+            throw new IllegalStateException(NODE_ID_SETTING + " is not set; it comes from the node leased by SnowflakeNodeLease");
+        }
+        return Integer.parseInt(nodeId.toString().trim());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return snowflake.nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
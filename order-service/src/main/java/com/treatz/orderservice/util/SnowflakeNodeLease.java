@@ -0,0 +1,129 @@
+package com.treatz.orderservice.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases this instance's Snowflake node from the database, so no two running instances generate IDs on the
+ * same node. The lease is a row in snowflake_nodes, whose primary key is the node; it is renewed every
+ * heartbeat-interval-ms, and another instance can only take the node over once the lease has run out.
+ *
+ * Without order.snowflake.node-id the first free node is leased, starting from one derived from the instance ID.
+ * With it, exactly that node is leased. Either way startup fails if no node can be leased. If the lease is lost
+ * (or can't be renewed before it runs out) the node stops issuing IDs rather than risk duplicates.
+ */
+@Component
+@DependsOnDatabaseInitialization
+@Slf4j
+public class SnowflakeNodeLease implements HibernatePropertiesCustomizer {
+
+    // One per JVM: every application context in it shares the node's generator (Snowflake.forNode)
+    private static final String JVM_OWNER = UUID.randomUUID().toString();
+
+    // Takes the node if it is free, ours already, or its lease has run out. Uses the database clock, so the
+    // instances' clocks don't need to agree.
+    private static final String CLAIM = "INSERT INTO snowflake_nodes (node_id, owner, instance_id, leased_until)"
+            + " VALUES (?, ?, ?, LOCALTIMESTAMP + make_interval(secs => ?))"
+            + " ON CONFLICT (node_id) DO UPDATE SET owner = EXCLUDED.owner, instance_id = EXCLUDED.instance_id,"
+            + " leased_until = EXCLUDED.leased_until"
+            + " WHERE snowflake_nodes.owner = EXCLUDED.owner OR snowflake_nodes.leased_until < LOCALTIMESTAMP"
+            + " RETURNING node_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final String instanceId;
+    private final long leaseSeconds;
+    private final int nodeId;
+    private volatile long renewedAt = System.nanoTime();
+
+    @Autowired
+    public SnowflakeNodeLease(JdbcTemplate jdbcTemplate,
+                              @Value("${eureka.instance.instance-id:${spring.application.name}}") String instanceId,
+                              @Value("${order.snowflake.node-id:}") String configuredNodeId,
+                              @Value("${order.snowflake.lease-seconds:300}") long leaseSeconds) {
+        this(jdbcTemplate, JVM_OWNER, instanceId, configuredNodeId, leaseSeconds);
+    }
+
+    SnowflakeNodeLease(JdbcTemplate jdbcTemplate, String owner, String instanceId, String configuredNodeId, long leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.instanceId = instanceId;
+        this.leaseSeconds = leaseSeconds;
+        this.nodeId = configuredNodeId.isBlank() ? leaseFreeNode() : leaseConfiguredNode(Integer.parseInt(configuredNodeId.trim()));
+        log.info("Snowflake IDs use node {}, leased by {}", nodeId, instanceId);
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(SnowflakeIdGenerator.NODE_ID_SETTING, nodeId);
+    }
+
+    @Scheduled(fixedDelayString = "${order.snowflake.heartbeat-interval-ms:30000}")
+    public void renew() {
+        try {
+            if (claim(nodeId)) {
+                renewedAt = System.nanoTime();
+                return;
+            }
+            log.error("Snowflake node {} was leased by another instance; this instance can no longer create orders", nodeId);
+            Snowflake.forNode(nodeId).retire();
+        } catch (DataAccessException e) {
+            if (System.nanoTime() - renewedAt < TimeUnit.SECONDS.toNanos(leaseSeconds)) {
+                log.warn("Could not renew the lease of Snowflake node {}, will retry: {}", nodeId, e.getMessage());
+                return;
+            }
+            log.error("The lease of Snowflake node {} ran out before it could be renewed; this instance can no longer create orders", nodeId);
+            Snowflake.forNode(nodeId).retire();
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        try {
+            jdbcTemplate.update("DELETE FROM snowflake_nodes WHERE node_id = ? AND owner = ?", nodeId, owner);
+        } catch (DataAccessException e) {
+            log.warn("Could not release Snowflake node {}, it frees up when its lease runs out: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private int leaseConfiguredNode(int node) {
+        if (node < 0 || node > Snowflake.MAX_NODE_ID) {
+            throw new IllegalArgumentException("order.snowflake.node-id must be between 0 and " + Snowflake.MAX_NODE_ID + ", got " + node);
+        }
+        if (!claim(node)) {
+            throw new IllegalStateException("Snowflake node " + node + " (order.snowflake.node-id) is leased by another instance");
+        }
+        return node;
+    }
+
+    private int leaseFreeNode() {
+        int preferred = Snowflake.nodeIdFor(instanceId);
+        for (int i = 0; i <= Snowflake.MAX_NODE_ID; i++) {
+            int node = (preferred + i) & Snowflake.MAX_NODE_ID;
+            if (claim(node)) {
+                return node;
+            }
+        }
+        throw new IllegalStateException("All " + (Snowflake.MAX_NODE_ID + 1) + " Snowflake nodes are leased by other instances");
+    }
+
+    private boolean claim(int node) {
+        return !jdbcTemplate.queryForList(CLAIM, Integer.class, node, owner, instanceId, leaseSeconds).isEmpty();
+    }
+}
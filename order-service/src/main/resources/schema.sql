@@ -0,0 +1,113 @@
+-- Order Service schema (PostgreSQL). Runs on every start; every statement is idempotent.
+--
+-- orders and order_items are range-partitioned by order ID. Order IDs are Snowflake IDs, which start with
+-- their creation time, so each partition holds one calendar month of orders. OrderPartitionService creates
+-- the monthly partitions ahead of time, and drops them once the archiver has emptied them.
+-- Anything outside the existing months lands in the DEFAULT partitions.
+-- The primary key of a partitioned table must include the partition key, hence (order_id, id) on order_items.
+-- There is no foreign key from order_items to orders; items are only ever written and archived with their order.
+
+CREATE TABLE IF NOT EXISTS orders (
+    id                     BIGINT         NOT NULL,
+    customer_id            BIGINT         NOT NULL,
+    restaurant_id          BIGINT         NOT NULL,
+    rider_id               BIGINT,
+    total_price            NUMERIC(38, 2) NOT NULL,
+    status                 VARCHAR(32)    NOT NULL,
+    payment_status         VARCHAR(32)    NOT NULL,
+    payment_method         VARCHAR(32)    NOT NULL,
+    payment_transaction_id VARCHAR(100),
+    payment_lease_until    TIMESTAMP(6),
+    delivery_address       VARCHAR(500)   NOT NULL,
+    customer_phone         VARCHAR(20)    NOT NULL,
+    delivery_instructions  VARCHAR(500),
+    created_at             TIMESTAMP(6)   NOT NULL,
+    updated_at             TIMESTAMP(6),
+    PRIMARY KEY (id)
+) PARTITION BY RANGE (id);
+
+-- Until when one instance holds the right to authorize (or give up on) a PENDING payment, see PaymentProcessor.
+-- Added after the table was first created, hence the ALTER for existing databases.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS payment_lease_until TIMESTAMP(6);
+
+CREATE TABLE IF NOT EXISTS orders_default PARTITION OF orders DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created_id ON orders (customer_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_status_updated ON orders (status, updated_at);
+CREATE INDEX IF NOT EXISTS idx_orders_payment_status_created ON orders (payment_status, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_restaurant_status ON orders (restaurant_id, status);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id             BIGINT         NOT NULL,
+    order_id       BIGINT         NOT NULL,
+    menu_item_id   BIGINT         NOT NULL,
+    quantity       INTEGER        NOT NULL,
+    price_per_item NUMERIC(38, 2) NOT NULL,
+    PRIMARY KEY (order_id, id)
+) PARTITION BY RANGE (order_id);
+
+CREATE TABLE IF NOT EXISTS order_items_default PARTITION OF order_items DEFAULT;
+
+-- Delivered and cancelled orders, moved out of the partitions above by OrderArchiver.
+-- One row per order, with its items inlined as JSON. The low toast_tuple_target makes
+-- PostgreSQL compress the items of all but the smallest orders.
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id                     BIGINT         NOT NULL PRIMARY KEY,
+    customer_id            BIGINT         NOT NULL,
+    restaurant_id          BIGINT         NOT NULL,
+    rider_id               BIGINT,
+    total_price            NUMERIC(38, 2) NOT NULL,
+    status                 VARCHAR(32)    NOT NULL,
+    payment_status         VARCHAR(32)    NOT NULL,
+    payment_method         VARCHAR(32)    NOT NULL,
+    payment_transaction_id VARCHAR(100),
+    delivery_address       VARCHAR(500)   NOT NULL,
+    customer_phone         VARCHAR(20)    NOT NULL,
+    delivery_instructions  VARCHAR(500),
+    created_at             TIMESTAMP(6)   NOT NULL,
+    updated_at             TIMESTAMP(6),
+    items                  JSONB          NOT NULL,
+    archived_at            TIMESTAMP(6)   NOT NULL
+) WITH (toast_tuple_target = 128);
+
+CREATE INDEX IF NOT EXISTS idx_orders_archive_customer_created_id ON orders_archive (customer_id, created_at, id);
+
+-- Per-restaurant sales per hour and per day, maintained incrementally by SalesRollupService
+CREATE TABLE IF NOT EXISTS restaurant_sales_rollup (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    restaurant_id    BIGINT         NOT NULL,
+    granularity      VARCHAR(8)     NOT NULL,
+    bucket_start     TIMESTAMP(6)   NOT NULL,
+    orders_placed    BIGINT         NOT NULL,
+    orders_delivered BIGINT         NOT NULL,
+    revenue          NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT uk_sales_rollup_bucket UNIQUE (restaurant_id, granularity, bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id     BIGINT       NOT NULL,
+    routing_key  VARCHAR(100) NOT NULL,
+    payload      TEXT         NOT NULL,
+    payload_type VARCHAR(255),
+    created_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS order_idempotency_keys (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_id     BIGINT       NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    order_id        BIGINT       NOT NULL,
+    response        TEXT         NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_idempotency_customer_key UNIQUE (customer_id, idempotency_key)
+);
+
+-- Snowflake nodes leased by running instances (SnowflakeNodeLease); the primary key keeps them unique
+CREATE TABLE IF NOT EXISTS snowflake_nodes (
+    node_id      INTEGER      NOT NULL PRIMARY KEY,
+    owner        VARCHAR(64)  NOT NULL,
+    instance_id  VARCHAR(255) NOT NULL,
+    leased_until TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,72 @@
+package com.treatz.orderservice.cache;
+
+import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.entity.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestaurantOrderBoardTest {
+
+    private static final long RESTAURANT_ID = 7L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private RestaurantOrderBoard board;
+
+    @BeforeEach
+    void setUp() {
+        board = new RestaurantOrderBoard();
+        board.load(List.of(order(2L, "PENDING", T0), order(1L, "PENDING", T0)));
+    }
+
+    @Test
+    void servesEachStatusBucketOldestFirst() {
+        assertThat(ids(OrderStatus.PENDING)).containsExactly(1L, 2L);
+        assertThat(ids(OrderStatus.ACCEPTED)).isEmpty();
+        assertThat(board.getOrders(99L, OrderStatus.PENDING)).hasValue(List.of());
+    }
+
+    @Test
+    void movesOrdersBetweenBucketsAndDropsFinishedOnes() {
+        board.apply(order(1L, "ACCEPTED", T0.plusMinutes(1)));
+        assertThat(ids(OrderStatus.PENDING)).containsExactly(2L);
+        assertThat(ids(OrderStatus.ACCEPTED)).containsExactly(1L);
+
+        board.apply(order(1L, "CANCELLED", T0.plusMinutes(2)));
+        assertThat(ids(OrderStatus.ACCEPTED)).isEmpty();
+        assertThat(board.isCurrent(1L, "CANCELLED")).isTrue();
+    }
+
+    @Test
+    void ignoresUpdatesOlderThanWhatItHolds() {
+        board.apply(order(1L, "PREPARING", T0.plusMinutes(5)));
+        board.apply(order(1L, "ACCEPTED", T0.plusMinutes(3))); // arrived late
+
+        assertThat(ids(OrderStatus.PREPARING)).containsExactly(1L);
+        assertThat(board.isCurrent(1L, "PREPARING")).isTrue();
+        assertThat(board.isCurrent(1L, "READY_FOR_PICKUP")).isFalse();
+    }
+
+    @Test
+    void leavesFinishedStatusesToTheDatabase() {
+        assertThat(board.getOrders(RESTAURANT_ID, OrderStatus.DELIVERED)).isEmpty();
+        assertThat(new RestaurantOrderBoard().getOrders(RESTAURANT_ID, OrderStatus.PENDING)).isEmpty(); // not loaded yet
+    }
+
+    private List<Long> ids(OrderStatus status) {
+        return board.getOrders(RESTAURANT_ID, status).orElseThrow().stream().map(OrderResponseDTO::getId).toList();
+    }
+
+    private OrderResponseDTO order(Long id, String status, LocalDateTime updatedAt) {
+        OrderResponseDTO order = new OrderResponseDTO();
+        order.setId(id);
+        order.setRestaurantId(RESTAURANT_ID);
+        order.setStatus(status);
+        order.setUpdatedAt(updatedAt);
+        return order;
+    }
+}
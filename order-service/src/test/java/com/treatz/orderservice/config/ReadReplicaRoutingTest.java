@@ -0,0 +1,156 @@
+package com.treatz.orderservice.config;
+
+import com.treatz.common.db.ReadReplicaAutoConfiguration;
+import com.treatz.common.db.ReadReplicaDataSource;
+import com.treatz.orderservice.util.SnowflakeNodeLease;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Three stand-in replicas, all really the local test database, told apart by their application_name:
+// replica-1 is caught up, replica-2 pretends to be a standby a minute behind (its search_path finds the
+// stand-in functions and pg_stat_wal_receiver below before PostgreSQL's own), and replica-3 doesn't exist.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(ReadReplicaAutoConfiguration.class)
+@Import(SnowflakeNodeLease.class)
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.data-source-properties.ApplicationName=primary",
+        "treatz.read-replicas.urls=${spring.datasource.url}?ApplicationName=replica-1,"
+                + "${spring.datasource.url}?ApplicationName=replica-2&currentSchema=lagging_replica%2Cpublic%2Cpg_catalog,"
+                + "jdbc:postgresql://localhost:1/treatz_order_db?ApplicationName=replica-3",
+        "treatz.read-replicas.check-interval-ms=3600000"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReadReplicaDataSource readReplicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @BeforeEach
+    void simulateStandbys() {
+        simulateStandby("lagging_replica", "0/2", "streaming", "now()");
+        simulateStandby("caught_up_standby", "0/1", "streaming", "now()");
+        simulateStandby("disconnected_standby", "0/1", "waiting", "now() - interval '1 hour'");
+        simulateStandby("silent_standby", "0/1", "streaming", "now() - interval '1 hour'");
+        readReplicaDataSource.checkReplicas();
+    }
+
+    @AfterEach
+    void dropStandbys() {
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        for (String schema : List.of("lagging_replica", "caught_up_standby", "disconnected_standby", "silent_standby")) {
+            primary.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    // A standby that has replayed up to 0/1, received up to receiveLsn, and last replayed a transaction a minute ago.
+    private void simulateStandby(String schema, String receiveLsn, String receiverStatus, String lastMessage) {
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        primary.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        primary.execute("CREATE OR REPLACE FUNCTION " + schema + ".pg_is_in_recovery() RETURNS boolean LANGUAGE sql AS 'SELECT true'");
+        primary.execute("CREATE OR REPLACE FUNCTION " + schema + ".pg_last_wal_receive_lsn() RETURNS pg_lsn LANGUAGE sql"
+                + " AS 'SELECT ''" + receiveLsn + "''::pg_lsn'");
+        primary.execute("CREATE OR REPLACE FUNCTION " + schema + ".pg_last_wal_replay_lsn() RETURNS pg_lsn LANGUAGE sql AS 'SELECT ''0/1''::pg_lsn'");
+        primary.execute("CREATE OR REPLACE FUNCTION " + schema + ".pg_last_xact_replay_timestamp() RETURNS timestamptz LANGUAGE sql"
+                + " AS 'SELECT now() - interval ''1 minute'''");
+        primary.execute("CREATE OR REPLACE VIEW " + schema + ".pg_stat_wal_receiver AS"
+                + " SELECT '" + receiverStatus + "'::text AS status, " + lastMessage + " AS last_msg_receipt_time");
+    }
+
+    @Test
+    void readOnlyTransactionsOnlyUseReplicasThatAreCaughtUp() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Set<String> readers = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            readers.add(readOnly.execute(status -> applicationName()));
+        }
+        String writer = new TransactionTemplate(transactionManager).execute(status -> applicationName());
+
+        assertThat(readers).containsExactly("replica-1");
+        assertThat(writer).isEqualTo("primary");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenNoReplicaIsUsable() throws Exception {
+        DriverManagerDataSource lagging = new DriverManagerDataSource(
+                url + "?ApplicationName=replica-2&currentSchema=lagging_replica%2Cpublic%2Cpg_catalog",
+                primaryDataSource.getUsername(), primaryDataSource.getPassword());
+        DriverManagerDataSource unreachable = new DriverManagerDataSource(
+                "jdbc:postgresql://localhost:1/treatz_order_db", primaryDataSource.getUsername(), primaryDataSource.getPassword());
+
+        try (ReadReplicaDataSource replicas = new ReadReplicaDataSource(primaryDataSource, List.of(lagging, unreachable), 5000, 3600000);
+             Connection connection = replicas.getConnection();
+             ResultSet name = connection.createStatement().executeQuery("SELECT current_setting('application_name')")) {
+            name.next();
+            assertThat(name.getString(1)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    void aCaughtUpStandbyOnlyCountsWhileItIsStillReceivingFromThePrimary() throws Exception {
+        List<DataSource> standbys = new ArrayList<>();
+        for (String schema : List.of("caught_up_standby", "disconnected_standby", "silent_standby")) {
+            standbys.add(new DriverManagerDataSource(
+                    url + "?ApplicationName=" + schema + "&currentSchema=" + schema + "%2Cpublic%2Cpg_catalog",
+                    primaryDataSource.getUsername(), primaryDataSource.getPassword()));
+        }
+
+        Set<String> readers = new HashSet<>();
+        try (ReadReplicaDataSource replicas = new ReadReplicaDataSource(primaryDataSource, standbys, 5000, 3600000)) {
+            for (int i = 0; i < 9; i++) {
+                try (Connection connection = replicas.getConnection();
+                     ResultSet name = connection.createStatement().executeQuery("SELECT current_setting('application_name')")) {
+                    name.next();
+                    readers.add(name.getString(1));
+                }
+            }
+        }
+
+        assertThat(readers).containsExactly("caught_up_standby");
+    }
+
+    private String applicationName() {
+        return (String) entityManager.createNativeQuery("SELECT current_setting('application_name')").getSingleResult();
+    }
+}
@@ -0,0 +1,159 @@
+package com.treatz.orderservice.repository;
+
+import com.treatz.orderservice.entity.ArchivedOrder;
+import com.treatz.orderservice.entity.Order;
+import com.treatz.orderservice.entity.OrderItem;
+import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.entity.PaymentMethod;
+import com.treatz.orderservice.entity.PaymentStatus;
+import com.treatz.orderservice.service.OrderPartitionService;
+import com.treatz.orderservice.util.Snowflake;
+import com.treatz.orderservice.util.SnowflakeNodeLease;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Partitioning and archiving are PostgreSQL features, so this runs against the database from application.properties.
+// Nothing is rolled back, so each test archives only its own orders and everything it wrote is deleted afterwards.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderPartitionService.class, SnowflakeNodeLease.class})
+class OrderArchiveTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderPartitionService orderPartitionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final long customerId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+
+    @AfterEach
+    void deleteOrders() {
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customerId);
+        jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customerId);
+        jdbcTemplate.update("DELETE FROM orders_archive WHERE customer_id = ?", customerId);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS orders_p2024_03, order_items_p2024_03");
+    }
+
+    @Test
+    void newOrdersLandInThisMonthsPartition() {
+        orderPartitionService.ensurePartitions();
+
+        Long orderId = orderRepository.save(newOrder(OrderStatus.PENDING)).getId();
+
+        String partition = jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM orders WHERE id = ?", String.class, orderId);
+        String itemsPartition = jdbcTemplate.queryForObject("SELECT DISTINCT tableoid::regclass::text FROM order_items WHERE order_id = ?", String.class, orderId);
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        assertThat(partition).isEqualTo(String.format("orders_p%d_%02d", month.getYear(), month.getMonthValue()));
+        assertThat(itemsPartition).isEqualTo(String.format("order_items_p%d_%02d", month.getYear(), month.getMonthValue()));
+    }
+
+    @Test
+    void archivingMovesOnlyFinishedOrdersAndKeepsThemReadable() {
+        Long delivered = orderRepository.save(newOrder(OrderStatus.DELIVERED)).getId();
+        Long pending = orderRepository.save(newOrder(OrderStatus.PENDING)).getId();
+
+        // Just the span of this test's IDs, so other finished orders in the database stay where they are
+        long fromId = Math.min(delivered, pending);
+        long beforeId = Math.max(delivered, pending) + 1;
+        new TransactionTemplate(transactionManager).execute(status -> archivedOrderRepository.archiveFinishedOrdersBetween(fromId, beforeId, 1000));
+
+        assertThat(orderRepository.findById(delivered)).isEmpty();
+        assertThat(orderRepository.findById(pending)).isPresent();
+        ArchivedOrder archived = archivedOrderRepository.findById(delivered).orElseThrow();
+        assertThat(archived.getItems()).hasSize(2);
+        assertThat(archived.getItems().get(0).getPricePerItem()).isEqualByComparingTo("300");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE order_id = ?", Long.class, delivered)).isZero();
+        assertThat(archivedOrderRepository.findFirstPageByCustomerId(customerId, Limit.of(10)))
+                .extracting(ArchivedOrder::getId).containsExactly(delivered);
+    }
+
+    @Test
+    void emptyPartitionsAreDroppedOnceNoQueryHoldsTheTables() throws Exception {
+        // A month long before any test order
+        YearMonth month = YearMonth.of(2024, 3);
+        long from = Snowflake.minIdAt(month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        long to = Snowflake.minIdAt(month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_p2024_03 PARTITION OF orders FOR VALUES FROM (" + from + ") TO (" + to + ")");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_items_p2024_03 PARTITION OF order_items FOR VALUES FROM (" + from + ") TO (" + to + ")");
+        Instant cutoff = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+
+        // A long read of orders is still running: the drop gives up after the lock timeout instead of blocking everyone
+        try (Connection reader = dataSource.getConnection()) {
+            reader.setAutoCommit(false);
+            reader.createStatement().execute("LOCK TABLE orders IN ACCESS SHARE MODE");
+            orderPartitionService.dropEmptyPartitionsBefore(cutoff);
+            reader.rollback();
+        }
+        assertThat(tableExists("orders_p2024_03")).isTrue();
+        assertThat(tableExists("order_items_p2024_03")).isTrue();
+
+        // The next run finds the tables free
+        orderPartitionService.dropEmptyPartitionsBefore(cutoff);
+        assertThat(tableExists("orders_p2024_03")).isFalse();
+        assertThat(tableExists("order_items_p2024_03")).isFalse();
+    }
+
+    private boolean tableExists(String name) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+    }
+
+    private Order newOrder(OrderStatus status) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setRestaurantId(7L);
+        order.setStatus(status);
+        order.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        order.setPaymentStatus(PaymentStatus.COMPLETED);
+        order.setDeliveryAddress("221B Baker Street, London");
+        order.setCustomerPhone("+919876543210");
+        order.setTotalPrice(BigDecimal.valueOf(600));
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            OrderItem item = new OrderItem();
+            item.setMenuItemId((long) i + 1);
+            item.setQuantity(1);
+            item.setPricePerItem(BigDecimal.valueOf(300));
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,188 @@
+package com.treatz.orderservice.repository;
+
+import com.treatz.orderservice.dto.OrderStatusSnapshotDTO;
+import com.treatz.orderservice.entity.Order;
+import com.treatz.orderservice.entity.OrderItem;
+import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.entity.PaymentMethod;
+import com.treatz.orderservice.entity.PaymentStatus;
+import com.treatz.orderservice.event.OrderEvent;
+import com.treatz.orderservice.mapper.OrderMapper;
+import com.treatz.orderservice.mapper.OrderMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// H2 gets its tables from Hibernate; schema.sql is PostgreSQL-only. Without snowflake_nodes there is
+// nothing to lease from, so the Snowflake node is set directly.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.id.snowflake.node-id=1"
+})
+@Import(OrderMapperImpl.class)
+class OrderRepositoryTest {
+
+    private static final long CUSTOMER_ID = 42L;
+    private static final long RESTAURANT_ID = 7L;
+    private static final int ORDER_COUNT = 20;
+    private static final int PAGE_SIZE = 7;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            entityManager.persist(newOrder(3));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void myOrdersPagesThroughHistoryWithoutGapsOrDuplicates() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Set<Long> seen = new HashSet<>();
+        List<Integer> pageSizes = new ArrayList<>();
+
+        Order last = null;
+        while (true) {
+            statistics.clear();
+            List<Order> page = last == null
+                    ? orderRepository.findFirstPageByCustomerId(CUSTOMER_ID, Limit.of(PAGE_SIZE))
+                    : orderRepository.findNextPageByCustomerId(CUSTOMER_ID, last.getCreatedAt(), last.getId(), Limit.of(PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(orderMapper::orderToResponseDTO);
+
+            // One statement for the page, one batch fetch for all of its items
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            page.forEach(order -> assertThat(seen.add(order.getId())).isTrue());
+            pageSizes.add(page.size());
+            last = page.get(page.size() - 1);
+            entityManager.clear();
+        }
+
+        assertThat(seen).hasSize(ORDER_COUNT);
+        assertThat(pageSizes).containsExactly(7, 7, 6);
+    }
+
+    @Test
+    void ordersByStatusLoadOrdersAndItemsInOneStatement() {
+        assertSingleStatement(() -> orderRepository.findAllByStatusAndIdGreaterThanEqual(OrderStatus.PENDING, 0L));
+    }
+
+    @Test
+    void restaurantOrdersLoadOrdersAndItemsInOneStatement() {
+        assertSingleStatement(() -> orderRepository.findByRestaurantIdAndStatusAndIdGreaterThanEqual(RESTAURANT_ID, OrderStatus.PENDING, 0L));
+    }
+
+    @Test
+    void statusFeedStreamsOnlyChangesAfterTheWatermark() {
+        List<OrderStatusSnapshotDTO> all;
+        try (Stream<OrderStatusSnapshotDTO> stream = orderRepository.streamByStatusUpdatedAfter(OrderStatus.PENDING, LocalDateTime.of(1970, 1, 1, 0, 0), 0L)) {
+            all = stream.toList();
+        }
+        assertThat(all).hasSize(ORDER_COUNT);
+        assertThat(all).isSortedAccordingTo(Comparator.comparing(OrderStatusSnapshotDTO::getUpdatedAt)
+                .thenComparing(OrderStatusSnapshotDTO::getId));
+
+        LocalDateTime watermark = all.get(ORDER_COUNT / 2).getUpdatedAt();
+        List<Long> expected = all.stream().filter(o -> o.getUpdatedAt().isAfter(watermark)).map(OrderStatusSnapshotDTO::getId).toList();
+        try (Stream<OrderStatusSnapshotDTO> stream = orderRepository.streamByStatusUpdatedAfter(OrderStatus.PENDING, watermark, 0L)) {
+            assertThat(stream.map(OrderStatusSnapshotDTO::getId)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void savingAnOrderBatchesItsInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderRepository.saveAndFlush(newOrder(8));
+
+        // One INSERT for the order and one batched INSERT for all 8 items, instead of 9 round trips
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void orderEventsDoNotLoadItems() {
+        Long orderId = orderRepository.findAll().get(0).getId();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderEvent event = orderMapper.orderToEvent(orderRepository.findById(orderId).orElseThrow());
+
+        assertThat(event.getOrderId()).isEqualTo(orderId);
+        assertThat(event.getSchemaVersion()).isEqualTo(OrderEvent.SCHEMA_VERSION);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void assertSingleStatement(Supplier<List<Order>> query) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Map exactly like the endpoints do, so lazy item loading would show up here
+        List<?> dtos = query.get().stream().map(orderMapper::orderToResponseDTO).toList();
+
+        assertThat(dtos).hasSize(ORDER_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Order newOrder(int itemCount) {
+        Order order = new Order();
+        order.setCustomerId(CUSTOMER_ID);
+        order.setRestaurantId(RESTAURANT_ID);
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        order.setPaymentStatus(PaymentStatus.COMPLETED);
+        order.setDeliveryAddress("221B Baker Street, London");
+        order.setCustomerPhone("+919876543210");
+        order.setTotalPrice(BigDecimal.valueOf(300L * itemCount));
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setMenuItemId((long) i + 1);
+            item.setQuantity(1);
+            item.setPricePerItem(BigDecimal.valueOf(300));
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setItems(items);
+        return order;
+    }
+}
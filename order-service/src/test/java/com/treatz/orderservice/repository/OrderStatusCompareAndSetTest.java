@@ -0,0 +1,192 @@
+package com.treatz.orderservice.repository;
+
+import com.treatz.orderservice.entity.Order;
+import com.treatz.orderservice.entity.OrderStatus;
+import com.treatz.orderservice.entity.PaymentMethod;
+import com.treatz.orderservice.entity.PaymentStatus;
+import com.treatz.orderservice.util.SnowflakeNodeLease;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// UPDATE ... RETURNING is PostgreSQL syntax, so this runs against the database from application.properties.
+// Each thread gets its own transaction, like concurrent requests would. Nothing is rolled back, so the orders
+// are deleted afterwards; otherwise the order board and dispatch feed would load them as live orders.
+@DataJpaTest
+@Import(SnowflakeNodeLease.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStatusCompareAndSetTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final long customerId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+
+    @AfterEach
+    void deleteOrders() {
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customerId);
+        jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customerId);
+    }
+
+    @Test
+    void exactlyOneOfManyConcurrentTransitionsWins() throws Exception {
+        Long orderId = orderRepository.save(newOrder(OrderStatus.PENDING, null)).getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            attempts.add(pool.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> orderRepository.compareAndSetStatus(
+                        orderId, "PENDING", "ACCEPTED", null, null, true, LocalDateTime.now()).isPresent());
+            }));
+        }
+        start.countDown();
+
+        int winners = 0;
+        for (Future<Boolean> attempt : attempts) {
+            if (attempt.get()) {
+                winners++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(winners).isEqualTo(1);
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.ACCEPTED);
+    }
+
+    @Test
+    void returnsTheUpdatedRowAndAssignsTheRider() {
+        Long orderId = orderRepository.save(newOrder(OrderStatus.READY_FOR_PICKUP, null)).getId();
+
+        Order dispatched = new TransactionTemplate(transactionManager).execute(status -> orderRepository.compareAndSetStatus(
+                orderId, "READY_FOR_PICKUP", "DISPATCHED", 99L, null, false, LocalDateTime.now()).orElseThrow());
+
+        assertThat(dispatched.getStatus()).isEqualTo(OrderStatus.DISPATCHED);
+        assertThat(dispatched.getRiderId()).isEqualTo(99L);
+    }
+
+    @Test
+    void riderGuardOnlyMatchesTheAssignedRider() {
+        Long orderId = orderRepository.save(newOrder(OrderStatus.DISPATCHED, 7L)).getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        boolean otherRider = transactionTemplate.execute(status -> orderRepository.compareAndSetStatus(
+                orderId, "DISPATCHED", "DELIVERED", null, 8L, false, LocalDateTime.now()).isPresent());
+        boolean assignedRider = transactionTemplate.execute(status -> orderRepository.compareAndSetStatus(
+                orderId, "DISPATCHED", "DELIVERED", null, 7L, false, LocalDateTime.now()).isPresent());
+
+        assertThat(otherRider).isFalse();
+        assertThat(assignedRider).isTrue();
+    }
+
+    @Test
+    void acceptWaitsForTheOrderToBePaid() {
+        Order unpaid = newOrder(OrderStatus.PENDING, null);
+        unpaid.setPaymentMethod(PaymentMethod.UPI);
+        unpaid.setPaymentStatus(PaymentStatus.PENDING);
+        Long orderId = orderRepository.save(unpaid).getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        boolean acceptedUnpaid = transactionTemplate.execute(status -> orderRepository.compareAndSetStatus(
+                orderId, "PENDING", "ACCEPTED", null, null, true, LocalDateTime.now()).isPresent());
+        Order paid = transactionTemplate.execute(status -> orderRepository.settlePayment(
+                orderId, "COMPLETED", "UPI-1", null, LocalDateTime.now()).orElseThrow());
+        boolean acceptedPaid = transactionTemplate.execute(status -> orderRepository.compareAndSetStatus(
+                orderId, "PENDING", "ACCEPTED", null, null, true, LocalDateTime.now()).isPresent());
+
+        assertThat(acceptedUnpaid).isFalse();
+        assertThat(paid.getPaymentTransactionId()).isEqualTo("UPI-1");
+        assertThat(acceptedPaid).isTrue();
+    }
+
+    @Test
+    void aPaymentIsSettledOnlyOnce() {
+        Order unpaid = newOrder(OrderStatus.PENDING, null);
+        unpaid.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        unpaid.setPaymentStatus(PaymentStatus.PENDING);
+        Long orderId = orderRepository.save(unpaid).getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // A decline cancels the order; a late approval for the same order must not revive it
+        Order declined = transactionTemplate.execute(status -> orderRepository.settlePayment(
+                orderId, "FAILED", null, "CANCELLED", LocalDateTime.now()).orElseThrow());
+        boolean lateApproval = transactionTemplate.execute(status -> orderRepository.settlePayment(
+                orderId, "COMPLETED", "CREDIT_CARD-1", null, LocalDateTime.now()).isPresent());
+
+        assertThat(declined.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(declined.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(lateApproval).isFalse();
+    }
+
+    @Test
+    void aPaymentIsClaimedByOneInstanceUntilItsLeaseRunsOut() {
+        Order unpaid = newOrder(OrderStatus.PENDING, null);
+        unpaid.setPaymentMethod(PaymentMethod.UPI);
+        unpaid.setPaymentStatus(PaymentStatus.PENDING);
+        Long orderId = orderRepository.save(unpaid).getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+
+        boolean first = transactionTemplate.execute(status -> orderRepository.claimPayment(
+                orderId, now, now.plusSeconds(60)).isPresent());
+        boolean whileLeased = transactionTemplate.execute(status -> orderRepository.claimPayment(
+                orderId, now.plusSeconds(30), now.plusSeconds(90)).isPresent());
+        boolean afterLease = transactionTemplate.execute(status -> orderRepository.claimPayment(
+                orderId, now.plusSeconds(61), now.plusSeconds(121)).isPresent());
+        transactionTemplate.execute(status -> orderRepository.settlePayment(
+                orderId, "COMPLETED", "UPI-1", null, LocalDateTime.now()).orElseThrow());
+        boolean afterSettled = transactionTemplate.execute(status -> orderRepository.claimPayment(
+                orderId, now.plusSeconds(200), now.plusSeconds(260)).isPresent());
+
+        assertThat(first).isTrue();
+        assertThat(whileLeased).isFalse();
+        assertThat(afterLease).isTrue();
+        assertThat(afterSettled).isFalse();
+    }
+
+    private Order newOrder(OrderStatus status, Long riderId) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setRestaurantId(7L);
+        order.setRiderId(riderId);
+        order.setStatus(status);
+        order.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        order.setPaymentStatus(PaymentStatus.COMPLETED);
+        order.setDeliveryAddress("221B Baker Street, London");
+        order.setCustomerPhone("+919876543210");
+        order.setTotalPrice(BigDecimal.valueOf(300));
+        return order;
+    }
+}
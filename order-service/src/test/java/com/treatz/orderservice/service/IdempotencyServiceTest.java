@@ -0,0 +1,128 @@
+package com.treatz.orderservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.treatz.orderservice.dto.CreateOrderRequestDTO;
+import com.treatz.orderservice.dto.OrderResponseDTO;
+import com.treatz.orderservice.entity.IdempotencyRecord;
+import com.treatz.orderservice.exception.IdempotencyKeyReuseException;
+import com.treatz.orderservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final long CUSTOMER_ID = 42L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private IdempotencyRecordRepository repository;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findByCustomerIdAndIdempotencyKey(anyLong(), any())).thenReturn(Optional.empty());
+        idempotencyService = new IdempotencyService(repository, objectMapper, new SimpleMeterRegistry(), 100, 10, 5000);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        List<Future<OrderResponseDTO>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> idempotencyService.execute(CUSTOMER_ID, "key-1", request("Home"), () -> {
+                executions.incrementAndGet();
+                await(release);
+                return response(1001L);
+            })));
+        }
+        Thread.sleep(200); // let every duplicate arrive while the first is still running
+        release.countDown();
+
+        for (Future<OrderResponseDTO> result : results) {
+            assertThat(result.get().getId()).isEqualTo(1001L);
+        }
+        pool.shutdown();
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void answersFromTheDurableStoreOnceTheWindowHasForgotten() throws Exception {
+        IdempotencyRecord stored = new IdempotencyRecord();
+        stored.setIdempotencyKey("key-2");
+        stored.setRequestHash(sha256Of(request("Home")));
+        stored.setResponse(objectMapper.writeValueAsString(response(2002L)));
+        when(repository.findByCustomerIdAndIdempotencyKey(CUSTOMER_ID, "key-2")).thenReturn(Optional.of(stored));
+
+        OrderResponseDTO replayed = idempotencyService.execute(CUSTOMER_ID, "key-2", request("Home"), () -> {
+            throw new AssertionError("must not place the order again");
+        });
+
+        assertThat(replayed.getId()).isEqualTo(2002L);
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        idempotencyService.execute(CUSTOMER_ID, "key-3", request("Home"), () -> response(3003L));
+
+        assertThatThrownBy(() -> idempotencyService.execute(CUSTOMER_ID, "key-3", request("Office"), () -> response(3004L)))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+    }
+
+    @Test
+    void failedExecutionsAreNotRemembered() {
+        assertThatThrownBy(() -> idempotencyService.execute(CUSTOMER_ID, "key-4", request("Home"), () -> {
+            throw new IllegalStateException("payment declined");
+        })).isInstanceOf(IllegalStateException.class);
+
+        OrderResponseDTO retried = idempotencyService.execute(CUSTOMER_ID, "key-4", request("Home"), () -> response(4004L));
+        assertThat(retried.getId()).isEqualTo(4004L);
+    }
+
+    private CreateOrderRequestDTO request(String address) {
+        CreateOrderRequestDTO request = new CreateOrderRequestDTO();
+        request.setDeliveryAddress(address);
+        return request;
+    }
+
+    private OrderResponseDTO response(Long orderId) {
+        OrderResponseDTO response = new OrderResponseDTO();
+        response.setId(orderId);
+        return response;
+    }
+
+    private String sha256Of(Object request) throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(request);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.treatz.orderservice.service;
+
+import com.treatz.orderservice.dto.SalesReportDTO;
+import com.treatz.orderservice.entity.RollupGranularity;
+import com.treatz.orderservice.util.SnowflakeNodeLease;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The flush is a PostgreSQL upsert (ON CONFLICT), so this runs against the database from application.properties
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({SalesRollupService.class, SnowflakeNodeLease.class})
+class SalesRollupServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 5_000;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    private final long restaurantId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+
+    @Test
+    void countsRecordedWhileFlushingAreNeitherLostNorDoubled() throws Exception {
+        // The current and the previous hour: both still take orders, so neither is dropped from memory mid-test
+        LocalDateTime thisHour = LocalDateTime.now();
+        LocalDateTime lastHour = thisHour.minusHours(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            boolean early = t % 2 == 0;
+            pool.execute(() -> {
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    salesRollupService.recordPlaced(restaurantId, early ? lastHour : thisHour);
+                    salesRollupService.recordDelivered(restaurantId, early ? lastHour : thisHour, new BigDecimal("12.50"));
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(5, TimeUnit.MILLISECONDS)) {
+            salesRollupService.flush();
+        }
+        salesRollupService.flush();
+        pool.shutdown();
+
+        long total = (long) THREADS * ORDERS_PER_THREAD;
+        SalesReportDTO hourly = salesRollupService.getReport(restaurantId, RollupGranularity.HOUR, lastHour, thisHour.plusHours(1));
+        assertThat(hourly.getBuckets()).hasSize(2);
+        assertThat(hourly.getBuckets().get(0).getBucketStart()).isEqualTo(RollupGranularity.HOUR.bucketOf(lastHour));
+        assertThat(hourly.getBuckets().get(0).getOrdersPlaced()).isEqualTo(total / 2);
+        assertThat(hourly.getTotal().getOrdersDelivered()).isEqualTo(total);
+        assertThat(hourly.getTotal().getRevenue()).isEqualByComparingTo(new BigDecimal("12.50").multiply(BigDecimal.valueOf(total)));
+        assertThat(hourly.getTotal().getAverageBasket()).isEqualByComparingTo("12.50");
+
+        SalesReportDTO daily = salesRollupService.getReport(restaurantId, RollupGranularity.DAY, lastHour, thisHour.plusDays(1));
+        assertThat(daily.getTotal()).usingRecursiveComparison().ignoringFields("bucketStart").isEqualTo(hourly.getTotal());
+    }
+}
@@ -0,0 +1,65 @@
+package com.treatz.orderservice.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Other instances are simulated with leases under their own owner tokens, against the database from
+// application.properties. This context's own lease is the one Spring created.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SnowflakeNodeLease.class)
+class SnowflakeNodeLeaseTest {
+
+    @Autowired
+    private SnowflakeNodeLease lease;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String otherInstance = UUID.randomUUID().toString();
+
+    @AfterEach
+    void releaseOtherInstances() {
+        jdbcTemplate.update("DELETE FROM snowflake_nodes WHERE owner = ?", otherInstance);
+    }
+
+    @Test
+    void instancesWithTheSameInstanceIdStillGetDifferentNodes() {
+        // Every replica has the same Eureka instance ID when they all run with hostname=localhost
+        SnowflakeNodeLease other = new SnowflakeNodeLease(jdbcTemplate, otherInstance, "order-service:localhost:9003", "", 300);
+
+        assertThat(other.nodeId()).isNotEqualTo(lease.nodeId());
+    }
+
+    @Test
+    void aPinnedNodeThatIsLeasedElsewhereFailsStartup() {
+        assertThatThrownBy(() -> new SnowflakeNodeLease(jdbcTemplate, otherInstance, "other", String.valueOf(lease.nodeId()), 300))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("leased by another instance");
+    }
+
+    @Test
+    void anExpiredLeaseCanBeTakenOver() {
+        SnowflakeNodeLease other = new SnowflakeNodeLease(jdbcTemplate, otherInstance, "other", "", 300);
+        jdbcTemplate.update("UPDATE snowflake_nodes SET leased_until = LOCALTIMESTAMP - INTERVAL '1 second' WHERE node_id = ?", other.nodeId());
+        String thirdInstance = UUID.randomUUID().toString();
+
+        SnowflakeNodeLease third = new SnowflakeNodeLease(jdbcTemplate, thirdInstance, "third", String.valueOf(other.nodeId()), 300);
+        third.release();
+
+        assertThat(third.nodeId()).isEqualTo(other.nodeId());
+    }
+}
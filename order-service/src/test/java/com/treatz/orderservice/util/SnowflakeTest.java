@@ -0,0 +1,61 @@
+package com.treatz.orderservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeTest {
+
+    private static final long NOW = Snowflake.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    void idsCarryTimestampNodeAndSequence() {
+        Snowflake snowflake = new Snowflake(5, () -> NOW);
+
+        long first = snowflake.nextId();
+        long second = snowflake.nextId();
+
+        assertThat(first >>> (Snowflake.NODE_BITS + Snowflake.SEQUENCE_BITS)).isEqualTo(1_000_000L);
+        assertThat((first >>> Snowflake.SEQUENCE_BITS) & Snowflake.MAX_NODE_ID).isEqualTo(5);
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    void staysIncreasingWhenSequenceOverflowsOrClockStepsBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        Snowflake snowflake = new Snowflake(1, clock::get);
+
+        long previous = snowflake.nextId();
+        for (int i = 0; i < 10_000; i++) { // more than 4096 in the same millisecond
+            long next = snowflake.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+
+        clock.set(NOW - 5_000); // NTP step backwards
+        assertThat(snowflake.nextId()).isGreaterThan(previous);
+    }
+
+    @Test
+    void derivesAStableNodeFromTheInstanceId() {
+        int node = Snowflake.nodeIdFor("order-service:localhost:9003");
+
+        assertThat(node).isBetween(0, Snowflake.MAX_NODE_ID);
+        assertThat(Snowflake.nodeIdFor("order-service:localhost:9003")).isEqualTo(node);
+        assertThatThrownBy(() -> new Snowflake(Snowflake.MAX_NODE_ID + 1, () -> NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void aRetiredNodeIssuesNoMoreIds() {
+        Snowflake snowflake = new Snowflake(3, () -> NOW);
+        snowflake.nextId();
+
+        snowflake.retire();
+
+        assertThatThrownBy(snowflake::nextId).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,119 @@
+package com.treatz.restaurantservice.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Gathers the keys asked for by concurrent callers over a short window and loads them with one bulk query.
+ *
+ * The first request into an empty window starts a timer; whatever has been asked for when it fires (or once
+ * maxBatchSize keys are waiting, whichever comes first) is loaded together, each key once, and every caller
+ * gets its own keys' values. At most `threads` bulk loads run at a time; requests keep gathering meanwhile.
+ *
+ * Batch sizes and the number of callers sharing each load are published as "<name>.batch.keys" and
+ * "<name>.batch.callers" distribution summaries.
+ */
+@Slf4j
+final class CoalescingLoader<K, V> implements AutoCloseable {
+
+    private final Function<Set<K>, Map<K, V>> loadAll;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+    private final DistributionSummary batchKeys;
+    private final DistributionSummary batchCallers;
+
+    // Guarded by this
+    private Set<K> pendingKeys = new HashSet<>();
+    private List<Request<K, V>> pendingRequests = new ArrayList<>();
+    private long window; // bumped on every flush, so a timer started for an earlier window does nothing
+
+    private record Request<K, V>(Set<K> keys, CompletableFuture<Map<K, V>> result) {
+    }
+
+    CoalescingLoader(String name, Function<Set<K>, Map<K, V>> loadAll, long windowMicros, int maxBatchSize, int threads,
+                     MeterRegistry meterRegistry) {
+        this.loadAll = loadAll;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = Executors.newScheduledThreadPool(threads, Thread.ofPlatform().name(name.replace('.', '-') + "-loader-", 1).daemon().factory());
+        this.batchKeys = DistributionSummary.builder(name + ".batch.keys")
+                .description("Distinct keys loaded by one bulk query")
+                .register(meterRegistry);
+        this.batchCallers = DistributionSummary.builder(name + ".batch.callers")
+                .description("Requests answered by one bulk query")
+                .register(meterRegistry);
+    }
+
+    // The values of those keys that exist; completes once the batch they join has been loaded
+    CompletableFuture<Map<K, V>> load(Set<? extends K> keys) {
+        Request<K, V> request = new Request<>(Set.copyOf(keys), new CompletableFuture<>());
+        synchronized (this) {
+            if (pendingRequests.isEmpty()) {
+                long opened = window;
+                executor.schedule(() -> flush(opened), windowMicros, TimeUnit.MICROSECONDS);
+            }
+            pendingRequests.add(request);
+            pendingKeys.addAll(request.keys());
+            if (pendingKeys.size() >= maxBatchSize) {
+                long full = window;
+                executor.execute(() -> flush(full));
+            }
+        }
+        return request.result();
+    }
+
+    private void flush(long expectedWindow) {
+        Set<K> keys;
+        List<Request<K, V>> requests;
+        synchronized (this) {
+            if (window != expectedWindow || pendingRequests.isEmpty()) {
+                return; // already flushed for being full
+            }
+            keys = pendingKeys;
+            requests = pendingRequests;
+            pendingKeys = new HashSet<>();
+            pendingRequests = new ArrayList<>();
+            window++;
+        }
+        batchKeys.record(keys.size());
+        batchCallers.record(requests.size());
+
+        Map<K, V> loaded;
+        try {
+            loaded = loadAll.apply(keys);
+        } catch (RuntimeException e) {
+            log.error("Bulk load of {} keys for {} requests failed", keys.size(), requests.size(), e);
+            requests.forEach(request -> request.result().completeExceptionally(e));
+            return;
+        }
+        for (Request<K, V> request : requests) {
+            Map<K, V> values = new HashMap<>();
+            for (K key : request.keys()) {
+                V value = loaded.get(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            request.result().complete(values);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,134 @@
+package com.treatz.restaurantservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.treatz.restaurantservice.dto.MenuItemResponseDTO;
+import com.treatz.restaurantservice.mapper.RestaurantMapper;
+import com.treatz.restaurantservice.repository.MenuItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Menu item details for order placement (POST /api/menu-items/details), keyed by menuItemId.
+ * <ul>
+ *   <li>Cached items are answered from memory. Concurrent requests for an item that is being loaded share that load.</li>
+ *   <li>Items that are missing, from any number of concurrent requests, are loaded by shared findByIdIn queries,
+ *       see {@link CoalescingLoader}.</li>
+ *   <li>Menu item writes evict the item: this instance's directly, other instances' through the
+ *       menu.item.* events. A TTL bounds staleness should an event be lost.</li>
+ * </ul>
+ * Besides the "cache.*" metrics (cache=menuItemDetails), "menu.item.details.requested" counts the IDs asked for,
+ * "menu.item.details.queried" the IDs read from the database, and "menu.item.details.dedup.ratio" is the share of
+ * requested IDs that needed no query of their own.
+ */
+@Component
+public class MenuItemDetailsCache {
+
+    private final AsyncLoadingCache<Long, MenuItemResponseDTO> cache;
+    private final CoalescingLoader<Long, MenuItemResponseDTO> loader;
+    private final Counter requested;
+    private final Counter queried;
+
+    public MenuItemDetailsCache(MenuItemRepository menuItemRepository,
+                                RestaurantMapper restaurantMapper,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${restaurant.menu-item-details.max-size:10000}") long maxSize,
+                                @Value("${restaurant.menu-item-details.ttl-seconds:300}") long ttlSeconds,
+                                @Value("${restaurant.menu-item-details.batch-window-micros:2000}") long batchWindowMicros,
+                                @Value("${restaurant.menu-item-details.max-batch-size:500}") int maxBatchSize,
+                                @Value("${restaurant.menu-item-details.loader-threads:4}") int loaderThreads) {
+        // Not read-only: writes evict an item and the very next order reloads it, so it must be read from the primary.
+        // A lagging replica could hand back the old price or availability, which would then be cached for the full TTL.
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+
+        this.requested = Counter.builder("menu.item.details.requested")
+                .description("Menu item IDs asked for")
+                .register(meterRegistry);
+        this.queried = Counter.builder("menu.item.details.queried")
+                .description("Menu item IDs read from the database")
+                .register(meterRegistry);
+        Gauge.builder("menu.item.details.dedup.ratio", this,
+                        details -> details.requested.count() == 0 ? 0 : 1 - details.queried.count() / details.requested.count())
+                .description("Share of requested menu item IDs answered without a query of their own")
+                .register(meterRegistry);
+
+        this.loader = new CoalescingLoader<>("menu.item.details",
+                ids -> {
+                    queried.increment(ids.size());
+                    List<MenuItemResponseDTO> items = primary.execute(status ->
+                            restaurantMapper.menuItemsToMenuItemResponseDTO(menuItemRepository.findByIdIn(new ArrayList<>(ids))));
+                    return items.stream().collect(Collectors.toMap(MenuItemResponseDTO::getId, Function.identity()));
+                },
+                batchWindowMicros, maxBatchSize, loaderThreads, meterRegistry);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<Long, MenuItemResponseDTO>() {
+                    @Override
+                    public CompletableFuture<? extends MenuItemResponseDTO> asyncLoad(Long id, Executor executor) {
+                        return loader.load(Set.of(id)).thenApply(found -> found.get(id));
+                    }
+
+                    @Override
+                    public CompletableFuture<? extends Map<? extends Long, ? extends MenuItemResponseDTO>> asyncLoadAll(
+                            Set<? extends Long> ids, Executor executor) {
+                        return loader.load(ids);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "menuItemDetails");
+    }
+
+    // Details of the requested items that exist, in request order, each once
+    public List<MenuItemResponseDTO> getAll(Collection<Long> menuItemIds) {
+        Set<Long> ids = menuItemIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        requested.increment(ids.size());
+        Map<Long, MenuItemResponseDTO> found;
+        try {
+            found = cache.getAll(ids).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public void evict(Long menuItemId) {
+        cache.synchronous().invalidate(menuItemId);
+    }
+
+    public void evictAll(Collection<Long> menuItemIds) {
+        cache.synchronous().invalidateAll(menuItemIds);
+    }
+
+    @PreDestroy
+    void close() {
+        loader.close();
+    }
+}
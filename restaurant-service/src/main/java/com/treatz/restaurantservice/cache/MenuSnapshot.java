@@ -0,0 +1,13 @@
+package com.treatz.restaurantservice.cache;
+
+/**
+ * A restaurant's menu at one menu version, already serialized to the JSON the menu endpoint returns.
+ *
+ * @param etag strong entity tag (quoted) for the version; equal versions always serialize to equal bytes
+ */
+public record MenuSnapshot(long version, byte[] json, String etag) {
+
+    public static MenuSnapshot of(long version, byte[] json) {
+        return new MenuSnapshot(version, json, "\"" + version + "\"");
+    }
+}
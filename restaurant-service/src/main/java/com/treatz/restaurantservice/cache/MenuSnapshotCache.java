@@ -0,0 +1,56 @@
+package com.treatz.restaurantservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps each restaurant's menu as ready-to-send JSON, keyed by the restaurant's menu version.
+ * <ul>
+ *   <li>Every menu write bumps restaurants.menu_version, so all instances agree on versions and ETags.</li>
+ *   <li>A read looks up the current version (a primary-key lookup) and reuses the snapshot built for it;
+ *       writes made through other instances are noticed that way, this instance's own writes also evict.</li>
+ *   <li>Bounded by total JSON size; concurrent misses for the same restaurant share a single load.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class MenuSnapshotCache {
+
+    private final Cache<Long, MenuSnapshot> cache;
+
+    public MenuSnapshotCache(MeterRegistry meterRegistry,
+                             @Value("${restaurant.menu-cache.max-bytes:67108864}") long maxBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long restaurantId, MenuSnapshot snapshot) -> snapshot.json().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "menuSnapshots");
+    }
+
+    // The snapshot for this version (or a newer one another request already built), else serializes the menu
+    public MenuSnapshot get(Long restaurantId, long version, Supplier<byte[]> serializeMenu) {
+        MenuSnapshot cached = cache.getIfPresent(restaurantId);
+        if (cached != null && cached.version() >= version) {
+            return cached;
+        }
+        return cache.asMap().compute(restaurantId, (id, current) -> {
+            if (current != null && current.version() >= version) {
+                return current;
+            }
+            log.debug("Menu snapshot miss for restaurant {} at version {}", restaurantId, version);
+            return MenuSnapshot.of(version, serializeMenu.get());
+        });
+    }
+
+    public void evict(Long restaurantId) {
+        cache.invalidate(restaurantId);
+    }
+}
@@ -0,0 +1,36 @@
+package com.treatz.restaurantservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Totals shown with scrolled restaurant listings, keyed by search pattern ("" for all restaurants).
+ * Each is counted at most once per TTL, so scrolling never pays for a COUNT(*) per page; totals may lag by the TTL.
+ */
+@Component
+public class RestaurantCountCache {
+
+    private final Cache<String, Long> cache;
+
+    public RestaurantCountCache(MeterRegistry meterRegistry,
+                                @Value("${restaurant.listing.count-cache-seconds:60}") long ttlSeconds,
+                                @Value("${restaurant.listing.count-cache-max-size:1000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "restaurantCounts");
+    }
+
+    public long get(String pattern, Supplier<Long> count) {
+        return cache.get(pattern, key -> count.get());
+    }
+}
@@ -0,0 +1,81 @@
+package com.treatz.restaurantservice.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    // Same exchange the Order Service publishes to
+    public static final String EXCHANGE_NAME = "treatz_exchange";
+    public static final String MENU_ITEM_UPDATED_ROUTING_KEY = "menu.item.updated";
+    public static final String MENU_ITEM_DELETED_ROUTING_KEY = "menu.item.deleted";
+    public static final String RESTAURANT_CREATED_ROUTING_KEY = "restaurant.created";
+    public static final String RESTAURANT_UPDATED_ROUTING_KEY = "restaurant.updated";
+    public static final String RESTAURANT_DELETED_ROUTING_KEY = "restaurant.deleted";
+    // Published by the Order Service; counted for search suggestion popularity
+    public static final String ORDER_PLACED_ROUTING_KEY = "order.placed";
+    // Our own menu.item.updated / menu.item.deleted, from every instance; evicts cached menu item details
+    public static final String MENU_ITEM_EVENTS_ROUTING_KEY = "menu.item.*";
+    // Shared by all instances, so each order placed is added to restaurants.order_count exactly once
+    public static final String ORDER_COUNT_QUEUE = "restaurant.order-count";
+
+    @Bean
+    public TopicExchange exchange() {
+        return new TopicExchange(EXCHANGE_NAME);
+    }
+
+    // Every instance keeps its own suggestion index, so each one needs its own private, auto-deleted queue
+    @Bean
+    public Queue orderPlacedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding orderPlacedBinding(Queue orderPlacedQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(orderPlacedQueue).to(exchange).with(ORDER_PLACED_ROUTING_KEY);
+    }
+
+    // The durable count the suggestion index starts from on every rebuild; survives deploys, same on every instance
+    @Bean
+    public Queue orderCountQueue() {
+        return new Queue(ORDER_COUNT_QUEUE, true);
+    }
+
+    @Bean
+    public Binding orderCountBinding(Queue orderCountQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(orderCountQueue).to(exchange).with(ORDER_PLACED_ROUTING_KEY);
+    }
+
+    // Likewise each instance caches menu item details, and must hear about changes made through the others
+    @Bean
+    public Queue menuItemEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding menuItemEventsBinding(Queue menuItemEventsQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(menuItemEventsQueue).to(exchange).with(MENU_ITEM_EVENTS_ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+        final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        return rabbitTemplate;
+    }
+}
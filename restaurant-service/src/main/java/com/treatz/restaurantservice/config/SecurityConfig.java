@@ -29,7 +29,7 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         // Public GET endpoints
-                        .requestMatchers(HttpMethod.GET, "/api/restaurants", "/api/restaurants/**", "/api/menu-items/search").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/restaurants", "/api/restaurants/**", "/api/menu-items/search", "/api/menu-items/facets", "/api/search/suggest").permitAll()
                         // Internal endpoints
                         .requestMatchers("/api/restaurants/*/owner", "/api/menu-items/details").permitAll()
                         // Everything else needs authentication
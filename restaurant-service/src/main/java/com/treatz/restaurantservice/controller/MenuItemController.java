@@ -1,6 +1,11 @@
 package com.treatz.restaurantservice.controller;
 
+import com.treatz.restaurantservice.cache.MenuSnapshot;
 import com.treatz.restaurantservice.dto.*;
+import com.treatz.restaurantservice.entity.MenuCategory;
+import com.treatz.restaurantservice.importer.MenuImportFormat;
+import com.treatz.restaurantservice.search.MenuFacetIndex;
+import com.treatz.restaurantservice.search.MenuSearchIndex;
 import com.treatz.restaurantservice.service.RestaurantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -8,11 +13,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -20,30 +33,40 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MenuItemController {
 
+    private static final int MAX_FACET_PAGE_SIZE = 100;
+
     private final RestaurantService restaurantService;
 
     // --- PUBLIC READ AND SEARCH ENDPOINTS ---
 
     /**
      * Get menu items for a specific restaurant
+     * Served from a pre-serialized snapshot with a strong ETag; send it back in If-None-Match to get 304 while the menu is unchanged
      */
     @GetMapping("/restaurants/{restaurantId}/menu")
-    public ResponseEntity<List<MenuItemResponseDTO>> getMenuForRestaurant(@PathVariable Long restaurantId) {
-        RestaurantResponseDTO restaurant = restaurantService.getRestaurantById(restaurantId);
-        return ResponseEntity.ok(restaurant.getMenuItems());
+    public ResponseEntity<byte[]> getMenuForRestaurant(@PathVariable Long restaurantId) {
+        MenuSnapshot menu = restaurantService.getMenuSnapshot(restaurantId);
+        // Spring answers 304 itself when If-None-Match matches this ETag
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(menu.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(menu.json());
     }
 
     /**
      * Search menu items across all restaurants (with optional pagination)
+     * Matches name, description and category; partial words and small typos match too
      * Without pagination params: Returns Page with default 100 items
      * With pagination params: Returns specified page
+     * Sorted by relevance (best match first) unless sortBy is id, name, price or category
      */
     @GetMapping("/menu-items/search")
     public ResponseEntity<Page<MenuItemSearchResponseDTO>> searchByMenuItem(
             @RequestParam String query,
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
-            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = MenuSearchIndex.RELEVANCE) String sortBy,
             @RequestParam(defaultValue = "ASC") String sortDirection) {
         Sort.Direction direction = Sort.Direction.fromString(sortDirection);
         Pageable pageable = PageRequest.of(
@@ -54,6 +77,27 @@ public class MenuItemController {
         return ResponseEntity.ok(restaurantService.searchRestaurantsByMenuItem(query, pageable));
     }
 
+    /**
+     * Filter menu items by category, availability, price band and restaurant, e.g.
+     * ?category=STARTER&category=DESSERT&available=true&priceBand=0-100&restaurantId=12
+     * Several values of one facet match any of them; different facets must all match
+     * Alongside the page of items come counts for every facet value (priceBandCounts also lists the band labels to filter by)
+     */
+    @GetMapping("/menu-items/facets")
+    public ResponseEntity<MenuFacetResponseDTO> filterMenuItems(
+            @RequestParam(required = false) List<MenuCategory> category,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) List<Long> restaurantId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_FACET_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be at least 0 and size between 1 and " + MAX_FACET_PAGE_SIZE);
+        }
+        MenuFacetIndex.Filter filter = new MenuFacetIndex.Filter(category, available, priceBand, restaurantId);
+        return ResponseEntity.ok(restaurantService.filterMenuItems(filter, page, size));
+    }
+
     // --- PROTECTED WRITE ENDPOINTS (REQUIRE ROLE_RESTAURANT_OWNER) ---
 
     @PostMapping("/restaurants/{restaurantId}/menu")
@@ -63,6 +107,21 @@ public class MenuItemController {
         return new ResponseEntity<>(newItem, HttpStatus.CREATED);
     }
 
+    /**
+     * Add or update many menu items in one upload: CSV with a header row, or NDJSON (one item object per line)
+     * The body is read as it arrives and written in batches; rows naming an item already on the menu update it
+     * Invalid rows are skipped and listed, with their line numbers, in the response
+     */
+    @PostMapping(path = "/restaurants/{restaurantId}/menu/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAuthority('ROLE_RESTAURANT_OWNER')")
+    public ResponseEntity<MenuImportResultDTO> importMenu(@PathVariable Long restaurantId,
+                                                          @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                          InputStream body) {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+        return ResponseEntity.ok(restaurantService.importMenu(restaurantId, MenuImportFormat.of(contentType), reader));
+    }
+
     @PutMapping("/restaurants/{restaurantId}/menu/{menuItemId}")
     @PreAuthorize("hasAuthority('ROLE_RESTAURANT_OWNER')")
     public ResponseEntity<MenuItemResponseDTO> updateMenuItem(@PathVariable Long restaurantId, @PathVariable Long menuItemId, @Valid @RequestBody UpdateMenuItemRequestDTO request) {
@@ -1,6 +1,8 @@
 package com.treatz.restaurantservice.controller;
 
 import com.treatz.restaurantservice.dto.CreateRestaurantRequestDTO;
+import com.treatz.restaurantservice.dto.NearbyRestaurantDTO;
+import com.treatz.restaurantservice.dto.RestaurantPageResponseDTO;
 import com.treatz.restaurantservice.dto.RestaurantResponseDTO;
 import com.treatz.restaurantservice.dto.RestaurantSummaryDTO;
 import com.treatz.restaurantservice.dto.UpdateRestaurantRequestDTO;
@@ -16,11 +18,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/restaurants")
 @RequiredArgsConstructor
 public class RestaurantController {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final RestaurantService restaurantService;
 
     // --- PUBLIC READ AND SEARCH ENDPOINTS ---
@@ -66,6 +72,46 @@ public class RestaurantController {
         return ResponseEntity.ok(restaurantService.searchRestaurantsByName(name, pageable));
     }
 
+    /**
+     * Get all restaurants, one page at a time, with a cursor instead of a page number (every page costs the same, however deep)
+     * First call without a cursor; then pass the returned nextCursor until hasMore is false
+     * sortBy: id (default), name, or newest; approximateTotal is a cached count and may lag recent changes
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<RestaurantPageResponseDTO> scrollRestaurants(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+        checkScrollSize(size);
+        return ResponseEntity.ok(restaurantService.getRestaurantsPage(sortBy, cursor, size));
+    }
+
+    /**
+     * Search restaurants by name, one page at a time with a cursor (see /scroll)
+     */
+    @GetMapping("/search/scroll")
+    public ResponseEntity<RestaurantPageResponseDTO> scrollRestaurantSearch(
+            @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+        checkScrollSize(size);
+        return ResponseEntity.ok(restaurantService.searchRestaurantsPage(name, sortBy, cursor, size));
+    }
+
+    /**
+     * Active restaurants within radiusKm of a point (e.g. the customer's location), nearest first
+     * Restaurants that haven't set a location aren't included
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyRestaurantDTO>> getNearbyRestaurants(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(restaurantService.findNearbyRestaurants(lat, lng, radiusKm, limit));
+    }
+
     /**
      * Get single restaurant by ID
      * Returns full details including menu items
@@ -104,4 +150,10 @@ public class RestaurantController {
         String message = restaurantService.deleteRestaurant(id);
         return ResponseEntity.ok(message);
     }
+
+    private static void checkScrollSize(int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.treatz.restaurantservice.controller;
+
+import com.treatz.restaurantservice.dto.SuggestionDTO;
+import com.treatz.restaurantservice.search.SuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Autocomplete for the search box: restaurant and dish names starting with the prefix
+     * (at any word, so "masala" finds "Chicken Tikka Masala"), most ordered first
+     * At most restaurant.suggest.max-results, whatever the limit
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return ResponseEntity.ok(suggestionIndex.suggest(prefix, limit));
+    }
+}
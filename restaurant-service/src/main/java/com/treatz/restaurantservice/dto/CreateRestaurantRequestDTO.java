@@ -1,5 +1,8 @@
 package com.treatz.restaurantservice.dto;
 
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -28,4 +31,17 @@ public class CreateRestaurantRequestDTO {
     @NotBlank(message = "Email cannot be blank")
     @Email(message = "Please provide a valid contact email")
     private String email;
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    @AssertTrue(message = "Latitude and longitude must be given together")
+    private boolean isLocationComplete() {
+        return (latitude == null) == (longitude == null);
+    }
 }
\ No newline at end of file
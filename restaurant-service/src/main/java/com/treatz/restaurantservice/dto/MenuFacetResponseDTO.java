@@ -0,0 +1,24 @@
+package com.treatz.restaurantservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuFacetResponseDTO {
+    private List<MenuItemSearchResponseDTO> items; // One page of the matching items, oldest first
+    private long totalElements;
+    private int page;
+    private int size;
+
+    // Facet value -> how many items match with it chosen too (each facet ignores its own selection)
+    private Map<String, Long> categoryCounts;     // Every category, zeros included
+    private Map<String, Long> availabilityCounts; // "true" and "false"
+    private Map<String, Long> priceBandCounts;    // Every band, cheapest first, e.g. "0-100" ... "500+"
+    private Map<Long, Long> restaurantCounts;     // Restaurant ID -> count, most matches first, capped
+}
@@ -0,0 +1,24 @@
+package com.treatz.restaurantservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class MenuImportResultDTO {
+    private int created;
+    private int updated;                             // rows naming an item already on the menu
+    private int rejected;
+    private List<RowError> errors = new ArrayList<>(); // the first rejected rows only, see restaurant.menu-import.max-reported-errors
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line; // where the row starts in the uploaded file
+        private String message;
+    }
+}
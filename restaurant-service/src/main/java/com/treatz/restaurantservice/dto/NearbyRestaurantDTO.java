@@ -0,0 +1,19 @@
+package com.treatz.restaurantservice.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class NearbyRestaurantDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private String address;
+    private Double latitude;
+    private Double longitude;
+    private String phone;
+    private String email;
+    private boolean active;
+    private BigDecimal rating;
+    private long distanceMeters; // Great-circle distance from the requested point
+}
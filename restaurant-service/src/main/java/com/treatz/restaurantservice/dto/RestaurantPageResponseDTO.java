@@ -0,0 +1,18 @@
+package com.treatz.restaurantservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of a restaurant listing or search. Pass nextCursor back as ?cursor= to get the following page.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantPageResponseDTO {
+    private List<RestaurantSummaryDTO> restaurants;
+    private String nextCursor;     // null on the last page
+    private boolean hasMore;
+    private long approximateTotal; // cached count of all matching restaurants; may lag recent changes
+}
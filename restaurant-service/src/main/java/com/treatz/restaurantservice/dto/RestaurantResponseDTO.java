@@ -10,6 +10,8 @@ public class RestaurantResponseDTO {
     private String name;
     private String description;
     private String address;
+    private Double latitude;
+    private Double longitude;
     private String phone;
     private String email;
     private boolean active;
@@ -9,6 +9,8 @@ public class RestaurantSummaryDTO {
     private String name;
     private String description;
     private String address;
+    private Double latitude;
+    private Double longitude;
     private String phone;
     private String email;
     private boolean active;
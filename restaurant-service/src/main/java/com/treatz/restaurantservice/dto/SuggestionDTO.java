@@ -0,0 +1,14 @@
+package com.treatz.restaurantservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String text;
+    private String type;       // RESTAURANT or MENU_ITEM
+    private Long restaurantId; // only for RESTAURANT; a dish name can be on several restaurants' menus
+}
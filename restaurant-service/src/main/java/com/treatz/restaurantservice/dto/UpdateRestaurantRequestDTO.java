@@ -28,4 +28,17 @@ public class UpdateRestaurantRequestDTO {
 
     @NotNull(message = "Active status cannot be null")
     private Boolean active;
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    @AssertTrue(message = "Latitude and longitude must be given together")
+    private boolean isLocationComplete() {
+        return (latitude == null) == (longitude == null);
+    }
 }
\ No newline at end of file
@@ -15,6 +15,9 @@ import java.time.LocalDateTime;
         @Index(name = "idx_restaurant_id", columnList = "restaurant_id"),
         @Index(name = "idx_category", columnList = "category"),
         @Index(name = "idx_available", columnList = "is_available")
+}, uniqueConstraints = {
+        // A name appears once per menu; the menu import upserts on it
+        @UniqueConstraint(name = "uk_menu_items_restaurant_name", columnNames = {"restaurant_id", "name"})
 })
 @EntityListeners(AuditingEntityListener.class)
 public class MenuItem {
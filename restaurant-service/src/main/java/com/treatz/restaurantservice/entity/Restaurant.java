@@ -2,6 +2,7 @@ package com.treatz.restaurantservice.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,7 +15,9 @@ import java.util.List;
 @Entity
 @Table(name = "restaurants", indexes = {
         @Index(name = "idx_owner_id", columnList = "owner_id"),
-        @Index(name = "idx_name", columnList = "name"),
+        // Serve keyset pagination by name and by newest (RestaurantRepository.find*Page*): (key, id) in scroll order
+        @Index(name = "idx_name_id", columnList = "name, id"),
+        @Index(name = "idx_created_at_id", columnList = "created_at, id"),
         @Index(name = "idx_active", columnList = "is_active")
 })
 @EntityListeners(AuditingEntityListener.class)
@@ -32,6 +35,13 @@ public class Restaurant {
     @Column(nullable = false, length = 255)
     private String address;
 
+    // WGS84 degrees; restaurants without a location aren't found by the nearby search
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Column(nullable = false, length = 20)
     private String phone;
 
@@ -47,6 +57,18 @@ public class Restaurant {
     @Column(name = "rating", precision = 3, scale = 2)
     private BigDecimal rating = BigDecimal.ZERO;
 
+    // Bumped in the same transaction as every menu item write and import batch, never by saving the entity,
+    // so a save of a restaurant loaded before a menu change can't set it back
+    @ColumnDefault("0")
+    @Column(name = "menu_version", nullable = false, insertable = false, updatable = false)
+    private long menuVersion;
+
+    // Orders placed with the restaurant, counted once each by RestaurantRepository.addOrders; ranks search
+    // suggestions. Like menuVersion, never written by saving the entity
+    @ColumnDefault("0")
+    @Column(name = "order_count", nullable = false, insertable = false, updatable = false)
+    private long orderCount;
+
     @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<MenuItem> menuItems;
 
@@ -0,0 +1,46 @@
+package com.treatz.restaurantservice.event;
+
+import com.treatz.restaurantservice.config.RabbitMQConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void menuItemUpdated(Long menuItemId, Long restaurantId) {
+        publish(RabbitMQConfig.MENU_ITEM_UPDATED_ROUTING_KEY, new MenuItemChangedEvent(menuItemId, restaurantId, "UPDATED"));
+    }
+
+    public void menuItemDeleted(Long menuItemId, Long restaurantId) {
+        publish(RabbitMQConfig.MENU_ITEM_DELETED_ROUTING_KEY, new MenuItemChangedEvent(menuItemId, restaurantId, "DELETED"));
+    }
+
+    public void restaurantCreated(Long restaurantId, Long ownerId) {
+        publish(RabbitMQConfig.RESTAURANT_CREATED_ROUTING_KEY, new RestaurantChangedEvent(restaurantId, ownerId, "CREATED"));
+    }
+
+    public void restaurantUpdated(Long restaurantId, Long ownerId) {
+        publish(RabbitMQConfig.RESTAURANT_UPDATED_ROUTING_KEY, new RestaurantChangedEvent(restaurantId, ownerId, "UPDATED"));
+    }
+
+    public void restaurantDeleted(Long restaurantId, Long ownerId) {
+        publish(RabbitMQConfig.RESTAURANT_DELETED_ROUTING_KEY, new RestaurantChangedEvent(restaurantId, ownerId, "DELETED"));
+    }
+
+    private void publish(String routingKey, Object event) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, routingKey, event);
+            log.debug("Published {} event: {}", routingKey, event);
+        } catch (AmqpException e) {
+            // The write already succeeded. Consumers' caches expire on their own, so we don't fail the request.
+            log.error("Failed to publish {} event {}: {}", routingKey, event, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.treatz.restaurantservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Published whenever a menu item's price/details change, so other services can drop stale copies.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemChangedEvent {
+    private Long menuItemId;
+    private Long restaurantId;
+    private String changeType; // UPDATED or DELETED
+}
@@ -0,0 +1,15 @@
+package com.treatz.restaurantservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Published when a restaurant is created, updated or deleted (e.g. so ownership caches can be refreshed).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantChangedEvent {
+    private Long restaurantId;
+    private Long ownerId;
+    private String changeType; // CREATED, UPDATED or DELETED
+}
@@ -8,6 +8,7 @@ public enum ErrorCode {
     ACCESS_DENIED("ACCESS_DENIED"),
     UNAUTHORIZED_ACCESS("UNAUTHORIZED_ACCESS"),
     DUPLICATE_RESTAURANT_EMAIL("DUPLICATE_RESTAURANT_EMAIL"),
+    DUPLICATE_MENU_ITEM_NAME("DUPLICATE_MENU_ITEM_NAME"),
     INTERNAL_SERVER_ERROR("INTERNAL_SERVER_ERROR"),
     INVALID_CATEGORY("INVALID_CATEGORY"),
     INVALID_PRICE("INVALID_PRICE");
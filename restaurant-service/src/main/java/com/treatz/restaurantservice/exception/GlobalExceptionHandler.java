@@ -133,6 +133,12 @@ public class GlobalExceptionHandler {
             code = ErrorCode.DUPLICATE_RESTAURANT_EMAIL.getCode();
         }
 
+        // Check for duplicate menu item name constraint
+        if (ex.getMessage() != null && ex.getMessage().contains("uk_menu_items_restaurant_name")) {
+            message = "The menu already has an item with this name";
+            code = ErrorCode.DUPLICATE_MENU_ITEM_NAME.getCode();
+        }
+
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .code(code)
                 .message(message)
@@ -0,0 +1,121 @@
+package com.treatz.restaurantservice.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV (RFC 4180) one record at a time: comma-separated fields, double quotes around fields holding commas,
+ * quotes or line breaks, and "" for a quote inside them. Only the current record is held in memory, and fields
+ * are capped in length, so a stray quote can't pull the rest of the file into one field.
+ * Not thread-safe; the caller buffers the reader.
+ */
+final class CsvReader {
+
+    private final Reader in;
+    private final int maxFieldLength;
+    private final StringBuilder field = new StringBuilder();
+    private int lookahead = -2; // -2 = nothing read ahead
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader in, int maxFieldLength) {
+        this.in = in;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    // The line the last record returned by next() started on
+    long recordLine() {
+        return recordLine;
+    }
+
+    // The next record's fields, or null at the end of the input. A malformed record throws CsvFormatException;
+    // call skipLine() to carry on with the next one.
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\n' || c == '\r') { // blank lines hold no record
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new CsvFormatException("Quoted field is never closed");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        continue; // look at the character after the closing quote
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int after = read();
+                    if (after != '\n') {
+                        unread(after);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            if (field.length() > maxFieldLength) {
+                throw new CsvFormatException("Field is longer than " + maxFieldLength + " characters");
+            }
+            c = read();
+        }
+    }
+
+    // Skips the rest of a record that failed, so reading resumes at the next line
+    void skipLine() throws IOException {
+        int c = read();
+        while (c != '\n' && c != -1) {
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (lookahead != -2) {
+            c = lookahead;
+            lookahead = -2;
+        } else {
+            c = in.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') {
+            line--;
+        }
+        lookahead = c;
+    }
+
+    static final class CsvFormatException extends IllegalArgumentException {
+        CsvFormatException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.treatz.restaurantservice.importer;
+
+import org.springframework.http.MediaType;
+
+public enum MenuImportFormat {
+    CSV("text/csv"),             // header row with the item fields' names, then one item per row
+    NDJSON("application/x-ndjson"); // one JSON item per line, shaped like the add-menu-item request
+
+    private final String mediaType;
+
+    MenuImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static MenuImportFormat of(MediaType contentType) {
+        for (MenuImportFormat format : values()) {
+            if (MediaType.parseMediaType(format.mediaType).isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Menu imports must be " + CSV.mediaType + " or " + NDJSON.mediaType);
+    }
+}
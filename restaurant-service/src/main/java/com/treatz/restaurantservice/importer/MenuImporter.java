@@ -0,0 +1,411 @@
+package com.treatz.restaurantservice.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.treatz.restaurantservice.dto.CreateMenuItemRequestDTO;
+import com.treatz.restaurantservice.dto.MenuImportResultDTO;
+import com.treatz.restaurantservice.entity.MenuCategory;
+import com.treatz.restaurantservice.entity.MenuItem;
+import com.treatz.restaurantservice.entity.Restaurant;
+import com.treatz.restaurantservice.mapper.RestaurantMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk menu upload: streams CSV or NDJSON rows, validates each like a single add-menu-item request, and writes
+ * the valid ones with JDBC batches of batchSize rows, each batch in its own transaction together with a bump
+ * of the restaurant's menu version.
+ *
+ * A row naming an item already on the restaurant's menu updates that item; other rows add items, so uploading
+ * the same file again changes nothing. Invalid rows are skipped and reported with their line number.
+ *
+ * Memory stays flat in the file's size: rows are read one at a time and rows and fields are capped in length.
+ * What is kept is the current batch and the first maxReportedErrors errors; which of a batch's names are
+ * already on the menu is looked up when the batch is written.
+ */
+@Component
+@Slf4j
+public class MenuImporter {
+
+    // Far above a valid row (description 1000 characters, image URL 500); longer rows are rejected unread
+    static final int MAX_ROW_LENGTH = 16_384;
+
+    private static final String EXISTING_NAMES_SQL = "SELECT name FROM menu_items WHERE restaurant_id = ? AND name = ANY(?)";
+    // Keyed on uk_menu_items_restaurant_name, so an item added by someone else since the lookup is updated too
+    private static final String UPSERT_SQL = "INSERT INTO menu_items"
+            + " (name, description, price, is_available, category, image_url, restaurant_id, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (restaurant_id, name) DO UPDATE"
+            + " SET description = EXCLUDED.description, price = EXCLUDED.price, is_available = EXCLUDED.is_available,"
+            + " category = EXCLUDED.category, image_url = EXCLUDED.image_url, updated_at = EXCLUDED.updated_at";
+    private static final String BUMP_MENU_VERSION_SQL = "UPDATE restaurants SET menu_version = menu_version + 1 WHERE id = ?";
+
+    // The request fields, by lower-cased name, so CSV headers can be in any case
+    private static final Map<String, String> CSV_COLUMNS = Map.of(
+            "name", "name",
+            "description", "description",
+            "price", "price",
+            "category", "category",
+            "imageurl", "imageUrl",
+            "available", "available");
+    private static final Set<String> REQUIRED_CSV_COLUMNS = Set.of("name", "description", "price", "category", "available");
+
+    /** Called after each batch commits (with its menu version bump), with the items it added and the items it changed. */
+    public interface BatchListener {
+        void written(List<MenuItem> created, List<MenuItem> updated);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final RestaurantMapper restaurantMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public MenuImporter(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        ObjectMapper objectMapper,
+                        Validator validator,
+                        RestaurantMapper restaurantMapper,
+                        @Value("${restaurant.menu-import.batch-size:500}") int batchSize,
+                        @Value("${restaurant.menu-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.restaurantMapper = restaurantMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // The caller has checked that the user owns the restaurant. Batches written before a failure stay written.
+    public MenuImportResultDTO importMenu(Restaurant restaurant, MenuImportFormat format, Reader body, BatchListener listener) {
+        Import run = new Import(restaurant, listener);
+        try {
+            Rows rows = format == MenuImportFormat.CSV ? new CsvRows(body) : new NdjsonRows(body);
+
+            // === Step 1: Read, convert and validate row by row, writing every batchSize valid rows ===
+            while (true) {
+                Row row;
+                try {
+                    row = rows.next();
+                } catch (RowException e) {
+                    run.reject(e.line, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                MenuItem item = toMenuItem(row, run);
+                if (item != null) {
+                    run.add(row.line(), item);
+                }
+            }
+
+            // === Step 2: Write the last, partial batch ===
+            run.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the menu import for restaurant " + restaurant.getId(), e);
+        }
+        log.info("Menu import for restaurant {}: {} created, {} updated, {} rejected",
+                restaurant.getId(), run.result.getCreated(), run.result.getUpdated(), run.result.getRejected());
+        return run.result;
+    }
+
+    // The row as a menu item, or null after rejecting it
+    private MenuItem toMenuItem(Row row, Import run) {
+        CreateMenuItemRequestDTO request;
+        try {
+            request = objectMapper.treeToValue(row.fields(), CreateMenuItemRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            run.reject(row.line(), describe(e));
+            return null;
+        }
+        Set<ConstraintViolation<CreateMenuItemRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            run.reject(row.line(), violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        MenuItem item = restaurantMapper.createMenuItemRequestToMenuItem(request);
+        item.setRestaurant(run.restaurant);
+        return item;
+    }
+
+    // Same wording as the single-item endpoint's errors, without Jackson's class names
+    private static String describe(JsonProcessingException e) {
+        if (e instanceof UnrecognizedPropertyException unknown) {
+            return "Unknown field '" + unknown.getPropertyName() + "'";
+        }
+        if (e instanceof MismatchedInputException mismatched && !mismatched.getPath().isEmpty()) {
+            String field = mismatched.getPath().get(mismatched.getPath().size() - 1).getFieldName();
+            if (MenuCategory.class.equals(mismatched.getTargetType())) {
+                return "Invalid category. Allowed values: " + Arrays.stream(MenuCategory.values())
+                        .map(Enum::name).collect(Collectors.joining(", "));
+            }
+            return "Invalid value for '" + field + "'";
+        }
+        return "Malformed row: " + e.getOriginalMessage();
+    }
+
+    private record Row(long line, ObjectNode fields) {
+    }
+
+    // A row that couldn't be read; the reader has already moved on to the next one
+    private static final class RowException extends Exception {
+        private final long line;
+
+        RowException(long line, String message) {
+            super(message, null, false, false);
+            this.line = line;
+        }
+    }
+
+    private interface Rows {
+        // The next row, or null at the end of the input
+        Row next() throws IOException, RowException;
+    }
+
+    private final class NdjsonRows implements Rows {
+        private final Reader in;
+        private final StringBuilder buffer = new StringBuilder();
+        private long line;
+        private boolean ended;
+
+        NdjsonRows(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public Row next() throws IOException, RowException {
+            while (!ended) {
+                // === Read one line, dropping what's beyond the cap ===
+                buffer.setLength(0);
+                boolean tooLong = false;
+                int c;
+                while ((c = in.read()) != -1 && c != '\n') {
+                    if (buffer.length() < MAX_ROW_LENGTH) {
+                        buffer.append((char) c);
+                    } else {
+                        tooLong = true;
+                    }
+                }
+                ended = c == -1;
+                line++;
+                if (tooLong) {
+                    throw new RowException(line, "Row is longer than " + MAX_ROW_LENGTH + " characters");
+                }
+                String text = buffer.toString().strip();
+                if (text.isEmpty()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(text);
+                } catch (JsonProcessingException e) {
+                    throw new RowException(line, "Malformed JSON");
+                }
+                if (!(node instanceof ObjectNode fields)) {
+                    throw new RowException(line, "Each line must be a JSON object");
+                }
+                return new Row(line, fields);
+            }
+            return null;
+        }
+    }
+
+    private final class CsvRows implements Rows {
+        private final CsvReader csv;
+        private final List<String> header = new ArrayList<>();
+
+        CsvRows(Reader in) throws IOException {
+            this.csv = new CsvReader(in, MAX_ROW_LENGTH);
+            List<String> names;
+            try {
+                names = csv.next();
+            } catch (CsvReader.CsvFormatException e) {
+                throw new IllegalArgumentException("Malformed CSV header: " + e.getMessage());
+            }
+            if (names == null) {
+                return; // empty file: nothing to import
+            }
+            Set<String> missing = new HashSet<>(REQUIRED_CSV_COLUMNS);
+            for (String name : names) {
+                String field = CSV_COLUMNS.get(name.strip().toLowerCase(Locale.ROOT));
+                if (field == null) {
+                    throw new IllegalArgumentException("Unknown CSV column '" + name.strip()
+                            + "'. Columns are name, description, price, category, imageUrl and available");
+                }
+                header.add(field);
+                missing.remove(field);
+            }
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("CSV header is missing the columns " + String.join(", ", missing.stream().sorted().toList()));
+            }
+        }
+
+        @Override
+        public Row next() throws IOException, RowException {
+            if (header.isEmpty()) {
+                return null;
+            }
+            List<String> values;
+            try {
+                values = csv.next();
+            } catch (CsvReader.CsvFormatException e) {
+                csv.skipLine();
+                throw new RowException(csv.recordLine(), e.getMessage());
+            }
+            if (values == null) {
+                return null;
+            }
+            if (values.size() != header.size()) {
+                throw new RowException(csv.recordLine(), "Expected " + header.size() + " fields but found " + values.size());
+            }
+            // Values go in as text; converting them to the request then works (and fails) as it does for JSON strings
+            ObjectNode fields = objectMapper.createObjectNode();
+            for (int i = 0; i < values.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    fields.put(header.get(i), values.get(i));
+                }
+            }
+            return new Row(csv.recordLine(), fields);
+        }
+    }
+
+    // One upload's progress: the batch being filled and the result so far
+    private final class Import {
+        private final Restaurant restaurant;
+        private final BatchListener listener;
+        private final Set<String> batchNames = new HashSet<>();
+        private final List<MenuItem> batch = new ArrayList<>();
+        private final MenuImportResultDTO result = new MenuImportResultDTO();
+
+        Import(Restaurant restaurant, BatchListener listener) {
+            this.restaurant = restaurant;
+            this.listener = listener;
+        }
+
+        void add(long line, MenuItem item) {
+            if (batchNames.contains(item.getName())) {
+                // The name appears twice in the file: write the first row, so the second one updates it
+                flush();
+            }
+            batch.add(item);
+            batchNames.add(item.getName());
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            result.setRejected(result.getRejected() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new MenuImportResultDTO.RowError(line, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            // A version always names one menu: the bump commits with the batch, never apart from it
+            Set<String> existing = transactionTemplate.execute(status -> {
+                Set<String> onMenu = namesOnMenu(batchNames);
+                upsert(batch, now);
+                jdbcTemplate.update(BUMP_MENU_VERSION_SQL, restaurant.getId());
+                return onMenu;
+            });
+
+            List<MenuItem> created = new ArrayList<>();
+            List<MenuItem> updated = new ArrayList<>();
+            for (MenuItem item : batch) {
+                if (existing.contains(item.getName())) {
+                    updated.add(item);
+                } else {
+                    item.setCreatedAt(now);
+                    created.add(item);
+                }
+            }
+            result.setCreated(result.getCreated() + created.size());
+            result.setUpdated(result.getUpdated() + updated.size());
+            batch.clear();
+            batchNames.clear();
+            listener.written(created, updated);
+        }
+
+        // Those of the names already on the menu, in one query per batch
+        private Set<String> namesOnMenu(Set<String> names) {
+            Set<String> onMenu = new HashSet<>();
+            jdbcTemplate.query((Connection connection) -> {
+                PreparedStatement select = connection.prepareStatement(EXISTING_NAMES_SQL);
+                select.setLong(1, restaurant.getId());
+                select.setArray(2, connection.createArrayOf("varchar", names.toArray()));
+                return select;
+            }, (ResultSet rs) -> {
+                onMenu.add(rs.getString("name"));
+            });
+            return onMenu;
+        }
+
+        // Adds the items or, by name, updates those already on the menu, and sets their IDs
+        private void upsert(List<MenuItem> items, LocalDateTime now) {
+            jdbcTemplate.execute((Connection connection) -> {
+                try (PreparedStatement upsert = connection.prepareStatement(UPSERT_SQL, new String[]{"id"})) {
+                    for (MenuItem item : items) {
+                        upsert.setString(1, item.getName());
+                        upsert.setString(2, item.getDescription());
+                        upsert.setBigDecimal(3, item.getPrice());
+                        upsert.setBoolean(4, item.isAvailable());
+                        upsert.setString(5, item.getCategory().name());
+                        upsert.setString(6, item.getImageUrl());
+                        upsert.setLong(7, restaurant.getId());
+                        upsert.setTimestamp(8, Timestamp.valueOf(now));
+                        upsert.setTimestamp(9, Timestamp.valueOf(now));
+                        upsert.addBatch();
+                    }
+                    upsert.executeBatch();
+                    try (ResultSet keys = upsert.getGeneratedKeys()) {
+                        for (MenuItem item : items) {
+                            keys.next();
+                            item.setId(keys.getLong(1));
+                            item.setUpdatedAt(now);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.treatz.restaurantservice.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treatz.restaurantservice.cache.MenuItemDetailsCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Evicts cached menu item details when any instance (this one included) changes or deletes a menu item.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MenuItemEventListener {
+
+    private final MenuItemDetailsCache menuItemDetailsCache;
+    private final ObjectMapper objectMapper;
+
+    @RabbitListener(queues = "#{menuItemEventsQueue.name}")
+    public void handleMenuItemChanged(Message message) throws IOException {
+        JsonNode payload = objectMapper.readTree(message.getBody());
+        if (!payload.hasNonNull("menuItemId")) {
+            log.warn("Ignoring menu item event without a menuItemId");
+            return;
+        }
+        log.debug("Menu item {} was {} - evicting cached details", payload.get("menuItemId").asLong(), payload.path("changeType").asText());
+        menuItemDetailsCache.evict(payload.get("menuItemId").asLong());
+    }
+}
@@ -0,0 +1,56 @@
+package com.treatz.restaurantservice.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treatz.restaurantservice.config.RabbitMQConfig;
+import com.treatz.restaurantservice.repository.RestaurantRepository;
+import com.treatz.restaurantservice.search.SuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Counts orders per restaurant so search suggestions rank popular restaurants and their dishes first: once in
+ * the database (restaurants.order_count, what each suggestion index rebuild starts from), and in this instance's
+ * suggestion index so the ranking moves between rebuilds.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPlacedListener {
+
+    private final SuggestionIndex suggestionIndex;
+    private final RestaurantRepository restaurantRepository;
+    private final ObjectMapper objectMapper;
+
+    // Read the raw JSON rather than binding the Order Service's OrderEvent class; only restaurantId is needed
+    @RabbitListener(queues = "#{orderPlacedQueue.name}")
+    public void handleOrderPlaced(Message message) throws IOException {
+        Long restaurantId = restaurantId(message);
+        if (restaurantId != null) {
+            suggestionIndex.recordOrder(restaurantId);
+        }
+    }
+
+    // One instance gets each order from the shared queue; acknowledged only once the count is committed
+    @RabbitListener(queues = RabbitMQConfig.ORDER_COUNT_QUEUE)
+    public void countOrder(Message message) throws IOException {
+        Long restaurantId = restaurantId(message);
+        if (restaurantId != null) {
+            restaurantRepository.addOrder(restaurantId);
+        }
+    }
+
+    private Long restaurantId(Message message) throws IOException {
+        JsonNode payload = objectMapper.readTree(message.getBody());
+        if (!payload.hasNonNull("restaurantId")) {
+            log.warn("Ignoring order.placed event without a restaurantId");
+            return null;
+        }
+        return payload.get("restaurantId").asLong();
+    }
+}
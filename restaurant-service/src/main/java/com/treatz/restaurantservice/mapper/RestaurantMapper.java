@@ -22,6 +22,8 @@ public interface RestaurantMapper {
     @Mapping(target = "menuItems", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "menuVersion", ignore = true)
+    @Mapping(target = "orderCount", ignore = true)
     Restaurant createRequestToRestaurant(CreateRestaurantRequestDTO dto);
 
     // Maps the database entity to the public-facing DTO (includes menu items)
@@ -36,6 +38,9 @@ public interface RestaurantMapper {
     // Maps a list of entities to a list of summary DTOs
     List<RestaurantSummaryDTO> restaurantsToSummaryDTOs(List<Restaurant> restaurants);
 
+    // Adds the distance from the customer to a restaurant found by the nearby search
+    NearbyRestaurantDTO summaryToNearbyDTO(RestaurantSummaryDTO restaurant, long distanceMeters);
+
     // Updates an existing restaurant entity from a DTO's data
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "ownerId", ignore = true)
@@ -43,6 +48,8 @@ public interface RestaurantMapper {
     @Mapping(target = "menuItems", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "menuVersion", ignore = true)
+    @Mapping(target = "orderCount", ignore = true)
     void updateRestaurantFromDto(UpdateRestaurantRequestDTO dto, @MappingTarget Restaurant restaurant);
 
 
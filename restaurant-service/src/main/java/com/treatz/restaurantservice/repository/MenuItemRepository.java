@@ -1,14 +1,16 @@
 package com.treatz.restaurantservice.repository;
 
 import com.treatz.restaurantservice.entity.MenuItem;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
     List<MenuItem> findByRestaurantId(Long restaurantId);
-    List<MenuItem> findByNameContainingIgnoreCase(String name);
-    Page<MenuItem> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    // Fixed order, so every instance serializes a menu version to the same bytes
+    List<MenuItem> findByRestaurantIdOrderByIdAsc(Long restaurantId);
+    // Every item with its restaurant, in one query; builds the menu search index
+    @Query("SELECT m FROM MenuItem m JOIN FETCH m.restaurant")
+    List<MenuItem> findAllWithRestaurant();
     List<MenuItem> findByIdIn(List<Long> ids);
 }
\ No newline at end of file
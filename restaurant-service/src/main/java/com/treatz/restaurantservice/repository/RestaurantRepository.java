@@ -1,12 +1,62 @@
 package com.treatz.restaurantservice.repository;
 
 import com.treatz.restaurantservice.entity.Restaurant;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
     List<Restaurant> findByNameContainingIgnoreCase(String name);
     Page<Restaurant> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    // Keyset pagination (restaurant scrolling), one query per sort order. Each page starts right after the previous
+    // page's last row with a row-value comparison, which PostgreSQL answers by seeking the matching (key, id) index,
+    // so every page costs the same however deep. The first page seeks from RestaurantCursor.first(order).
+    @Query("SELECT r FROM Restaurant r WHERE r.id > :id ORDER BY r.id")
+    List<Restaurant> findPageOrderById(@Param("id") Long id, Limit limit);
+
+    @Query("SELECT r FROM Restaurant r WHERE (r.name, r.id) > (:name, :id) ORDER BY r.name, r.id")
+    List<Restaurant> findPageOrderByName(@Param("name") String name, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT r FROM Restaurant r WHERE (r.createdAt, r.id) < (:createdAt, :id) ORDER BY r.createdAt DESC, r.id DESC")
+    List<Restaurant> findPageNewestFirst(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // The same for a name search; pattern is a lower-case LIKE pattern with \ as the escape character.
+    // Rows are read in key order and filtered, so a page costs about (page size / share of names matching) rows.
+    @Query("SELECT r FROM Restaurant r WHERE LOWER(r.name) LIKE :pattern ESCAPE '\\' AND r.id > :id ORDER BY r.id")
+    List<Restaurant> searchPageOrderById(@Param("pattern") String pattern, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT r FROM Restaurant r WHERE LOWER(r.name) LIKE :pattern ESCAPE '\\' AND (r.name, r.id) > (:name, :id)"
+            + " ORDER BY r.name, r.id")
+    List<Restaurant> searchPageOrderByName(@Param("pattern") String pattern, @Param("name") String name, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT r FROM Restaurant r WHERE LOWER(r.name) LIKE :pattern ESCAPE '\\' AND (r.createdAt, r.id) < (:createdAt, :id)"
+            + " ORDER BY r.createdAt DESC, r.id DESC")
+    List<Restaurant> searchPageNewestFirst(@Param("pattern") String pattern, @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id, Limit limit);
+
+    @Query("SELECT COUNT(r) FROM Restaurant r WHERE LOWER(r.name) LIKE :pattern ESCAPE '\\'")
+    long countByNamePattern(@Param("pattern") String pattern);
+
+    @Query("SELECT r.menuVersion FROM Restaurant r WHERE r.id = :restaurantId")
+    Optional<Long> findMenuVersionById(Long restaurantId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Restaurant r SET r.menuVersion = r.menuVersion + 1 WHERE r.id = :restaurantId")
+    void incrementMenuVersion(Long restaurantId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Restaurant r SET r.orderCount = r.orderCount + 1 WHERE r.id = :restaurantId")
+    void addOrder(Long restaurantId);
 }
\ No newline at end of file
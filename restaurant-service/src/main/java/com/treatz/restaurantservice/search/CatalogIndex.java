@@ -0,0 +1,24 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.entity.MenuItem;
+import com.treatz.restaurantservice.entity.Restaurant;
+
+import java.util.List;
+
+/**
+ * An in-memory index over the catalog. {@link CatalogIndexer} rebuilds every one of them from a single read
+ * of the restaurant and menu tables.
+ */
+interface CatalogIndex {
+
+    // Every restaurant, and every menu item with its restaurant, as read for one rebuild
+    record Snapshot(List<Restaurant> restaurants, List<MenuItem> menuItems) {
+    }
+
+    // Called before the tables are read: from now on writes are recorded for replay
+    void startRebuild();
+
+    // Swaps in an index built from the snapshot, with the recorded writes replayed onto it.
+    // A null snapshot means reading the tables failed; the current index then stays.
+    void finishRebuild(Snapshot snapshot);
+}
@@ -0,0 +1,54 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.repository.MenuItemRepository;
+import com.treatz.restaurantservice.repository.RestaurantRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds the in-memory catalog indexes (menu search, menu facets, suggestions, nearby restaurants) at startup
+ * and periodically, to pick up writes made through other instances. The restaurant and menu tables are read
+ * once per rebuild, and every index is built from that one read.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIndexer {
+
+    private final RestaurantRepository restaurantRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final List<CatalogIndex> indexes;
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${restaurant.search.rebuild-interval-ms:300000}",
+            initialDelayString = "${restaurant.search.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        // === Step 1: Every index remembers writes made while we read the tables, so its new version doesn't lose them ===
+        indexes.forEach(CatalogIndex::startRebuild);
+
+        // === Step 2: Read the catalog once (queries keep using the current indexes) ===
+        CatalogIndex.Snapshot snapshot = null;
+        try {
+            snapshot = new CatalogIndex.Snapshot(restaurantRepository.findAll(), menuItemRepository.findAllWithRestaurant());
+        } finally {
+            // === Step 3: Build each index from it and swap it in; every index finishes even if another one fails ===
+            RuntimeException failure = null;
+            for (CatalogIndex index : indexes) {
+                try {
+                    index.finishRebuild(snapshot);
+                } catch (RuntimeException e) {
+                    log.error("Rebuilding {} failed: {}", index.getClass().getSimpleName(), e.getMessage());
+                    failure = failure == null ? e : failure;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
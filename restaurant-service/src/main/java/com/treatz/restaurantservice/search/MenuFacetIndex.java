@@ -0,0 +1,285 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.MenuFacetResponseDTO;
+import com.treatz.restaurantservice.dto.MenuItemSearchResponseDTO;
+import com.treatz.restaurantservice.entity.MenuCategory;
+import com.treatz.restaurantservice.mapper.RestaurantMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory bitmap indexes over menu items, for filtering menus by category, availability, price band and
+ * restaurant.
+ *
+ * Every facet value (each category, each price band, each restaurant, and "available") has a compressed bitmap
+ * of the items that have it. A filter is an OR of the chosen values within each facet, ANDed across facets.
+ * The count shown next to each facet value is the number of matches the customer would get by also choosing
+ * that value. So a facet's counts ignore that facet's own selection and apply all the others.
+ *
+ * Built from the database at startup and kept current by the service's own menu writes. Writes made
+ * through other instances are picked up by the periodic rebuild ({@link CatalogIndexer}).
+ */
+@Component
+@Slf4j
+public class MenuFacetIndex implements CatalogIndex {
+
+    private final RestaurantMapper restaurantMapper;
+    private final double[] priceBandBounds; // ascending upper bounds; the last band has none
+    private final List<String> priceBands;
+    private final int maxRestaurantCounts;
+    private final RebuildableIndex<Segment> index;
+
+    public MenuFacetIndex(RestaurantMapper restaurantMapper,
+                          @Value("${restaurant.menu-facets.price-bands:100,200,300,500}") List<BigDecimal> priceBandBounds,
+                          @Value("${restaurant.menu-facets.max-restaurant-counts:50}") int maxRestaurantCounts) {
+        this.restaurantMapper = restaurantMapper;
+        List<BigDecimal> bounds = priceBandBounds.stream().sorted().toList();
+        for (int i = 0; i < bounds.size(); i++) {
+            if (bounds.get(i).signum() <= 0 || (i > 0 && bounds.get(i).compareTo(bounds.get(i - 1)) == 0)) {
+                throw new IllegalArgumentException("restaurant.menu-facets.price-bands must be distinct positive prices: " + priceBandBounds);
+            }
+        }
+        this.priceBandBounds = bounds.stream().mapToDouble(BigDecimal::doubleValue).toArray();
+        this.priceBands = bandLabels(bounds);
+        this.maxRestaurantCounts = maxRestaurantCounts;
+        this.index = new RebuildableIndex<>(new Segment());
+    }
+
+    // Which facet values to keep; an empty collection (or null availability) leaves that facet unfiltered
+    public record Filter(Collection<MenuCategory> categories,
+                         Boolean available,
+                         Collection<String> priceBands,
+                         Collection<Long> restaurantIds) {
+        public Filter {
+            categories = categories == null ? List.of() : categories;
+            priceBands = priceBands == null ? List.of() : priceBands;
+            restaurantIds = restaurantIds == null ? List.of() : restaurantIds;
+        }
+    }
+
+    @Override
+    public void startRebuild() {
+        index.startRebuild();
+    }
+
+    @Override
+    public void finishRebuild(Snapshot snapshot) {
+        // In ID order, so pages come out oldest first
+        Segment rebuilt = index.finishRebuild(snapshot == null ? null : () -> {
+            Segment segment = new Segment();
+            snapshot.menuItems().stream()
+                    .map(restaurantMapper::menuItemToSearchResponseDTO)
+                    .sorted(Comparator.comparing(MenuItemSearchResponseDTO::getId))
+                    .forEach(segment::put);
+            return segment;
+        });
+        if (rebuilt != null) {
+            log.info("Menu facet index rebuilt: {} items, {} restaurants", rebuilt.live.cardinality(), rebuilt.byRestaurant.size());
+        }
+    }
+
+    // Adds the item, or replaces the indexed version of it
+    public void put(MenuItemSearchResponseDTO item) {
+        index.change(segment -> segment.put(item));
+    }
+
+    public void remove(Long menuItemId) {
+        index.change(segment -> segment.remove(menuItemId));
+    }
+
+    // One page of the matching items, oldest first, with the counts for every facet value
+    public MenuFacetResponseDTO filter(Filter filter, int page, int size) {
+        List<Integer> bands = filter.priceBands().stream().map(this::priceBand).distinct().toList();
+        return index.read(segment -> {
+            // === Step 1: One bitmap per filtered facet: the OR of its chosen values ===
+            RoaringBitmap category = filter.categories().isEmpty() ? null
+                    : segment.anyOf(filter.categories().stream().map(segment.byCategory::get).toList());
+            RoaringBitmap available = filter.available() == null ? null
+                    : filter.available() ? segment.available : RoaringBitmap.andNot(segment.live, segment.available);
+            RoaringBitmap price = bands.isEmpty() ? null
+                    : segment.anyOf(bands.stream().map(band -> segment.byPriceBand[band]).toList());
+            RoaringBitmap restaurant = filter.restaurantIds().isEmpty() ? null
+                    : segment.anyOf(filter.restaurantIds().stream().map(segment.byRestaurant::get).toList());
+
+            // === Step 2: Each facet's counts apply every filter but its own; the results apply all of them ===
+            RoaringBitmap forCategory = segment.allOf(available, price, restaurant);
+            RoaringBitmap forAvailability = segment.allOf(category, price, restaurant);
+            RoaringBitmap forPrice = segment.allOf(category, available, restaurant);
+            RoaringBitmap forRestaurant = segment.allOf(category, available, price);
+            RoaringBitmap matches = restaurant == null ? forRestaurant : RoaringBitmap.and(forRestaurant, restaurant);
+
+            Map<String, Long> categoryCounts = new LinkedHashMap<>();
+            for (MenuCategory value : MenuCategory.values()) {
+                categoryCounts.put(value.name(), (long) RoaringBitmap.andCardinality(forCategory, segment.byCategory.get(value)));
+            }
+            Map<String, Long> availabilityCounts = new LinkedHashMap<>();
+            long availableCount = RoaringBitmap.andCardinality(forAvailability, segment.available);
+            availabilityCounts.put("true", availableCount);
+            availabilityCounts.put("false", forAvailability.cardinality() - availableCount);
+            Map<String, Long> priceBandCounts = new LinkedHashMap<>();
+            for (int band = 0; band < priceBands.size(); band++) {
+                priceBandCounts.put(priceBands.get(band), (long) RoaringBitmap.andCardinality(forPrice, segment.byPriceBand[band]));
+            }
+
+            // === Step 3: The requested page, read straight out of the matches bitmap ===
+            List<MenuItemSearchResponseDTO> items = new ArrayList<>(size);
+            for (int doc : matches.range((int) Math.min((long) page * size, Integer.MAX_VALUE), size)) {
+                items.add(segment.docs.get(doc));
+            }
+
+            return new MenuFacetResponseDTO(items, matches.cardinality(), page, size,
+                    categoryCounts, availabilityCounts, priceBandCounts, restaurantCounts(segment, forRestaurant));
+        });
+    }
+
+    // Restaurants with the most matches first, at most maxRestaurantCounts of them. Counting by walking the matches
+    // is cheaper than ANDing them with every restaurant's bitmap.
+    private Map<Long, Long> restaurantCounts(Segment segment, RoaringBitmap matches) {
+        int[] counts = new int[segment.restaurantIds.size()];
+        int[] restaurantOf = segment.restaurantOf;
+        matches.forEach(doc -> counts[restaurantOf[doc]]++);
+        Map<Long, Long> top = new LinkedHashMap<>();
+        IntStream.range(0, counts.length)
+                .filter(slot -> counts[slot] > 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingInt(slot -> -counts[slot]).thenComparing(segment.restaurantIds::get))
+                .limit(maxRestaurantCounts)
+                .forEach(slot -> top.put(segment.restaurantIds.get(slot), (long) counts[slot]));
+        return top;
+    }
+
+    private int priceBand(String label) {
+        int band = priceBands.indexOf(label);
+        if (band < 0) {
+            throw new IllegalArgumentException("Unknown price band '" + label + "'. Use one of " + String.join(", ", priceBands) + ".");
+        }
+        return band;
+    }
+
+    private int priceBandOf(Double price) {
+        int band = 0;
+        while (band < priceBandBounds.length && price != null && price >= priceBandBounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    // 100,200 -> "0-100", "100-200", "200+"
+    private static List<String> bandLabels(List<BigDecimal> bounds) {
+        List<String> labels = new ArrayList<>();
+        String lower = "0";
+        for (BigDecimal bound : bounds) {
+            String upper = bound.stripTrailingZeros().toPlainString();
+            labels.add(lower + "-" + upper);
+            lower = upper;
+        }
+        labels.add(lower + "+");
+        return labels;
+    }
+
+    // One complete index. Items get dense document numbers, so the bitmaps stay compact.
+    // A rebuild fills a new segment and swaps it in.
+    private final class Segment {
+        private final Map<Long, Integer> docNumbers = new HashMap<>();         // menu item ID -> document number
+        private final List<MenuItemSearchResponseDTO> docs = new ArrayList<>(); // document number -> item; null once removed
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final RoaringBitmap available = new RoaringBitmap();
+        private final Map<MenuCategory, RoaringBitmap> byCategory = new EnumMap<>(MenuCategory.class);
+        private final RoaringBitmap[] byPriceBand = new RoaringBitmap[priceBands.size()];
+        private final Map<Long, RoaringBitmap> byRestaurant = new HashMap<>();
+        private final Map<Long, Integer> restaurantSlots = new HashMap<>();  // restaurant ID -> slot, for counting into arrays
+        private final List<Long> restaurantIds = new ArrayList<>();          // slot -> restaurant ID
+        private int[] restaurantOf = new int[16];                            // document number -> restaurant slot
+
+        Segment() {
+            for (MenuCategory category : MenuCategory.values()) {
+                byCategory.put(category, new RoaringBitmap());
+            }
+            for (int band = 0; band < byPriceBand.length; band++) {
+                byPriceBand[band] = new RoaringBitmap();
+            }
+        }
+
+        void put(MenuItemSearchResponseDTO item) {
+            Integer doc = docNumbers.get(item.getId());
+            if (doc == null) {
+                doc = docs.size();
+                docs.add(item);
+                docNumbers.put(item.getId(), doc);
+            } else {
+                unindex(doc);
+                docs.set(doc, item);
+            }
+            live.add(doc);
+            if (item.isAvailable()) {
+                available.add(doc);
+            }
+            byCategory.get(MenuCategory.valueOf(item.getCategory())).add(doc);
+            byPriceBand[priceBandOf(item.getPrice())].add(doc);
+            byRestaurant.computeIfAbsent(item.getRestaurant().getId(), id -> new RoaringBitmap()).add(doc);
+            if (doc == restaurantOf.length) {
+                restaurantOf = Arrays.copyOf(restaurantOf, doc * 2);
+            }
+            restaurantOf[doc] = restaurantSlots.computeIfAbsent(item.getRestaurant().getId(), id -> {
+                restaurantIds.add(id);
+                return restaurantIds.size() - 1;
+            });
+        }
+
+        void remove(Long menuItemId) {
+            Integer doc = docNumbers.remove(menuItemId);
+            if (doc != null) {
+                unindex(doc);
+                docs.set(doc, null); // the slot is reclaimed by the next rebuild
+            }
+        }
+
+        private void unindex(int doc) {
+            MenuItemSearchResponseDTO old = docs.get(doc);
+            live.remove(doc);
+            available.remove(doc);
+            byCategory.get(MenuCategory.valueOf(old.getCategory())).remove(doc);
+            byPriceBand[priceBandOf(old.getPrice())].remove(doc);
+            RoaringBitmap restaurant = byRestaurant.get(old.getRestaurant().getId());
+            restaurant.remove(doc);
+            if (restaurant.isEmpty()) {
+                byRestaurant.remove(old.getRestaurant().getId());
+            }
+        }
+
+        // The items with any of the values; a value no item has (such as an unknown restaurant) matches nothing
+        RoaringBitmap anyOf(List<RoaringBitmap> values) {
+            RoaringBitmap union = new RoaringBitmap();
+            for (RoaringBitmap value : values) {
+                if (value != null) {
+                    union = RoaringBitmap.or(union, value);
+                }
+            }
+            return union;
+        }
+
+        // The live items in every given bitmap; null stands for an unfiltered facet
+        RoaringBitmap allOf(RoaringBitmap... facets) {
+            RoaringBitmap result = live;
+            for (RoaringBitmap facet : facets) {
+                if (facet != null) {
+                    result = RoaringBitmap.and(result, facet);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.MenuItemSearchResponseDTO;
+import com.treatz.restaurantservice.mapper.RestaurantMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over menu items (name, description and category), so menu search never scans menu_items.
+ *
+ * Text is split into lowercase, accent-free tokens. Each query token matches index terms exactly, by prefix
+ * (so results show up while the customer is still typing) or, failing both, within one or two typos.
+ * An item must match every query token. Items are ranked by how rare the matched terms are, which field
+ * they are in (name over category over description) and how close the match is.
+ *
+ * Built from the database at startup and kept current by the service's own menu writes. Writes made
+ * through other instances are picked up by the periodic rebuild ({@link CatalogIndexer}).
+ */
+@Component
+@Slf4j
+public class MenuSearchIndex implements CatalogIndex {
+
+    public static final String RELEVANCE = "relevance";
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float EXACT_MATCH = 1f;
+    private static final float PREFIX_MATCH = 0.75f;
+    private static final float ONE_TYPO_MATCH = 0.6f;
+    private static final float TWO_TYPOS_MATCH = 0.4f;
+
+    // A one-letter query would otherwise expand to most of the dictionary
+    private static final int MAX_PREFIX_EXPANSIONS = 200;
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "with", "in", "on", "for", "to", "or");
+    private static final Pattern NON_TOKEN = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    private final RestaurantMapper restaurantMapper;
+    private final RebuildableIndex<Segment> index = new RebuildableIndex<>(new Segment());
+
+    public MenuSearchIndex(RestaurantMapper restaurantMapper) {
+        this.restaurantMapper = restaurantMapper;
+    }
+
+    record Hit(MenuItemSearchResponseDTO item, float score) {
+    }
+
+    @Override
+    public void startRebuild() {
+        index.startRebuild();
+    }
+
+    @Override
+    public void finishRebuild(Snapshot snapshot) {
+        Segment rebuilt = index.finishRebuild(snapshot == null ? null : () -> {
+            Segment segment = new Segment();
+            snapshot.menuItems().stream()
+                    .map(restaurantMapper::menuItemToSearchResponseDTO)
+                    .forEach(segment::put);
+            return segment;
+        });
+        if (rebuilt != null) {
+            log.info("Menu search index rebuilt: {} items, {} terms", rebuilt.size(), rebuilt.postings.size());
+        }
+    }
+
+    // Adds the item, or replaces the indexed version of it
+    public void put(MenuItemSearchResponseDTO item) {
+        index.change(segment -> segment.put(item));
+    }
+
+    public void remove(Long menuItemId) {
+        index.change(segment -> segment.remove(menuItemId));
+    }
+
+    public Page<MenuItemSearchResponseDTO> search(String query, Pageable pageable) {
+        List<String> tokens = tokenize(query).distinct().toList();
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Comparator<Hit> order = order(pageable.getSort());
+
+        // === Step 1: Score the items that match every token ===
+        List<Hit> hits = index.read(segment -> {
+            float[] scores = new float[segment.docs.size()];
+            DocList matches = match(segment, tokens, scores);
+            List<Hit> matched = new ArrayList<>(matches.size);
+            for (int i = 0; i < matches.size; i++) {
+                int doc = matches.docs[i];
+                matched.add(new Hit(segment.docs.get(doc), scores[doc]));
+            }
+            return matched;
+        });
+
+        // === Step 2: Order them, keeping only as many as the requested page needs ===
+        if (pageable.isUnpaged()) {
+            hits.sort(order);
+            return new PageImpl<>(hits.stream().map(Hit::item).toList(), pageable, hits.size());
+        }
+        List<Hit> top = top(hits, order, (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE));
+        List<MenuItemSearchResponseDTO> content = top.stream()
+                .skip(pageable.getOffset())
+                .map(Hit::item)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.size());
+    }
+
+    // The documents that match every token. Their summed scores are left in scores[], indexed by document number.
+    private static DocList match(Segment segment, List<String> tokens, float[] scores) {
+        DocList alive = null;
+        float[] tokenScores = tokens.size() > 1 ? new float[scores.length] : null;
+        for (String token : tokens) {
+            if (alive == null) {
+                // First token: its best match per document is the document's score so far
+                alive = new DocList();
+                score(segment, token, scores, null, alive);
+                continue;
+            }
+            // Later tokens: only documents that matched every earlier token are scored, and they survive only if this one matches too
+            DocList touched = new DocList();
+            score(segment, token, tokenScores, scores, touched);
+            DocList survivors = new DocList();
+            for (int i = 0; i < alive.size; i++) {
+                int doc = alive.docs[i];
+                if (tokenScores[doc] > 0) {
+                    scores[doc] += tokenScores[doc];
+                    survivors.add(doc);
+                } else {
+                    scores[doc] = 0;
+                }
+            }
+            for (int i = 0; i < touched.size; i++) {
+                tokenScores[touched.docs[i]] = 0;
+            }
+            alive = survivors;
+            if (alive.size == 0) {
+                break;
+            }
+        }
+        return alive;
+    }
+
+    // Best score per document for one token, from exact and prefix matches, or typo matches if there are none.
+    // With a filter, documents whose filter score is 0 are skipped. Newly scored documents are added to touched.
+    private static void score(Segment segment, String token, float[] best, float[] filter, DocList touched) {
+        int expansions = 0;
+        for (Map.Entry<String, Postings> term : segment.postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float match = term.getKey().length() == token.length() ? EXACT_MATCH : PREFIX_MATCH;
+            accumulate(segment, term.getValue(), match, best, filter, touched);
+            if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        if (expansions > 0) {
+            return;
+        }
+
+        // Typos: only for longer tokens, and only against terms with the same first letter
+        int maxEdits = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0) {
+            return;
+        }
+        String first = token.substring(0, 1);
+        for (Map.Entry<String, Postings> term : segment.postings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+            int edits = editDistance(token, term.getKey(), maxEdits);
+            if (edits <= maxEdits) {
+                accumulate(segment, term.getValue(), edits == 1 ? ONE_TYPO_MATCH : TWO_TYPOS_MATCH, best, filter, touched);
+            }
+        }
+    }
+
+    private static void accumulate(Segment segment, Postings term, float match, float[] best, float[] filter, DocList touched) {
+        // Rare terms say more about an item than common ones
+        float idf = (float) Math.log(1 + (double) segment.size() / term.size);
+        for (int i = 0; i < term.size; i++) {
+            int doc = term.docs[i];
+            if (filter != null && filter[doc] == 0) {
+                continue;
+            }
+            float score = match * idf * term.weights[i];
+            if (best[doc] == 0) {
+                touched.add(doc);
+            }
+            if (score > best[doc]) {
+                best[doc] = score;
+            }
+        }
+    }
+
+    // Lowercase, accent-free words and numbers; "Crème Brûlée" -> [creme, brulee], "MAIN_COURSE" -> [main, course]
+    static Stream<String> tokenize(String text) {
+        if (text == null) {
+            return Stream.empty();
+        }
+        String folded = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_TOKEN.split(folded))
+                .filter(token -> !token.isEmpty() && !STOP_WORDS.contains(token));
+    }
+
+    // Optimal string alignment distance (an adjacent swap is one typo); anything over max is reported as max + 1
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // The first n hits in order, without sorting all of them
+    private static List<Hit> top(List<Hit> hits, Comparator<Hit> order, int n) {
+        if (n >= hits.size()) {
+            hits.sort(order);
+            return hits;
+        }
+        PriorityQueue<Hit> worstFirst = new PriorityQueue<>(n + 1, order.reversed());
+        for (Hit hit : hits) {
+            if (worstFirst.size() < n) {
+                worstFirst.add(hit);
+            } else if (order.compare(hit, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(hit);
+            }
+        }
+        List<Hit> top = new ArrayList<>(worstFirst);
+        top.sort(order);
+        return top;
+    }
+
+    // Best match first unless the caller sorts by a field; relevance then breaks ties
+    private static Comparator<Hit> order(Sort sort) {
+        Comparator<Hit> byRelevance = (a, b) -> {
+            int byScore = Float.compare(b.score(), a.score());
+            return byScore != 0 ? byScore : Long.compare(a.item().getId(), b.item().getId());
+        };
+        Comparator<Hit> order = null;
+        for (Sort.Order property : sort) {
+            if (property.getProperty().equals(RELEVANCE)) {
+                order = order == null ? byRelevance : order.thenComparing(byRelevance);
+                continue;
+            }
+            Comparator<Hit> byProperty = switch (property.getProperty()) {
+                case "id" -> Comparator.comparing(hit -> hit.item().getId());
+                case "name" -> Comparator.comparing(hit -> hit.item().getName(), String.CASE_INSENSITIVE_ORDER);
+                case "price" -> Comparator.comparing(hit -> hit.item().getPrice());
+                case "category" -> Comparator.comparing(hit -> hit.item().getCategory());
+                default -> throw new IllegalArgumentException("Cannot sort menu item search results by '" + property.getProperty()
+                        + "'. Use relevance, id, name, price or category.");
+            };
+            if (property.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            order = order == null ? byProperty : order.thenComparing(byProperty);
+        }
+        return order == null ? byRelevance : order.thenComparing(byRelevance);
+    }
+
+    // One complete index. Items get dense document numbers, so postings and scores can be plain arrays.
+    // A rebuild fills a new segment and swaps it in.
+    private static final class Segment {
+        private final Map<Long, Integer> docNumbers = new HashMap<>();         // menu item ID -> document number
+        private final List<MenuItemSearchResponseDTO> docs = new ArrayList<>(); // document number -> item; null once removed
+        private final NavigableMap<String, Postings> postings = new TreeMap<>();
+
+        int size() {
+            return docNumbers.size();
+        }
+
+        void put(MenuItemSearchResponseDTO item) {
+            Integer doc = docNumbers.get(item.getId());
+            if (doc == null) {
+                doc = docs.size();
+                docs.add(item);
+                docNumbers.put(item.getId(), doc);
+            } else {
+                unindex(doc);
+                docs.set(doc, item);
+            }
+            index(doc, item.getName(), NAME_WEIGHT);
+            index(doc, item.getCategory(), CATEGORY_WEIGHT);
+            index(doc, item.getDescription(), DESCRIPTION_WEIGHT);
+        }
+
+        void remove(Long menuItemId) {
+            Integer doc = docNumbers.remove(menuItemId);
+            if (doc != null) {
+                unindex(doc);
+                docs.set(doc, null); // the slot is reclaimed by the next rebuild
+            }
+        }
+
+        private void index(int doc, String text, float weight) {
+            tokenize(text).forEach(token -> postings.computeIfAbsent(token, t -> new Postings()).put(doc, weight));
+        }
+
+        private void unindex(int doc) {
+            MenuItemSearchResponseDTO old = docs.get(doc);
+            Stream.of(old.getName(), old.getCategory(), old.getDescription())
+                    .flatMap(MenuSearchIndex::tokenize)
+                    .forEach(token -> {
+                        Postings term = postings.get(token);
+                        if (term != null && term.remove(doc) && term.size == 0) {
+                            postings.remove(token);
+                        }
+                    });
+        }
+    }
+
+    // The documents containing one term, sorted, each with the weight of the best field it appears in
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void put(int doc, float weight) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                weights[i] = Math.max(weights[i], weight);
+                return;
+            }
+            i = -i - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, i, docs, i + 1, size - i);
+            System.arraycopy(weights, i, weights, i + 1, size - i);
+            docs[i] = doc;
+            weights[i] = weight;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+            size--;
+            return true;
+        }
+    }
+
+    private static final class DocList {
+        private int[] docs = new int[16];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.treatz.restaurantservice.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The current version of one in-memory index, and the locking every catalog index needs around it.
+ *
+ * Queries read it under the read lock and the service's writes change it under the write lock. A rebuild fills
+ * a new version from the database while queries keep using the current one. Writes made while the database is
+ * read are recorded and replayed onto the new version before it is swapped in, so none of them is lost.
+ */
+final class RebuildableIndex<S> {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private S current;
+    private List<Consumer<S>> changedDuringRebuild; // non-null while a rebuild runs
+
+    RebuildableIndex(S initial) {
+        this.current = initial;
+    }
+
+    <T> T read(Function<S, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void change(Consumer<S> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Starts recording writes; call before reading the database
+    void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Builds the new version (without holding the lock), replays the writes recorded since startRebuild() onto it
+    // and swaps it in. Returns it, or null if there was nothing to build from (build is null), leaving the current one.
+    S finishRebuild(Supplier<S> build) {
+        S rebuilt = null;
+        try {
+            if (build != null) {
+                rebuilt = build.get();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    S replayed = rebuilt;
+                    changedDuringRebuild.forEach(change -> change.accept(replayed));
+                    current = rebuilt;
+                }
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return rebuilt;
+    }
+}
@@ -0,0 +1,217 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.RestaurantSummaryDTO;
+import com.treatz.restaurantservice.mapper.RestaurantMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory grid over active restaurants' locations, for "restaurants near me".
+ *
+ * The map is cut into cells of CELL_DEGREES by CELL_DEGREES (about 1.1 km north-south). A query visits the cells
+ * around the customer's in widening rings and stops once no unvisited cell can hold a restaurant closer than the
+ * ones already found, or within the radius at all. Distances are great-circle distances.
+ *
+ * Built from the database at startup and kept current by the service's own restaurant writes. Writes made
+ * through other instances are picked up by the periodic rebuild ({@link CatalogIndexer}). Inactive restaurants and restaurants
+ * without a location aren't indexed.
+ */
+@Component
+@Slf4j
+public class RestaurantGeoIndex implements CatalogIndex {
+
+    static final double CELL_DEGREES = 0.01;
+    private static final int LAT_CELLS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_METERS * Math.PI / 180;
+    private static final double CELL_HEIGHT_METERS = CELL_DEGREES * METERS_PER_DEGREE;
+
+    private static final Comparator<Nearby> NEAREST_FIRST = Comparator.comparingDouble(Nearby::distanceMeters)
+            .thenComparing(nearby -> nearby.restaurant().getId());
+
+    private final RestaurantMapper restaurantMapper;
+    private final double maxRadiusMeters;
+    private final int maxResults;
+    private final RebuildableIndex<Grid> index = new RebuildableIndex<>(new Grid());
+
+    public RestaurantGeoIndex(RestaurantMapper restaurantMapper,
+                              @Value("${restaurant.nearby.max-radius-km:50}") double maxRadiusKm,
+                              @Value("${restaurant.nearby.max-results:100}") int maxResults) {
+        this.restaurantMapper = restaurantMapper;
+        this.maxRadiusMeters = maxRadiusKm * 1000;
+        this.maxResults = maxResults;
+    }
+
+    public record Nearby(RestaurantSummaryDTO restaurant, double distanceMeters) {
+    }
+
+    @Override
+    public void startRebuild() {
+        index.startRebuild();
+    }
+
+    @Override
+    public void finishRebuild(Snapshot snapshot) {
+        Grid rebuilt = index.finishRebuild(snapshot == null ? null : () -> {
+            Grid grid = new Grid();
+            snapshot.restaurants().stream()
+                    .map(restaurantMapper::restaurantToSummaryDTO)
+                    .forEach(grid::put);
+            return grid;
+        });
+        if (rebuilt != null) {
+            log.info("Restaurant geo index rebuilt: {} located restaurants in {} cells", rebuilt.byId.size(), rebuilt.cells.size());
+        }
+    }
+
+    // Adds the restaurant, or moves it; an inactive or unlocated restaurant is dropped
+    public void put(RestaurantSummaryDTO restaurant) {
+        index.change(grid -> grid.put(restaurant));
+    }
+
+    public void remove(Long restaurantId) {
+        index.change(grid -> grid.remove(restaurantId));
+    }
+
+    // Up to limit restaurants within radiusMeters of the point, nearest first
+    public List<Nearby> nearest(double latitude, double longitude, double radiusMeters, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (!(radiusMeters > 0) || radiusMeters > maxRadiusMeters) {
+            throw new IllegalArgumentException("Radius must be more than 0 and at most " + maxRadiusMeters / 1000 + " km");
+        }
+        if (limit < 1 || limit > maxResults) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxResults);
+        }
+        Point from = new Point(latitude, longitude);
+
+        // === Step 1: Size the rings. Cells narrow towards the poles, so a ring spans more columns than rows,
+        // enough that every cell outside ring n is at least n cell heights away ===
+        double farthestLatitude = Math.min(89.9, Math.abs(latitude) + radiusMeters / METERS_PER_DEGREE + CELL_DEGREES);
+        double narrowestCellWidth = CELL_HEIGHT_METERS * Math.cos(Math.toRadians(farthestLatitude));
+        double columnsPerRow = CELL_HEIGHT_METERS / narrowestCellWidth;
+        int lastRing = (int) Math.ceil(radiusMeters / CELL_HEIGHT_METERS);
+
+        // === Step 2: Visit rings outwards, keeping the nearest limit restaurants (farthest on top) ===
+        PriorityQueue<Nearby> found = new PriorityQueue<>(limit + 1, NEAREST_FIRST.reversed());
+        index.read(grid -> {
+            int row = latitudeCell(latitude);
+            int column = longitudeCell(longitude);
+            int previousHalfWidth = -1;
+            for (int ring = 0; ring <= lastRing; ring++) {
+                double closestUnvisited = Math.max(0, ring - 1) * CELL_HEIGHT_METERS;
+                if (found.size() == limit && closestUnvisited > found.peek().distanceMeters()) {
+                    break;
+                }
+                int halfWidth = Math.min((int) Math.ceil(ring * columnsPerRow), LON_CELLS / 2 - 1);
+                for (int dy = -ring; dy <= ring; dy++) {
+                    boolean edgeRow = Math.abs(dy) == ring;
+                    for (int dx = -halfWidth; dx <= halfWidth; dx++) {
+                        if (!edgeRow && Math.abs(dx) <= previousHalfWidth) {
+                            dx = previousHalfWidth; // inside the previous ring: jump to its right edge
+                            continue;
+                        }
+                        grid.collect(row + dy, column + dx, from, radiusMeters, limit, found);
+                    }
+                }
+                previousHalfWidth = halfWidth;
+            }
+            return found;
+        });
+
+        List<Nearby> nearest = new ArrayList<>(found);
+        nearest.sort(NEAREST_FIRST);
+        return nearest;
+    }
+
+    private static int latitudeCell(double latitude) {
+        return Math.min((int) Math.floor((latitude + 90) / CELL_DEGREES), LAT_CELLS - 1);
+    }
+
+    private static int longitudeCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static long cellKey(int row, int column) {
+        return (long) row * LON_CELLS + column;
+    }
+
+    // Precomputed radians and cosine, so the haversine per candidate is a few multiplications and one asin
+    private record Point(double latitude, double longitude, double cosLatitude) {
+        Point(double latitudeDegrees, double longitudeDegrees) {
+            this(Math.toRadians(latitudeDegrees), Math.toRadians(longitudeDegrees), Math.cos(Math.toRadians(latitudeDegrees)));
+        }
+
+        double metersTo(Point other) {
+            double sinHalfLat = Math.sin((other.latitude - latitude) / 2);
+            double sinHalfLon = Math.sin((other.longitude - longitude) / 2);
+            double h = sinHalfLat * sinHalfLat + cosLatitude * other.cosLatitude * sinHalfLon * sinHalfLon;
+            return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(h)));
+        }
+    }
+
+    private record Located(RestaurantSummaryDTO restaurant, Point point, long cell) {
+    }
+
+    // One complete index; a rebuild fills a new one and swaps it in
+    private static final class Grid {
+        private final Map<Long, List<Located>> cells = new HashMap<>();
+        private final Map<Long, Located> byId = new HashMap<>();
+
+        void put(RestaurantSummaryDTO restaurant) {
+            remove(restaurant.getId());
+            if (!restaurant.isActive() || restaurant.getLatitude() == null || restaurant.getLongitude() == null) {
+                return;
+            }
+            double latitude = restaurant.getLatitude();
+            double longitude = restaurant.getLongitude();
+            Located located = new Located(restaurant, new Point(latitude, longitude),
+                    cellKey(latitudeCell(latitude), longitudeCell(longitude)));
+            byId.put(restaurant.getId(), located);
+            cells.computeIfAbsent(located.cell(), cell -> new ArrayList<>(4)).add(located);
+        }
+
+        void remove(Long restaurantId) {
+            Located located = byId.remove(restaurantId);
+            if (located == null) {
+                return;
+            }
+            List<Located> cell = cells.get(located.cell());
+            cell.remove(located);
+            if (cell.isEmpty()) {
+                cells.remove(located.cell());
+            }
+        }
+
+        void collect(int row, int column, Point from, double radiusMeters, int limit, PriorityQueue<Nearby> found) {
+            if (row < 0 || row >= LAT_CELLS) {
+                return;
+            }
+            List<Located> cell = cells.get(cellKey(row, Math.floorMod(column, LON_CELLS)));
+            if (cell == null) {
+                return;
+            }
+            for (Located located : cell) {
+                double distance = from.metersTo(located.point());
+                if (distance > radiusMeters || (found.size() == limit && distance >= found.peek().distanceMeters())) {
+                    continue;
+                }
+                found.add(new Nearby(located.restaurant(), distance));
+                if (found.size() > limit) {
+                    found.poll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.SuggestionDTO;
+import com.treatz.restaurantservice.entity.MenuItem;
+import com.treatz.restaurantservice.entity.Restaurant;
+import com.treatz.restaurantservice.search.SuggestionTrie.Suggestion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search-box completions over restaurant names and dish names, ranked by popularity.
+ *
+ * A restaurant's popularity is the number of orders placed with it plus one. A dish name is one suggestion
+ * however many restaurants serve it, and is as popular as those restaurants together.
+ *
+ * Each rebuild starts from the order counts stored in the database (restaurants.order_count), so every instance
+ * ranks alike and a restart loses nothing. Between rebuilds, order.placed events seen by this instance are added
+ * on top, in batches every few seconds, since each one re-ranks the restaurant's dishes.
+ *
+ * Kept current by the service's own catalog writes, and rebuilt from the database periodically
+ * ({@link CatalogIndexer}) to pick up writes made through other instances.
+ */
+@Component
+@Slf4j
+public class SuggestionIndex implements CatalogIndex {
+
+    public static final String RESTAURANT = "RESTAURANT";
+    public static final String MENU_ITEM = "MENU_ITEM";
+
+    // A name is also found by its later words ("tikka" finds "Chicken Tikka Masala"), up to this many words in
+    private static final int MAX_KEY_WORDS = 5;
+    // Re-ranking more dishes than this at once recomputes the whole trie rather than each name's paths
+    private static final int BATCH_REWEIGH_THRESHOLD = 1000;
+
+    private final int maxResults;
+    private final RebuildableIndex<Catalog> index;
+
+    // Orders not yet applied to the ranking
+    private final ConcurrentMap<Long, LongAdder> pendingOrders = new ConcurrentHashMap<>();
+
+    public SuggestionIndex(@Value("${restaurant.suggest.max-results:10}") int maxResults) {
+        this.maxResults = maxResults;
+        this.index = new RebuildableIndex<>(new Catalog());
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        List<Suggestion> suggestions = index.read(catalog -> catalog.trie.complete(key, Math.min(limit, maxResults)));
+        return suggestions.stream()
+                .map(suggestion -> new SuggestionDTO(suggestion.text(), suggestion.type(), suggestion.restaurantId()))
+                .toList();
+    }
+
+    // === Catalog changes (called by the service after each write) ===
+
+    public void putRestaurant(Long restaurantId, String name) {
+        index.change(catalog -> catalog.putRestaurant(restaurantId, name));
+    }
+
+    public void removeRestaurant(Long restaurantId) {
+        index.change(catalog -> catalog.removeRestaurant(restaurantId));
+    }
+
+    public void putMenuItem(Long menuItemId, Long restaurantId, String name) {
+        index.change(catalog -> catalog.putMenuItem(menuItemId, restaurantId, name));
+    }
+
+    public void removeMenuItem(Long menuItemId) {
+        index.change(catalog -> catalog.removeMenuItem(menuItemId));
+    }
+
+    // Called for every order placed anywhere; cheap, the ranking is updated by applyOrders()
+    public void recordOrder(Long restaurantId) {
+        pendingOrders.computeIfAbsent(restaurantId, id -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${restaurant.suggest.popularity-flush-interval-ms:10000}")
+    public void applyOrders() {
+        Map<Long, Long> orders = new HashMap<>();
+        pendingOrders.forEach((restaurantId, count) -> {
+            long n = count.sumThenReset();
+            if (n > 0) {
+                orders.put(restaurantId, n);
+            } else {
+                pendingOrders.remove(restaurantId, count);
+            }
+        });
+        if (orders.isEmpty()) {
+            return;
+        }
+        // Applied during a rebuild, they are replayed onto the new catalog's stored counts too
+        index.change(catalog -> catalog.addOrders(orders));
+    }
+
+    @Override
+    public void startRebuild() {
+        index.startRebuild();
+    }
+
+    @Override
+    public void finishRebuild(Snapshot snapshot) {
+        Catalog rebuilt = index.finishRebuild(snapshot == null ? null : () -> {
+            Catalog catalog = new Catalog();
+            catalog.load(snapshot.restaurants(), snapshot.menuItems());
+            return catalog;
+        });
+        if (rebuilt != null) {
+            log.info("Suggestion index rebuilt: {} restaurants, {} dishes", rebuilt.restaurantNames.size(), rebuilt.dishes.size());
+        }
+    }
+
+    // Same tokens as menu search, so "Crème Brûlée" completes from "creme b"
+    static String normalize(String text) {
+        return String.join(" ", MenuSearchIndex.tokenize(text).toList());
+    }
+
+    // The key itself plus one key starting at each later word
+    private static List<String> keys(String normalized) {
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        for (int word = 0; word < MAX_KEY_WORDS && start < normalized.length(); word++) {
+            keys.add(normalized.substring(start));
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    // One complete set of suggestions and what they were built from; a rebuild fills a new one and swaps it in
+    private final class Catalog {
+        private final SuggestionTrie trie = new SuggestionTrie(maxResults);
+        private final Map<Long, String> restaurantNames = new HashMap<>();
+        private final Map<Long, MenuEntry> menuItems = new HashMap<>();
+        private final Map<String, Dish> dishes = new HashMap<>();                      // normalized name -> dish
+        private final Map<Long, Set<String>> dishesByRestaurant = new HashMap<>();
+        private final Map<Long, Long> ordersByRestaurant = new HashMap<>();
+        private boolean loading; // dishes are weighed once at the end of load() rather than per item
+
+        void load(List<Restaurant> restaurants, List<MenuItem> menuItems) {
+            trie.deferTops();
+            restaurants.forEach(restaurant -> ordersByRestaurant.put(restaurant.getId(), restaurant.getOrderCount()));
+            restaurants.forEach(restaurant -> putRestaurant(restaurant.getId(), restaurant.getName()));
+            loading = true;
+            menuItems.forEach(item -> putMenuItem(item.getId(), item.getRestaurant().getId(), item.getName()));
+            loading = false;
+            dishes.values().forEach(this::reweighDish);
+            trie.computeTops();
+        }
+
+        void putRestaurant(Long restaurantId, String name) {
+            String old = restaurantNames.put(restaurantId, name);
+            if (old != null && !normalize(old).equals(normalize(name))) {
+                keys(normalize(old)).forEach(key -> trie.remove(key, restaurantKey(restaurantId)));
+            }
+            reweighRestaurant(restaurantId);
+        }
+
+        void removeRestaurant(Long restaurantId) {
+            ordersByRestaurant.remove(restaurantId);
+            String old = restaurantNames.remove(restaurantId);
+            if (old != null) {
+                keys(normalize(old)).forEach(key -> trie.remove(key, restaurantKey(restaurantId)));
+            }
+        }
+
+        void putMenuItem(Long menuItemId, Long restaurantId, String name) {
+            MenuEntry old = menuItems.put(menuItemId, new MenuEntry(restaurantId, name));
+            if (old != null) {
+                detach(old);
+            }
+            attach(new MenuEntry(restaurantId, name));
+        }
+
+        void removeMenuItem(Long menuItemId) {
+            MenuEntry old = menuItems.remove(menuItemId);
+            if (old != null) {
+                detach(old);
+            }
+        }
+
+        void addOrders(Map<Long, Long> orders) {
+            orders.forEach((restaurantId, n) -> ordersByRestaurant.merge(restaurantId, n, Long::sum));
+            reweigh(orders.keySet());
+        }
+
+        // The restaurants' order counts changed: re-rank them and every dish they serve, each dish once
+        private void reweigh(Set<Long> restaurantIds) {
+            Set<String> servedDishes = new HashSet<>();
+            for (Long restaurantId : restaurantIds) {
+                if (restaurantNames.containsKey(restaurantId)) {
+                    reweighRestaurant(restaurantId);
+                }
+                servedDishes.addAll(dishesByRestaurant.getOrDefault(restaurantId, Set.of()));
+            }
+            boolean batch = servedDishes.size() > BATCH_REWEIGH_THRESHOLD;
+            if (batch) {
+                trie.deferTops();
+            }
+            servedDishes.forEach(name -> reweighDish(dishes.get(name)));
+            if (batch) {
+                trie.computeTops();
+            }
+        }
+
+        private void attach(MenuEntry entry) {
+            String normalized = normalize(entry.name());
+            if (normalized.isEmpty()) {
+                return;
+            }
+            Dish dish = dishes.computeIfAbsent(normalized, n -> new Dish(entry.name(), normalized));
+            dish.itemsByRestaurant.merge(entry.restaurantId(), 1, Integer::sum);
+            dishesByRestaurant.computeIfAbsent(entry.restaurantId(), id -> new HashSet<>()).add(normalized);
+            if (!loading) {
+                reweighDish(dish);
+            }
+        }
+
+        private void detach(MenuEntry entry) {
+            Dish dish = dishes.get(normalize(entry.name()));
+            if (dish == null) {
+                return;
+            }
+            if (dish.itemsByRestaurant.merge(entry.restaurantId(), -1, Integer::sum) == 0) {
+                dish.itemsByRestaurant.remove(entry.restaurantId());
+                Set<String> served = dishesByRestaurant.get(entry.restaurantId());
+                served.remove(dish.normalized);
+                if (served.isEmpty()) {
+                    dishesByRestaurant.remove(entry.restaurantId());
+                }
+            }
+            if (dish.itemsByRestaurant.isEmpty()) {
+                dishes.remove(dish.normalized);
+                keys(dish.normalized).forEach(key -> trie.remove(key, dishKey(dish.normalized)));
+            } else {
+                reweighDish(dish);
+            }
+        }
+
+        private void reweighRestaurant(Long restaurantId) {
+            String name = restaurantNames.get(restaurantId);
+            String normalized = normalize(name);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            Suggestion suggestion = new Suggestion(restaurantKey(restaurantId), name, RESTAURANT, restaurantId, popularity(restaurantId));
+            keys(normalized).forEach(key -> trie.put(key, suggestion));
+        }
+
+        private void reweighDish(Dish dish) {
+            long weight = dish.itemsByRestaurant.keySet().stream().mapToLong(this::popularity).sum();
+            Suggestion suggestion = new Suggestion(dishKey(dish.normalized), dish.name, MENU_ITEM, null, weight);
+            keys(dish.normalized).forEach(key -> trie.put(key, suggestion));
+        }
+
+        private long popularity(Long restaurantId) {
+            return 1 + ordersByRestaurant.getOrDefault(restaurantId, 0L);
+        }
+    }
+
+    private static String restaurantKey(Long restaurantId) {
+        return "restaurant:" + restaurantId;
+    }
+
+    private static String dishKey(String normalized) {
+        return "dish:" + normalized;
+    }
+
+    private record MenuEntry(Long restaurantId, String name) {
+    }
+
+    // A dish name and how many items carry it at each restaurant; displayed as first seen
+    private static final class Dish {
+        private final String name;
+        private final String normalized;
+        private final Map<Long, Integer> itemsByRestaurant = new HashMap<>();
+
+        Dish(String name, String normalized) {
+            this.name = name;
+            this.normalized = normalized;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.treatz.restaurantservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Radix trie (edges carry whole strings, not single characters) from normalized names to suggestions.
+ *
+ * Every node keeps the best maxResults suggestions of its whole subtree, so completing a prefix is a walk of
+ * at most prefix-length steps plus copying that list. Changes recompute those lists only along the changed key's path.
+ * Not thread-safe; {@link SuggestionIndex} guards it.
+ */
+final class SuggestionTrie {
+
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    // Most popular first; shorter (more likely finished) names break ties. Runs on every change, so spelled out
+    // rather than chained Comparator.comparing calls.
+    static final Comparator<Suggestion> ORDER = (a, b) -> {
+        if (a.weight() != b.weight()) {
+            return Long.compare(b.weight(), a.weight());
+        }
+        if (a.text().length() != b.text().length()) {
+            return Integer.compare(a.text().length(), b.text().length());
+        }
+        int byText = a.text().compareToIgnoreCase(b.text());
+        return byText != 0 ? byText : a.id().compareTo(b.id());
+    };
+
+    record Suggestion(String id, String text, String type, Long restaurantId, long weight) {
+    }
+
+    // Most nodes are leaves holding one suggestion, so the collections start out as shared empty ones
+    private static final class Node {
+        private String label;
+        private Map<Character, Node> children = Map.of();
+        private List<Suggestion> entries = List.of(); // suggestions whose key ends here, best first
+        private Suggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private final int maxResults;
+    private final Node root = new Node("");
+    // Between deferTops() and computeTops() entries aren't kept in order and lists aren't updated
+    private boolean deferred;
+
+    SuggestionTrie(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    // Adds the suggestion under the key, replacing one with the same ID there
+    void put(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                addChild(node, child);
+                i = key.length();
+            } else {
+                int common = commonPrefixLength(child.label, key, i);
+                if (common < child.label.length()) {
+                    // The key leaves this edge part-way: split it
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    addChild(split, child);
+                    addChild(node, split);
+                    child = split;
+                }
+                i += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        int replaced = indexOf(node.entries, suggestion.id());
+        if (replaced >= 0) {
+            if (node.entries.get(replaced).equals(suggestion)) {
+                return;
+            }
+            node.entries.remove(replaced);
+        } else if (node.entries.isEmpty()) {
+            node.entries = new ArrayList<>(1);
+        }
+        if (deferred) {
+            node.entries.add(suggestion);
+            return;
+        }
+        int at = Collections.binarySearch(node.entries, suggestion, ORDER);
+        node.entries.add(at < 0 ? -at - 1 : at, suggestion);
+        // Once a node's best list stays the same, its ancestors' can't change either
+        for (int d = path.size() - 1; d >= 0; d--) {
+            if (!canEnterTop(path.get(d), suggestion) || !recomputeTop(path.get(d))) {
+                break;
+            }
+        }
+    }
+
+    // False when the node's list is full, ranks the suggestion below its last place, and has no older version of it
+    private boolean canEnterTop(Node node, Suggestion suggestion) {
+        Suggestion[] top = node.top;
+        if (top.length < maxResults || ORDER.compare(suggestion, top[top.length - 1]) < 0) {
+            return true;
+        }
+        for (Suggestion listed : top) {
+            if (listed.id().equals(suggestion.id())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void remove(String key, String id) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return;
+            }
+            i += node.label.length();
+            path.add(node);
+        }
+        int removed = indexOf(node.entries, id);
+        if (removed < 0) {
+            return;
+        }
+        node.entries.remove(removed);
+        // Bottom-up: drop nodes left empty, fold nodes left with one child into that child, refresh the rest
+        for (int d = path.size() - 1; d >= 0; d--) {
+            Node current = path.get(d);
+            if (d > 0 && current.entries.isEmpty() && current.children.size() <= 1) {
+                Node parent = path.get(d - 1);
+                if (current.children.isEmpty()) {
+                    parent.children.remove(current.label.charAt(0));
+                } else {
+                    Node only = current.children.values().iterator().next();
+                    only.label = current.label + only.label;
+                    parent.children.put(only.label.charAt(0), only);
+                }
+                continue;
+            }
+            if (!deferred) {
+                recomputeTop(current);
+            }
+        }
+    }
+
+    // For many changes at once (loading, re-ranking many names): stop updating lists per change...
+    void deferTops() {
+        deferred = true;
+    }
+
+    // ...then compute them all in one pass, each node once
+    void computeTops() {
+        deferred = false;
+        computeTops(root);
+    }
+
+    private void computeTops(Node node) {
+        for (Node child : node.children.values()) {
+            computeTops(child);
+        }
+        if (node.entries.size() > 1) {
+            node.entries.sort(ORDER);
+        }
+        recomputeTop(node);
+    }
+
+    // The best suggestions for keys starting with the prefix, best first
+    List<Suggestion> complete(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            int remaining = prefix.length() - i;
+            if (remaining <= child.label.length()) {
+                // The prefix ends on this edge: everything below it matches
+                return child.label.regionMatches(0, prefix, i, remaining) ? first(child.top, limit) : List.of();
+            }
+            if (!prefix.startsWith(child.label, i)) {
+                return List.of();
+            }
+            node = child;
+            i += child.label.length();
+        }
+        return first(node.top, limit);
+    }
+
+    private static List<Suggestion> first(Suggestion[] top, int limit) {
+        return Collections.unmodifiableList(Arrays.asList(top).subList(0, Math.min(limit, top.length)));
+    }
+
+    // Merges the node's own entries with its children's lists (each already best first), stopping at maxResults.
+    // A suggestion can sit under several keys of one subtree (a name is indexed from each of its words), so dedupe by ID.
+    // Returns whether the list changed.
+    private boolean recomputeTop(Node node) {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(node.children.size() + 1,
+                (a, b) -> ORDER.compare(a.current(), b.current()));
+        if (!node.entries.isEmpty()) {
+            cursors.add(new Cursor(node.entries.iterator()));
+        }
+        for (Node child : node.children.values()) {
+            if (child.top.length > 0) {
+                cursors.add(new Cursor(Arrays.asList(child.top).iterator()));
+            }
+        }
+        List<Suggestion> top = new ArrayList<>(maxResults);
+        Set<String> seen = new HashSet<>();
+        while (top.size() < maxResults && !cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            if (seen.add(cursor.current().id())) {
+                top.add(cursor.current());
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        Suggestion[] updated = top.toArray(NONE);
+        if (Arrays.equals(updated, node.top)) {
+            return false;
+        }
+        node.top = updated;
+        return true;
+    }
+
+    // Position in one best-first list while merging
+    private static final class Cursor {
+        private final Iterator<Suggestion> rest;
+        private Suggestion current;
+
+        Cursor(Iterator<Suggestion> suggestions) {
+            this.rest = suggestions;
+            this.current = suggestions.next();
+        }
+
+        Suggestion current() {
+            return current;
+        }
+
+        boolean advance() {
+            if (!rest.hasNext()) {
+                return false;
+            }
+            current = rest.next();
+            return true;
+        }
+    }
+
+    private static void addChild(Node parent, Node child) {
+        if (parent.children.isEmpty()) {
+            parent.children = new HashMap<>(4);
+        }
+        parent.children.put(child.label.charAt(0), child);
+    }
+
+    // Entries are few except under a popular word's suffix key, where there can be hundreds
+    private static int indexOf(List<Suggestion> entries, String id) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).id().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,72 @@
+package com.treatz.restaurantservice.service;
+
+import com.treatz.restaurantservice.entity.Restaurant;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Position in a keyset-paginated restaurant listing: the sort order plus the sort key and id of the last
+ * restaurant on the previous page. Clients get it as an opaque base64url string and must not build it themselves.
+ */
+record RestaurantCursor(Order order, Long id, String name, LocalDateTime createdAt) {
+
+    private static final String SEPARATOR = "|";
+    // Later than any real creation time, and still a valid PostgreSQL timestamp
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    // The sort orders that have an index to seek (see RestaurantRepository); sortBy values are the lower-case names
+    enum Order {
+        ID, NAME, NEWEST;
+
+        static Order of(String sortBy) {
+            try {
+                return valueOf(sortBy.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("sortBy must be one of id, name, newest");
+            }
+        }
+    }
+
+    // Sorts before every restaurant, so the first page is the page after it
+    static RestaurantCursor first(Order order) {
+        return new RestaurantCursor(order, order == Order.NEWEST ? Long.MAX_VALUE : Long.MIN_VALUE, "", END_OF_TIME);
+    }
+
+    static RestaurantCursor after(Order order, Restaurant last) {
+        return new RestaurantCursor(order, last.getId(), last.getName(), last.getCreatedAt());
+    }
+
+    String encode() {
+        String key = switch (order) {
+            case ID -> "";
+            case NAME -> name;
+            case NEWEST -> createdAt.toString();
+        };
+        // The name goes last, so it may contain the separator
+        String raw = order + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A cursor from a listing in another order can't continue this one
+    static RestaurantCursor decode(String cursor, Order expected) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (parts.length != 3 || Order.valueOf(parts[0]) != expected) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Long id = Long.parseLong(parts[1]);
+            return switch (expected) {
+                case ID -> new RestaurantCursor(expected, id, "", END_OF_TIME);
+                case NAME -> new RestaurantCursor(expected, id, parts[2], END_OF_TIME);
+                case NEWEST -> new RestaurantCursor(expected, id, "", LocalDateTime.parse(parts[2]));
+            };
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.treatz.restaurantservice.service;
 
+import com.treatz.restaurantservice.cache.MenuSnapshot;
 import com.treatz.restaurantservice.dto.*;
+import com.treatz.restaurantservice.importer.MenuImportFormat;
+import com.treatz.restaurantservice.search.MenuFacetIndex;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.Reader;
 import java.util.List;
 
 public interface RestaurantService {
@@ -12,19 +16,25 @@ public interface RestaurantService {
     RestaurantResponseDTO getRestaurantById(Long restaurantId); // Returns detailed info with menu items
     List<RestaurantSummaryDTO> getAllRestaurants(); // Returns summary without menu items
     Page<RestaurantSummaryDTO> getAllRestaurants(Pageable pageable); // Paginated summary
+    RestaurantPageResponseDTO getRestaurantsPage(String sortBy, String cursor, int size); // Keyset-paginated summary (cursor is null for the first page)
     RestaurantResponseDTO updateRestaurant(Long restaurantId, UpdateRestaurantRequestDTO request);
     String deleteRestaurant(Long restaurantId);
     List<MenuItemResponseDTO> getMenuItemsByIds(List<Long> ids);
+    MenuSnapshot getMenuSnapshot(Long restaurantId); // The menu as pre-serialized JSON with its version's ETag
 
     // Menu Item CRUD
     MenuItemResponseDTO addMenuItem(Long restaurantId, CreateMenuItemRequestDTO request);
     MenuItemResponseDTO updateMenuItem(Long restaurantId, Long menuItemId, UpdateMenuItemRequestDTO request);
     String deleteMenuItem(Long restaurantId, Long menuItemId);
+    MenuImportResultDTO importMenu(Long restaurantId, MenuImportFormat format, Reader body); // Streams the upload; adds new items, updates same-named ones
 
     // Search Functionality
     List<RestaurantSummaryDTO> searchRestaurantsByName(String name); // Returns summary without menu items
     Page<RestaurantSummaryDTO> searchRestaurantsByName(String name, Pageable pageable); // Paginated summary
+    RestaurantPageResponseDTO searchRestaurantsPage(String name, String sortBy, String cursor, int size); // Keyset-paginated summary
     List<MenuItemSearchResponseDTO> searchRestaurantsByMenuItem(String menuItemName);
     Page<MenuItemSearchResponseDTO> searchRestaurantsByMenuItem(String menuItemName, Pageable pageable);
+    MenuFacetResponseDTO filterMenuItems(MenuFacetIndex.Filter filter, int page, int size); // Items matching the facets, plus counts per facet value
+    List<NearbyRestaurantDTO> findNearbyRestaurants(double latitude, double longitude, double radiusKm, int limit); // Nearest first
     Long getOwnerIdForRestaurant(Long restaurantId);
 }
\ No newline at end of file
@@ -1,22 +1,42 @@
 package com.treatz.restaurantservice.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treatz.restaurantservice.cache.MenuItemDetailsCache;
+import com.treatz.restaurantservice.cache.MenuSnapshot;
+import com.treatz.restaurantservice.cache.MenuSnapshotCache;
+import com.treatz.restaurantservice.cache.RestaurantCountCache;
 import com.treatz.restaurantservice.dto.*;
 import com.treatz.restaurantservice.entity.MenuItem;
 import com.treatz.restaurantservice.entity.Restaurant;
+import com.treatz.restaurantservice.event.CatalogEventPublisher;
 import com.treatz.restaurantservice.exception.MenuItemNotBelongsToRestaurantException;
 import com.treatz.restaurantservice.exception.ResourceNotFoundException;
+import com.treatz.restaurantservice.importer.MenuImportFormat;
+import com.treatz.restaurantservice.importer.MenuImporter;
 import com.treatz.restaurantservice.mapper.RestaurantMapper;
 import com.treatz.restaurantservice.repository.MenuItemRepository;
 import com.treatz.restaurantservice.repository.RestaurantRepository;
+import com.treatz.restaurantservice.search.MenuFacetIndex;
+import com.treatz.restaurantservice.search.MenuSearchIndex;
+import com.treatz.restaurantservice.search.RestaurantGeoIndex;
+import com.treatz.restaurantservice.search.SuggestionIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.Reader;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +46,17 @@ public class RestaurantServiceImpl implements RestaurantService {
     private final RestaurantRepository restaurantRepository;
     private final MenuItemRepository menuItemRepository;
     private final RestaurantMapper restaurantMapper;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final MenuSearchIndex menuSearchIndex;
+    private final MenuFacetIndex menuFacetIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final RestaurantGeoIndex restaurantGeoIndex;
+    private final MenuSnapshotCache menuSnapshotCache;
+    private final MenuItemDetailsCache menuItemDetailsCache;
+    private final RestaurantCountCache restaurantCountCache;
+    private final MenuImporter menuImporter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     // == RESTAURANT LOGIC ==
 
@@ -34,6 +65,9 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant restaurant = restaurantMapper.createRequestToRestaurant(request);
         restaurant.setOwnerId(getAuthenticatedUserId());
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        catalogEventPublisher.restaurantCreated(savedRestaurant.getId(), savedRestaurant.getOwnerId());
+        suggestionIndex.putRestaurant(savedRestaurant.getId(), savedRestaurant.getName());
+        restaurantGeoIndex.put(restaurantMapper.restaurantToSummaryDTO(savedRestaurant));
         return restaurantMapper.restaurantToResponseDTO(savedRestaurant);
     }
 
@@ -42,23 +76,64 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant restaurant = findRestaurantAndVerifyOwnership(restaurantId);
         restaurantMapper.updateRestaurantFromDto(request, restaurant); // Use mapper to update fields
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        catalogEventPublisher.restaurantUpdated(restaurantId, updatedRestaurant.getOwnerId());
+        suggestionIndex.putRestaurant(restaurantId, updatedRestaurant.getName());
+        restaurantGeoIndex.put(restaurantMapper.restaurantToSummaryDTO(updatedRestaurant));
+        // Search results carry the restaurant's name and address
+        if (updatedRestaurant.getMenuItems() != null) {
+            updatedRestaurant.getMenuItems().forEach(item -> {
+                MenuItemSearchResponseDTO indexed = restaurantMapper.menuItemToSearchResponseDTO(item);
+                menuSearchIndex.put(indexed);
+                menuFacetIndex.put(indexed);
+            });
+        }
         return restaurantMapper.restaurantToResponseDTO(updatedRestaurant);
     }
 
     @Override
     public String deleteRestaurant(Long restaurantId) {
         Restaurant restaurant = findRestaurantAndVerifyOwnership(restaurantId);
+        // Capture the menu before the cascade removes it, so consumers can drop those items too
+        List<Long> menuItemIds = restaurant.getMenuItems() == null ? List.of()
+                : restaurant.getMenuItems().stream().map(MenuItem::getId).toList();
         restaurantRepository.delete(restaurant);
+        catalogEventPublisher.restaurantDeleted(restaurantId, restaurant.getOwnerId());
+        menuItemIds.forEach(menuItemId -> catalogEventPublisher.menuItemDeleted(menuItemId, restaurantId));
+        menuItemIds.forEach(menuSearchIndex::remove);
+        menuItemIds.forEach(menuFacetIndex::remove);
+        menuItemIds.forEach(suggestionIndex::removeMenuItem);
+        menuItemDetailsCache.evictAll(menuItemIds);
+        suggestionIndex.removeRestaurant(restaurantId);
+        restaurantGeoIndex.remove(restaurantId);
+        menuSnapshotCache.evict(restaurantId);
         return "Restaurant with ID " + restaurantId + " deleted successfully.";
     }
 
     @Override
     public List<MenuItemResponseDTO> getMenuItemsByIds(List<Long> ids) {
-        List<MenuItem> menuItems = menuItemRepository.findByIdIn(ids);
-        return restaurantMapper.menuItemsToMenuItemResponseDTO(menuItems);
+        // Per-item cache; misses from concurrent order placements share batched findByIdIn queries
+        return menuItemDetailsCache.getAll(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public MenuSnapshot getMenuSnapshot(Long restaurantId) {
+        // Version and items come from one database snapshot, so the bytes cached under a version are that version's menu
+        long version = restaurantRepository.findMenuVersionById(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + restaurantId));
+        return menuSnapshotCache.get(restaurantId, version, () -> {
+            List<MenuItemResponseDTO> menu = restaurantMapper.menuItemsToMenuItemResponseDTO(
+                    menuItemRepository.findByRestaurantIdOrderByIdAsc(restaurantId));
+            try {
+                return objectMapper.writeValueAsBytes(menu);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize the menu of restaurant " + restaurantId, e);
+            }
+        });
     }
 
     @Override
+    @Transactional(readOnly = true)
     public RestaurantResponseDTO getRestaurantById(Long restaurantId) {
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + restaurantId));
@@ -66,6 +141,7 @@ public class RestaurantServiceImpl implements RestaurantService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RestaurantSummaryDTO> getAllRestaurants() {
         return restaurantRepository.findAll().stream()
                 .map(restaurantMapper::restaurantToSummaryDTO)
@@ -79,7 +155,11 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant restaurant = findRestaurantAndVerifyOwnership(restaurantId);
         MenuItem menuItem = restaurantMapper.createMenuItemRequestToMenuItem(request);
         menuItem.setRestaurant(restaurant);
-        MenuItem savedItem = menuItemRepository.save(menuItem);
+        MenuItem savedItem = writeMenu(restaurantId, () -> menuItemRepository.save(menuItem));
+        MenuItemSearchResponseDTO indexed = restaurantMapper.menuItemToSearchResponseDTO(savedItem);
+        menuSearchIndex.put(indexed);
+        menuFacetIndex.put(indexed);
+        suggestionIndex.putMenuItem(savedItem.getId(), restaurantId, savedItem.getName());
         return restaurantMapper.menuItemToResponseDTO(savedItem);
     }
 
@@ -96,7 +176,13 @@ public class RestaurantServiceImpl implements RestaurantService {
         }
 
         restaurantMapper.updateMenuItemFromDto(request, menuItem);
-        MenuItem updatedItem = menuItemRepository.save(menuItem);
+        MenuItem updatedItem = writeMenu(restaurantId, () -> menuItemRepository.save(menuItem));
+        catalogEventPublisher.menuItemUpdated(menuItemId, restaurantId);
+        menuItemDetailsCache.evict(menuItemId);
+        MenuItemSearchResponseDTO indexed = restaurantMapper.menuItemToSearchResponseDTO(updatedItem);
+        menuSearchIndex.put(indexed);
+        menuFacetIndex.put(indexed);
+        suggestionIndex.putMenuItem(menuItemId, restaurantId, updatedItem.getName());
         return restaurantMapper.menuItemToResponseDTO(updatedItem);
     }
 
@@ -111,11 +197,44 @@ public class RestaurantServiceImpl implements RestaurantService {
                     String.format("Menu item with ID %d does not belong to restaurant with ID %d",
                             menuItemId, restaurantId));
         }
-        menuItemRepository.delete(menuItem);
+        writeMenu(restaurantId, () -> {
+            menuItemRepository.delete(menuItem);
+            return null;
+        });
+        catalogEventPublisher.menuItemDeleted(menuItemId, restaurantId);
+        menuItemDetailsCache.evict(menuItemId);
+        menuSearchIndex.remove(menuItemId);
+        menuFacetIndex.remove(menuItemId);
+        suggestionIndex.removeMenuItem(menuItemId);
         return "Menu item with ID " + menuItemId + " deleted successfully.";
     }
 
     @Override
+    public MenuImportResultDTO importMenu(Long restaurantId, MenuImportFormat format, Reader body) {
+        // Ownership is checked once for the whole upload, not per row
+        Restaurant restaurant = findRestaurantAndVerifyOwnership(restaurantId);
+        // Each batch bumps the menu version in its own transaction
+        return menuImporter.importMenu(restaurant, format, body, (created, updated) -> {
+            menuSnapshotCache.evict(restaurantId);
+            created.forEach(item -> {
+                MenuItemSearchResponseDTO indexed = restaurantMapper.menuItemToSearchResponseDTO(item);
+                menuSearchIndex.put(indexed);
+                menuFacetIndex.put(indexed);
+                suggestionIndex.putMenuItem(item.getId(), restaurantId, item.getName());
+            });
+            updated.forEach(item -> {
+                catalogEventPublisher.menuItemUpdated(item.getId(), restaurantId);
+                menuItemDetailsCache.evict(item.getId());
+                MenuItemSearchResponseDTO indexed = restaurantMapper.menuItemToSearchResponseDTO(item);
+                menuSearchIndex.put(indexed);
+                menuFacetIndex.put(indexed);
+                suggestionIndex.putMenuItem(item.getId(), restaurantId, item.getName());
+            });
+        });
+    }
+
+    @Override
+    // Not read-only: the Order Service checks ownership right after a restaurant is created, before a replica may have it
     public Long getOwnerIdForRestaurant(Long restaurantId) {
         // Find the restaurant by its ID
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
@@ -128,6 +247,7 @@ public class RestaurantServiceImpl implements RestaurantService {
     // == SEARCH LOGIC ==
 
     @Override
+    @Transactional(readOnly = true)
     public List<RestaurantSummaryDTO> searchRestaurantsByName(String name) {
         return restaurantRepository.findByNameContainingIgnoreCase(name).stream()
                 .map(restaurantMapper::restaurantToSummaryDTO)
@@ -136,20 +256,35 @@ public class RestaurantServiceImpl implements RestaurantService {
 
     @Override
     public List<MenuItemSearchResponseDTO> searchRestaurantsByMenuItem(String menuItemName) {
-        return menuItemRepository.findByNameContainingIgnoreCase(menuItemName).stream()
-                .map(restaurantMapper::menuItemToSearchResponseDTO)
-                .collect(Collectors.toList());
+        // Served from the in-memory index, best matches first
+        return menuSearchIndex.search(menuItemName, Pageable.unpaged()).getContent();
+    }
+
+    @Override
+    public MenuFacetResponseDTO filterMenuItems(MenuFacetIndex.Filter filter, int page, int size) {
+        // Served from the in-memory bitmap indexes; no database access
+        return menuFacetIndex.filter(filter, page, size);
+    }
+
+    @Override
+    public List<NearbyRestaurantDTO> findNearbyRestaurants(double latitude, double longitude, double radiusKm, int limit) {
+        // Served from the in-memory geo index; no database access
+        return restaurantGeoIndex.nearest(latitude, longitude, radiusKm * 1000, limit).stream()
+                .map(nearby -> restaurantMapper.summaryToNearbyDTO(nearby.restaurant(), Math.round(nearby.distanceMeters())))
+                .toList();
     }
 
     // == PAGINATED METHODS ==
 
     @Override
+    @Transactional(readOnly = true)
     public Page<RestaurantSummaryDTO> getAllRestaurants(Pageable pageable) {
         return restaurantRepository.findAll(pageable)
                 .map(restaurantMapper::restaurantToSummaryDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<RestaurantSummaryDTO> searchRestaurantsByName(String name, Pageable pageable) {
         return restaurantRepository.findByNameContainingIgnoreCase(name, pageable)
                 .map(restaurantMapper::restaurantToSummaryDTO);
@@ -157,8 +292,64 @@ public class RestaurantServiceImpl implements RestaurantService {
 
     @Override
     public Page<MenuItemSearchResponseDTO> searchRestaurantsByMenuItem(String menuItemName, Pageable pageable) {
-        return menuItemRepository.findByNameContainingIgnoreCase(menuItemName, pageable)
-                .map(restaurantMapper::menuItemToSearchResponseDTO);
+        // Served from the in-memory index; no database access
+        return menuSearchIndex.search(menuItemName, pageable);
+    }
+
+    // == KEYSET-PAGINATED METHODS ==
+
+    @Override
+    @Transactional(readOnly = true)
+    public RestaurantPageResponseDTO getRestaurantsPage(String sortBy, String cursor, int size) {
+        return scrollRestaurants(null, sortBy, cursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RestaurantPageResponseDTO searchRestaurantsPage(String name, String sortBy, String cursor, int size) {
+        return scrollRestaurants(name, sortBy, cursor, size);
+    }
+
+    // name is null to list every restaurant
+    private RestaurantPageResponseDTO scrollRestaurants(String name, String sortBy, String cursor, int size) {
+        // === Step 1: Resume after the cursor's restaurant, fetching one row more than asked for to know if more follow ===
+        RestaurantCursor.Order order = RestaurantCursor.Order.of(sortBy);
+        RestaurantCursor after = (cursor == null || cursor.isBlank()) ? RestaurantCursor.first(order) : RestaurantCursor.decode(cursor, order);
+        String pattern = name == null ? null : likePattern(name);
+        Limit limit = Limit.of(size + 1);
+        List<Restaurant> restaurants = switch (order) {
+            case ID -> pattern == null
+                    ? restaurantRepository.findPageOrderById(after.id(), limit)
+                    : restaurantRepository.searchPageOrderById(pattern, after.id(), limit);
+            case NAME -> pattern == null
+                    ? restaurantRepository.findPageOrderByName(after.name(), after.id(), limit)
+                    : restaurantRepository.searchPageOrderByName(pattern, after.name(), after.id(), limit);
+            case NEWEST -> pattern == null
+                    ? restaurantRepository.findPageNewestFirst(after.createdAt(), after.id(), limit)
+                    : restaurantRepository.searchPageNewestFirst(pattern, after.createdAt(), after.id(), limit);
+        };
+
+        boolean hasMore = restaurants.size() > size;
+        if (hasMore) {
+            restaurants = restaurants.subList(0, size);
+        }
+        String nextCursor = hasMore ? RestaurantCursor.after(order, restaurants.get(restaurants.size() - 1)).encode() : null;
+
+        // === Step 2: The total comes from a cache, not a COUNT(*) per page ===
+        long approximateTotal = pattern == null
+                ? restaurantCountCache.get("", restaurantRepository::count)
+                : restaurantCountCache.get(pattern, () -> restaurantRepository.countByNamePattern(pattern));
+
+        return new RestaurantPageResponseDTO(restaurantMapper.restaurantsToSummaryDTOs(restaurants), nextCursor, hasMore, approximateTotal);
+    }
+
+    // Case-insensitive "contains", with the user's % and _ matched literally
+    private static String likePattern(String name) {
+        String escaped = name.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     // == HELPER METHODS ==
@@ -177,4 +368,15 @@ public class RestaurantServiceImpl implements RestaurantService {
         }
         return restaurant;
     }
-}
\ No newline at end of file
+
+    // The item write and the menu version bump commit together, so a version always names exactly one menu
+    private <T> T writeMenu(Long restaurantId, Supplier<T> write) {
+        T written = transactionTemplate.execute(status -> {
+            T result = write.get();
+            restaurantRepository.incrementMenuVersion(restaurantId);
+            return result;
+        });
+        menuSnapshotCache.evict(restaurantId);
+        return written;
+    }
+}
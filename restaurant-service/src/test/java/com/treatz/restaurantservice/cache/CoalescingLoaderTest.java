@@ -0,0 +1,81 @@
+package com.treatz.restaurantservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingLoaderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Set<Long>> queries = new CopyOnWriteArrayList<>();
+    private CoalescingLoader<Long, String> loader;
+
+    @AfterEach
+    void close() {
+        loader.close();
+    }
+
+    @Test
+    void requestsWithinTheWindowShareOneQuery() {
+        // Even IDs exist
+        loader = newLoader(ids -> ids.stream().filter(id -> id % 2 == 0).collect(Collectors.toMap(id -> id, id -> "item " + id)), 50_000, 100);
+
+        CompletableFuture<Map<Long, String>> first = loader.load(Set.of(1L, 2L, 4L));
+        CompletableFuture<Map<Long, String>> second = loader.load(Set.of(2L, 6L));
+
+        assertThat(first.join()).containsExactlyInAnyOrderEntriesOf(Map.of(2L, "item 2", 4L, "item 4"));
+        assertThat(second.join()).containsExactlyInAnyOrderEntriesOf(Map.of(2L, "item 2", 6L, "item 6"));
+        assertThat(queries).containsExactly(Set.of(1L, 2L, 4L, 6L));
+        assertThat(meterRegistry.summary("test.batch.keys").totalAmount()).isEqualTo(4);
+        assertThat(meterRegistry.summary("test.batch.callers").totalAmount()).isEqualTo(2);
+
+        // A later request starts a new window
+        assertThat(loader.load(Set.of(8L)).join()).containsEntry(8L, "item 8");
+        assertThat(queries).hasSize(2);
+    }
+
+    @Test
+    void aFullBatchIsLoadedWithoutWaitingForTheWindow() {
+        // A window far longer than the test may run: only reaching the batch size can trigger the load
+        loader = newLoader(ids -> ids.stream().collect(Collectors.toMap(id -> id, id -> "item " + id)), 60_000_000, 3);
+
+        CompletableFuture<Map<Long, String>> first = loader.load(Set.of(1L, 2L));
+        CompletableFuture<Map<Long, String>> second = loader.load(Set.of(3L));
+
+        assertThat(first.join()).containsOnlyKeys(1L, 2L);
+        assertThat(second.join()).containsOnlyKeys(3L);
+        assertThat(queries).containsExactly(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void aFailedQueryFailsEveryRequestInTheBatch() {
+        loader = newLoader(ids -> {
+            throw new IllegalStateException("database unavailable");
+        }, 10_000, 100);
+
+        CompletableFuture<Map<Long, String>> first = loader.load(Set.of(1L));
+        CompletableFuture<Map<Long, String>> second = loader.load(Set.of(2L));
+
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private CoalescingLoader<Long, String> newLoader(Function<Set<Long>, Map<Long, String>> query, long windowMicros, int maxBatchSize) {
+        return new CoalescingLoader<>("test", ids -> {
+            queries.add(Set.copyOf(ids));
+            return query.apply(ids);
+        }, windowMicros, maxBatchSize, 2, meterRegistry);
+    }
+}
@@ -0,0 +1,177 @@
+package com.treatz.restaurantservice.controller;
+
+import com.treatz.restaurantservice.entity.MenuCategory;
+import com.treatz.restaurantservice.entity.MenuItem;
+import com.treatz.restaurantservice.entity.Restaurant;
+import com.treatz.restaurantservice.repository.MenuItemRepository;
+import com.treatz.restaurantservice.repository.RestaurantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Batches of 2, so the uploads below span several batches
+@SpringBootTest(properties = "restaurant.menu-import.batch-size=2")
+@AutoConfigureMockMvc
+class MenuImportTest {
+
+    private static final long OWNER_ID = 7L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void createRestaurant() {
+        restaurant = new Restaurant();
+        restaurant.setName("Import Kitchen");
+        restaurant.setDescription("Test restaurant");
+        restaurant.setAddress("1 Test Street");
+        restaurant.setPhone("5550000");
+        restaurant.setEmail(UUID.randomUUID() + "@test.example");
+        restaurant.setOwnerId(OWNER_ID);
+        restaurant = restaurantRepository.save(restaurant);
+
+        MenuItem existing = new MenuItem();
+        existing.setName("Garlic Naan");
+        existing.setDescription("Old description");
+        existing.setPrice(new BigDecimal("40.00"));
+        existing.setCategory(MenuCategory.SIDE_DISH);
+        existing.setRestaurant(restaurant);
+        menuItemRepository.save(existing);
+    }
+
+    @AfterEach
+    void deleteRestaurant() {
+        menuItemRepository.deleteAll(menuItemRepository.findByRestaurantId(restaurant.getId()));
+        restaurantRepository.deleteById(restaurant.getId());
+    }
+
+    @Test
+    void csvRowsAreAddedOrUpdatedByNameAndBadRowsReported() throws Exception {
+        String csv = """
+                name,description,price,category,imageUrl,available
+                Paneer Tikka,"Cottage cheese, charred in the tandoor",220.00,STARTER,,true
+                Garlic Naan,"Leavened bread with garlic butter
+                baked to order",60.00,SIDE_DISH,,true
+                Mango Lassi,Chilled yoghurt and mango,not-a-price,BEVERAGE,,true
+                Gulab Jamun,Milk dumplings in syrup,90.00,SWEETS,,true
+                Kulfi,Too short,80.00,DESSERT,,true
+                Masala Chai,Spiced tea brewed with milk,30.00,BEVERAGE,,false
+                """;
+        long versionBefore = menuVersion();
+
+        upload("text/csv", csv)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(5))
+                .andExpect(jsonPath("$.errors[0].message").value("Invalid value for 'price'"))
+                .andExpect(jsonPath("$.errors[1].line").value(6))
+                .andExpect(jsonPath("$.errors[2].line").value(7))
+                .andExpect(jsonPath("$.errors[2].message").value("description: Description must be between 10 and 1000 characters"));
+
+        Map<String, MenuItem> menu = menu();
+        assertThat(menu).containsOnlyKeys("Paneer Tikka", "Garlic Naan", "Masala Chai");
+        assertThat(menu.get("Paneer Tikka").getDescription()).isEqualTo("Cottage cheese, charred in the tandoor");
+        assertThat(menu.get("Garlic Naan").getDescription()).isEqualTo("Leavened bread with garlic butter\nbaked to order");
+        assertThat(menu.get("Garlic Naan").getPrice()).isEqualByComparingTo("60.00");
+        assertThat(menu.get("Masala Chai").isAvailable()).isFalse();
+        // Three valid rows in batches of 2: each batch committed its own version bump
+        assertThat(menuVersion()).isEqualTo(versionBefore + 2);
+
+        // Uploading the same file again changes nothing
+        upload("text/csv", csv)
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.updated").value(3));
+        assertThat(menuItemRepository.findByRestaurantId(restaurant.getId())).hasSize(3);
+    }
+
+    @Test
+    void ndjsonRowsAreValidatedOneByOne() throws Exception {
+        String ndjson = """
+                {"name":"Veg Biryani","description":"Basmati rice layered with vegetables","price":240.00,"category":"MAIN_COURSE","available":true}
+                {"name":"Raita","description":"Yoghurt with cucumber",
+                {"name":"Raita","description":"Yoghurt with cucumber","price":50,"category":"SIDE_DISH","available":true,"spicy":true}
+
+                {"name":"Raita","description":"Yoghurt with cucumber","price":50,"category":"SIDE_DISH","available":true}
+                {"name":"Raita","description":"Yoghurt with cucumber and mint","price":55,"category":"SIDE_DISH","available":true}
+                """;
+
+        upload("application/x-ndjson", ndjson)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Malformed JSON"))
+                .andExpect(jsonPath("$.errors[1].line").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("Unknown field 'spicy'"));
+
+        // The second Raita row updated the one just added instead of adding a duplicate
+        Map<String, MenuItem> menu = menu();
+        assertThat(menu).containsOnlyKeys("Garlic Naan", "Veg Biryani", "Raita");
+        assertThat(menu.get("Raita").getPrice()).isEqualByComparingTo("55");
+    }
+
+    @Test
+    void onlyTheOwnerCanImportAndTheHeaderMustNameKnownColumns() throws Exception {
+        mockMvc.perform(post("/api/restaurants/" + restaurant.getId() + "/menu/import")
+                        .with(owner(OWNER_ID + 1))
+                        .contentType("text/csv")
+                        .content("name,description,price,category,available\n"))
+                .andExpect(status().isForbidden());
+
+        upload("text/csv", "name,description,cost,category,available\n")
+                .andExpect(status().isBadRequest());
+
+        assertThat(menu()).containsOnlyKeys("Garlic Naan");
+        assertThat(menuVersion()).isZero();
+    }
+
+    private ResultActions upload(String contentType, String body) throws Exception {
+        return mockMvc.perform(post("/api/restaurants/" + restaurant.getId() + "/menu/import")
+                .with(owner(OWNER_ID))
+                .contentType(contentType)
+                .content(body));
+    }
+
+    private static RequestPostProcessor owner(long userId) {
+        return jwt().jwt(token -> token.claim("userId", userId))
+                .authorities(new SimpleGrantedAuthority("ROLE_RESTAURANT_OWNER"));
+    }
+
+    private long menuVersion() {
+        return restaurantRepository.findMenuVersionById(restaurant.getId()).orElseThrow();
+    }
+
+    private Map<String, MenuItem> menu() {
+        return menuItemRepository.findByRestaurantId(restaurant.getId()).stream()
+                .collect(Collectors.toMap(MenuItem::getName, item -> item));
+    }
+}
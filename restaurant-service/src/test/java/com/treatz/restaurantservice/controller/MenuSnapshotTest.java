@@ -0,0 +1,100 @@
+package com.treatz.restaurantservice.controller;
+
+import com.treatz.restaurantservice.entity.MenuCategory;
+import com.treatz.restaurantservice.entity.MenuItem;
+import com.treatz.restaurantservice.entity.Restaurant;
+import com.treatz.restaurantservice.repository.MenuItemRepository;
+import com.treatz.restaurantservice.repository.RestaurantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MenuSnapshotTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void createRestaurant() {
+        restaurant = new Restaurant();
+        restaurant.setName("Snapshot Kitchen");
+        restaurant.setDescription("Test restaurant");
+        restaurant.setAddress("1 Test Street");
+        restaurant.setPhone("5550000");
+        restaurant.setEmail(UUID.randomUUID() + "@test.example");
+        restaurant.setOwnerId(1L);
+        restaurant = restaurantRepository.save(restaurant);
+        addItem("Dal Makhani");
+    }
+
+    @AfterEach
+    void deleteRestaurant() {
+        menuItemRepository.deleteAll(menuItemRepository.findByRestaurantId(restaurant.getId()));
+        restaurantRepository.deleteById(restaurant.getId());
+    }
+
+    @Test
+    void repeatReadsWithTheETagGet304UntilTheMenuVersionChanges() throws Exception {
+        String url = "/api/restaurants/" + restaurant.getId() + "/menu";
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Dal Makhani"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"");
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // A write through another instance: only the database changes, this instance's snapshot is not evicted
+        addItem("Jeera Rice");
+        restaurantRepository.incrementMenuVersion(restaurant.getId());
+
+        String newEtag = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Jeera Rice"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
+
+    @Test
+    void unknownRestaurantIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/restaurants/" + Long.MAX_VALUE + "/menu"))
+                .andExpect(status().isNotFound());
+    }
+
+    private void addItem(String name) {
+        MenuItem item = new MenuItem();
+        item.setName(name);
+        item.setDescription(name);
+        item.setPrice(new BigDecimal("180.00"));
+        item.setCategory(MenuCategory.MAIN_COURSE);
+        item.setRestaurant(restaurant);
+        menuItemRepository.save(item);
+    }
+}
@@ -0,0 +1,139 @@
+package com.treatz.restaurantservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treatz.restaurantservice.entity.Restaurant;
+import com.treatz.restaurantservice.repository.RestaurantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RestaurantScrollTest {
+
+    // Unique to this run, so restaurants left by other tests don't match the search
+    private final String tag = "Scroll" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    private final List<Restaurant> restaurants = new ArrayList<>();
+
+    @BeforeEach
+    void createRestaurants() {
+        // Duplicate names, so ties are broken by ID
+        for (String name : List.of("Curry", "Bistro", "Curry", "Alpha", "Bistro", "Zest", "Curry")) {
+            Restaurant restaurant = new Restaurant();
+            restaurant.setName(tag + " " + name);
+            restaurant.setDescription("Test restaurant");
+            restaurant.setAddress("1 Test Street");
+            restaurant.setPhone("5550000");
+            restaurant.setEmail(UUID.randomUUID() + "@test.example");
+            restaurant.setOwnerId(7L);
+            restaurants.add(restaurantRepository.save(restaurant));
+        }
+        // Search for "_" too, which must match literally rather than any character
+        Restaurant underscore = new Restaurant();
+        underscore.setName(tag + "_Underscore");
+        underscore.setDescription("Test restaurant");
+        underscore.setAddress("1 Test Street");
+        underscore.setPhone("5550000");
+        underscore.setEmail(UUID.randomUUID() + "@test.example");
+        underscore.setOwnerId(7L);
+        restaurants.add(restaurantRepository.save(underscore));
+    }
+
+    @AfterEach
+    void deleteRestaurants() {
+        restaurantRepository.deleteAll(restaurants);
+    }
+
+    @Test
+    void searchPagesCoverEveryMatchOnceInOrder() throws Exception {
+        List<Long> byId = restaurants.stream().map(Restaurant::getId).sorted().toList();
+        assertThat(scroll("/api/restaurants/search/scroll", tag.toLowerCase(), "id", 3)).containsExactlyElementsOf(byId);
+
+        List<Long> byName = restaurants.stream()
+                .sorted((a, b) -> a.getName().equals(b.getName()) ? a.getId().compareTo(b.getId()) : a.getName().compareTo(b.getName()))
+                .map(Restaurant::getId)
+                .toList();
+        assertThat(scroll("/api/restaurants/search/scroll", tag, "name", 2)).containsExactlyElementsOf(byName);
+
+        List<Long> newest = restaurants.stream()
+                .sorted((a, b) -> a.getCreatedAt().equals(b.getCreatedAt()) ? b.getId().compareTo(a.getId()) : b.getCreatedAt().compareTo(a.getCreatedAt()))
+                .map(Restaurant::getId)
+                .toList();
+        assertThat(scroll("/api/restaurants/search/scroll", tag, "newest", 4)).containsExactlyElementsOf(newest);
+
+        assertThat(scroll("/api/restaurants/search/scroll", tag + "_", "id", 5))
+                .containsExactly(restaurants.get(restaurants.size() - 1).getId());
+    }
+
+    @Test
+    void listingPagesDoNotOverlap() throws Exception {
+        List<Long> all = scroll("/api/restaurants/scroll", null, "id", 50);
+        assertThat(all).doesNotHaveDuplicates().isSorted();
+        assertThat(all).containsAll(restaurants.stream().map(Restaurant::getId).toList());
+    }
+
+    @Test
+    void badCursorsAndSizesAreRejected() throws Exception {
+        JsonNode page = page(get("/api/restaurants/scroll").param("sortBy", "name").param("size", "1"));
+        String nameCursor = page.get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/restaurants/scroll").param("sortBy", "id").param("cursor", nameCursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/restaurants/scroll").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/restaurants/scroll").param("sortBy", "rating"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/restaurants/scroll").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Follows nextCursor to the end, returning the IDs in page order
+    private List<Long> scroll(String path, String name, String sortBy, int size) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get(path).param("sortBy", sortBy).param("size", String.valueOf(size));
+            if (name != null) {
+                request.param("name", name);
+            }
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = page(request);
+            assertThat(page.get("restaurants").size()).isLessThanOrEqualTo(size);
+            assertThat(page.get("approximateTotal").asLong()).isGreaterThanOrEqualTo(1);
+            page.get("restaurants").forEach(restaurant -> ids.add(restaurant.get("id").asLong()));
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return ids;
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,91 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.MenuFacetResponseDTO;
+import com.treatz.restaurantservice.dto.MenuItemSearchResponseDTO;
+import com.treatz.restaurantservice.dto.RestaurantInfoDTO;
+import com.treatz.restaurantservice.entity.MenuCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MenuFacetIndexTest {
+
+    private MenuFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Items are added through put(), as the service does; the database is only read by CatalogIndexer
+        index = new MenuFacetIndex(null, List.of(new BigDecimal("100"), new BigDecimal("250")), 10);
+        index.put(item(1L, 10L, "STARTER", 90.0, true));
+        index.put(item(2L, 10L, "MAIN_COURSE", 320.0, true));
+        index.put(item(3L, 10L, "DESSERT", 100.0, false));
+        index.put(item(4L, 20L, "STARTER", 240.0, true));
+        index.put(item(5L, 20L, "STARTER", 60.0, false));
+        index.put(item(6L, 30L, "BEVERAGE", 40.0, true));
+    }
+
+    @Test
+    void combinesFacetsAndCountsEachIgnoringItsOwnSelection() {
+        MenuFacetResponseDTO result = index.filter(
+                new MenuFacetIndex.Filter(List.of(MenuCategory.STARTER), true, List.of("0-100", "100-250"), null), 0, 10);
+
+        assertThat(ids(result)).containsExactly(1L, 4L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        // Available items up to 250, by category
+        assertThat(result.getCategoryCounts()).containsEntry("STARTER", 2L).containsEntry("BEVERAGE", 1L)
+                .containsEntry("MAIN_COURSE", 0L).hasSize(MenuCategory.values().length);
+        // Starters up to 250, by availability
+        assertThat(result.getAvailabilityCounts()).isEqualTo(Map.of("true", 2L, "false", 1L));
+        // Available starters, by price
+        assertThat(result.getPriceBandCounts()).containsExactly(Map.entry("0-100", 1L), Map.entry("100-250", 1L), Map.entry("250+", 0L));
+        assertThat(result.getRestaurantCounts()).containsExactly(Map.entry(10L, 1L), Map.entry(20L, 1L));
+    }
+
+    @Test
+    void menuChangesMoveItemsBetweenFacetValues() {
+        index.put(item(5L, 20L, "DESSERT", 300.0, true));
+        index.remove(1L);
+
+        MenuFacetResponseDTO desserts = index.filter(new MenuFacetIndex.Filter(List.of(MenuCategory.DESSERT), null, null, null), 0, 10);
+        assertThat(ids(desserts)).containsExactly(3L, 5L);
+        assertThat(desserts.getPriceBandCounts()).containsEntry("250+", 1L);
+
+        MenuFacetResponseDTO everything = index.filter(new MenuFacetIndex.Filter(null, null, null, null), 0, 10);
+        assertThat(everything.getCategoryCounts()).containsEntry("STARTER", 1L);
+        assertThat(everything.getRestaurantCounts()).containsExactly(Map.entry(10L, 2L), Map.entry(20L, 2L), Map.entry(30L, 1L));
+    }
+
+    @Test
+    void pagesThroughMatchesAndRejectsUnknownPriceBands() {
+        MenuFacetIndex.Filter all = new MenuFacetIndex.Filter(null, null, null, List.of(10L, 20L, 99L));
+        assertThat(ids(index.filter(all, 0, 3))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.filter(all, 1, 3))).containsExactly(4L, 5L);
+        assertThat(index.filter(all, 1, 3).getTotalElements()).isEqualTo(5);
+
+        assertThatThrownBy(() -> index.filter(new MenuFacetIndex.Filter(null, null, List.of("0-50"), null), 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> ids(MenuFacetResponseDTO result) {
+        return result.getItems().stream().map(MenuItemSearchResponseDTO::getId).toList();
+    }
+
+    private static MenuItemSearchResponseDTO item(Long id, Long restaurantId, String category, double price, boolean available) {
+        RestaurantInfoDTO restaurant = new RestaurantInfoDTO();
+        restaurant.setId(restaurantId);
+        MenuItemSearchResponseDTO item = new MenuItemSearchResponseDTO();
+        item.setId(id);
+        item.setName("Item " + id);
+        item.setCategory(category);
+        item.setPrice(price);
+        item.setAvailable(available);
+        item.setRestaurant(restaurant);
+        return item;
+    }
+}
@@ -0,0 +1,78 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.MenuItemSearchResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MenuSearchIndexTest {
+
+    private MenuSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Items are added through put(), as the service does; the database is only read by CatalogIndexer
+        index = new MenuSearchIndex(null);
+        index.put(item(1L, "Chicken Tikka Masala", "Grilled chicken in a creamy tomato curry", "MAIN_COURSE", 320.0));
+        index.put(item(2L, "Garlic Naan", "Tandoor bread, goes well with chicken curries", "SIDE_DISH", 60.0));
+        index.put(item(3L, "Chicken Wings", "Crispy and spicy", "STARTER", 240.0));
+        index.put(item(4L, "Crème Brûlée", "Vanilla custard", "DESSERT", 180.0));
+    }
+
+    @Test
+    void matchesPrefixesTyposAndAccentsWithNameMatchesFirst() {
+        assertThat(ids(index.search("chick", relevance()))).containsExactly(1L, 3L, 2L);
+        assertThat(ids(index.search("chiken", relevance()))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ids(index.search("tikka mas", relevance()))).containsExactly(1L);
+        assertThat(ids(index.search("creme brulee", relevance()))).containsExactly(4L);
+        assertThat(ids(index.search("main course", relevance()))).containsExactly(1L);
+        assertThat(ids(index.search("pizza", relevance()))).isEmpty();
+    }
+
+    @Test
+    void menuChangesAreSearchableImmediately() {
+        index.put(item(3L, "Buffalo Wings", "Crispy and spicy", "STARTER", 240.0));
+        index.remove(2L);
+
+        assertThat(ids(index.search("chicken", relevance()))).containsExactly(1L);
+        assertThat(ids(index.search("buffalo", relevance()))).containsExactly(3L);
+        assertThat(ids(index.search("naan", relevance()))).isEmpty();
+    }
+
+    @Test
+    void pagesAndSortsByFieldsOnRequest() {
+        Page<MenuItemSearchResponseDTO> page = index.search("chicken", PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "price")));
+
+        assertThat(ids(page)).containsExactly(2L, 3L);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(ids(index.search("chicken", PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "price"))))).containsExactly(1L);
+        assertThatThrownBy(() -> index.search("chicken", PageRequest.of(0, 2, Sort.by("restaurant"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PageRequest relevance() {
+        return PageRequest.of(0, 10, Sort.by(MenuSearchIndex.RELEVANCE));
+    }
+
+    private static List<Long> ids(Page<MenuItemSearchResponseDTO> page) {
+        return page.getContent().stream().map(MenuItemSearchResponseDTO::getId).toList();
+    }
+
+    private static MenuItemSearchResponseDTO item(Long id, String name, String description, String category, double price) {
+        MenuItemSearchResponseDTO item = new MenuItemSearchResponseDTO();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setCategory(category);
+        item.setPrice(price);
+        item.setAvailable(true);
+        return item;
+    }
+}
@@ -0,0 +1,43 @@
+package com.treatz.restaurantservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RebuildableIndexTest {
+
+    @Test
+    void writesMadeWhileTheDatabaseIsReadAreReplayedOntoTheRebuiltVersion() {
+        RebuildableIndex<List<String>> index = new RebuildableIndex<>(new ArrayList<>(List.of("old")));
+
+        index.startRebuild();
+        index.change(names -> names.add("written meanwhile"));
+        List<String> rebuilt = index.finishRebuild(() -> new ArrayList<>(List.of("from database")));
+
+        assertThat(rebuilt).containsExactly("from database", "written meanwhile");
+        assertThat(index.<List<String>>read(List::copyOf)).containsExactly("from database", "written meanwhile");
+
+        // Once swapped in, writes go to the new version only and are no longer recorded
+        index.change(names -> names.add("later"));
+        assertThat(index.<List<String>>read(List::copyOf)).containsExactly("from database", "written meanwhile", "later");
+    }
+
+    @Test
+    void aFailedRebuildKeepsTheCurrentVersion() {
+        RebuildableIndex<List<String>> index = new RebuildableIndex<>(new ArrayList<>(List.of("old")));
+
+        index.startRebuild();
+        index.change(names -> names.add("written meanwhile"));
+        assertThatThrownBy(() -> index.finishRebuild(() -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+        index.startRebuild();
+        assertThat(index.finishRebuild(null)).isNull();
+
+        assertThat(index.<List<String>>read(List::copyOf)).containsExactly("old", "written meanwhile");
+    }
+}
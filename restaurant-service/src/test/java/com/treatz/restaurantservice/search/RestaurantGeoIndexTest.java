@@ -0,0 +1,79 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.RestaurantSummaryDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class RestaurantGeoIndexTest {
+
+    // Bengaluru, around MG Road
+    private static final double LAT = 12.9756;
+    private static final double LNG = 77.6066;
+
+    private RestaurantGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Restaurants are added through put(), as the service does; the database is only read by CatalogIndexer
+        index = new RestaurantGeoIndex(null, 50, 100);
+        index.put(restaurant(1L, 12.9716, 77.5946, true));  // ~1.4 km west
+        index.put(restaurant(2L, 12.9784, 77.6408, true));  // ~3.7 km east
+        index.put(restaurant(3L, 12.9352, 77.6245, true));  // ~4.9 km south
+        index.put(restaurant(4L, 12.9760, 77.6070, false)); // next door, but closed
+        index.put(restaurant(5L, 13.1986, 77.7066, true));  // the airport, ~27 km
+    }
+
+    @Test
+    void returnsActiveRestaurantsWithinTheRadiusNearestFirst() {
+        List<RestaurantGeoIndex.Nearby> nearby = index.nearest(LAT, LNG, 5000, 10);
+
+        assertThat(ids(nearby)).containsExactly(1L, 2L, 3L);
+        assertThat(nearby.get(0).distanceMeters()).isCloseTo(1375, within(25.0));
+        assertThat(ids(index.nearest(LAT, LNG, 5000, 2))).containsExactly(1L, 2L);
+        assertThat(ids(index.nearest(LAT, LNG, 30000, 10))).containsExactly(1L, 2L, 3L, 5L);
+    }
+
+    @Test
+    void restaurantChangesApplyImmediately() {
+        index.put(restaurant(5L, 12.9757, 77.6067, true)); // moved next door
+        index.put(restaurant(1L, 12.9716, 77.5946, false)); // closed
+        index.remove(2L);
+
+        assertThat(ids(index.nearest(LAT, LNG, 5000, 10))).containsExactly(5L, 3L);
+    }
+
+    @Test
+    void findsRestaurantsAcrossTheAntimeridian() {
+        index.put(restaurant(6L, -16.70, 179.99, true));
+        index.put(restaurant(7L, -16.70, -179.99, true));
+
+        assertThat(ids(index.nearest(-16.70, 179.999, 5000, 10))).containsExactly(6L, 7L);
+    }
+
+    @Test
+    void rejectsOutOfRangeQueries() {
+        assertThatThrownBy(() -> index.nearest(91, LNG, 5000, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.nearest(LAT, LNG, 60000, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.nearest(LAT, LNG, 5000, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> ids(List<RestaurantGeoIndex.Nearby> nearby) {
+        return nearby.stream().map(found -> found.restaurant().getId()).toList();
+    }
+
+    private static RestaurantSummaryDTO restaurant(Long id, double latitude, double longitude, boolean active) {
+        RestaurantSummaryDTO restaurant = new RestaurantSummaryDTO();
+        restaurant.setId(id);
+        restaurant.setName("Restaurant " + id);
+        restaurant.setLatitude(latitude);
+        restaurant.setLongitude(longitude);
+        restaurant.setActive(active);
+        return restaurant;
+    }
+}
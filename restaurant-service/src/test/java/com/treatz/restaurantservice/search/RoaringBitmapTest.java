@@ -0,0 +1,88 @@
+package com.treatz.restaurantservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoaringBitmapTest {
+
+    @Test
+    void setOperationsMatchBitSetAcrossSparseAndDenseContainers() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            // Densities either side of the 4096-value switch between array and bit set containers
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            RoaringBitmap a = fill(random, expectedA, 0.002 + random.nextDouble() * 0.2);
+            RoaringBitmap b = fill(random, expectedB, 0.002 + random.nextDouble() * 0.2);
+
+            BitSet and = (BitSet) expectedA.clone();
+            and.and(expectedB);
+            BitSet or = (BitSet) expectedA.clone();
+            or.or(expectedB);
+            BitSet andNot = (BitSet) expectedA.clone();
+            andNot.andNot(expectedB);
+
+            assertThat(toBitSet(RoaringBitmap.and(a, b))).isEqualTo(and);
+            assertThat(toBitSet(RoaringBitmap.or(a, b))).isEqualTo(or);
+            assertThat(toBitSet(RoaringBitmap.andNot(a, b))).isEqualTo(andNot);
+            assertThat(RoaringBitmap.andCardinality(a, b)).isEqualTo(and.cardinality());
+            assertThat(a.cardinality()).isEqualTo(expectedA.cardinality());
+        }
+    }
+
+    @Test
+    void removingValuesShrinksDenseContainersBackAndDropsEmptyOnes() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value = 0; value < 10_000; value++) {
+            bitmap.add(value);
+        }
+        bitmap.add(200_000);
+        for (int value = 0; value < 10_000; value += 2) {
+            bitmap.remove(value);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(5_001);
+        assertThat(bitmap.contains(1)).isTrue();
+        assertThat(bitmap.contains(2)).isFalse();
+        for (int value = 1; value < 10_000; value += 2) {
+            bitmap.remove(value);
+        }
+        assertThat(bitmap.range(0, 10)).containsExactly(200_000);
+        bitmap.remove(200_000);
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void rangeSkipsAndLimitsInAscendingOrder() {
+        RoaringBitmap bitmap = RoaringBitmap.of(70_000, 5, 1, 65_536, 3);
+        for (int value = 100_000; value < 110_000; value++) {
+            bitmap.add(value);
+        }
+
+        assertThat(bitmap.range(0, 4)).containsExactly(1, 3, 5, 65_536);
+        assertThat(bitmap.range(3, 3)).containsExactly(65_536, 70_000, 100_000);
+        assertThat(bitmap.range(5 + 5_000, 2)).containsExactly(105_000, 105_001);
+        assertThat(bitmap.range(20_000, 10)).isEmpty();
+    }
+
+    private static RoaringBitmap fill(Random random, BitSet expected, double density) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value = 0; value < 300_000; value++) {
+            if (random.nextDouble() < density) {
+                bitmap.add(value);
+                expected.set(value);
+            }
+        }
+        return bitmap;
+    }
+
+    private static BitSet toBitSet(RoaringBitmap bitmap) {
+        BitSet bits = new BitSet();
+        bitmap.forEach(bits::set);
+        return bits;
+    }
+}
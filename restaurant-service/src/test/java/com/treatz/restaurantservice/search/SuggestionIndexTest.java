@@ -0,0 +1,125 @@
+package com.treatz.restaurantservice.search;
+
+import com.treatz.restaurantservice.dto.SuggestionDTO;
+import com.treatz.restaurantservice.entity.MenuItem;
+import com.treatz.restaurantservice.entity.Restaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Catalog changes come in through the hooks, as the service calls them; the database is only read by CatalogIndexer
+        index = new SuggestionIndex(10);
+        index.putRestaurant(1L, "Spice Garden");
+        index.putRestaurant(2L, "Chicken Shack");
+        index.putMenuItem(10L, 1L, "Chicken Tikka Masala");
+        index.putMenuItem(11L, 1L, "Garlic Naan");
+        index.putMenuItem(20L, 2L, "Chicken Wings");
+        index.putMenuItem(21L, 2L, "Chicken Tikka Masala");
+    }
+
+    @Test
+    void completesNamesFromAnyWordAndListsADishOnce() {
+        assertThat(texts(index.suggest("chick", 10)))
+                .containsExactlyInAnyOrder("Chicken Tikka Masala", "Chicken Shack", "Chicken Wings");
+        assertThat(texts(index.suggest("Masa", 10))).containsExactly("Chicken Tikka Masala");
+        assertThat(texts(index.suggest("spice g", 10))).containsExactly("Spice Garden");
+        assertThat(index.suggest("pizza", 10)).isEmpty();
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksByOrdersPlacedWithTheRestaurants() {
+        // A dish served by both restaurants counts both
+        assertThat(texts(index.suggest("chicken", 10)))
+                .containsExactly("Chicken Tikka Masala", "Chicken Shack", "Chicken Wings");
+
+        // Equally popular: shorter names first
+        index.removeMenuItem(21L);
+        assertThat(texts(index.suggest("chicken", 10)))
+                .containsExactly("Chicken Shack", "Chicken Wings", "Chicken Tikka Masala");
+
+        index.recordOrder(1L);
+        index.recordOrder(1L);
+        index.applyOrders();
+        assertThat(texts(index.suggest("chicken", 10)))
+                .containsExactly("Chicken Tikka Masala", "Chicken Shack", "Chicken Wings");
+
+        for (int i = 0; i < 5; i++) {
+            index.recordOrder(2L);
+        }
+        index.applyOrders();
+        assertThat(texts(index.suggest("chicken", 10)))
+                .containsExactly("Chicken Shack", "Chicken Wings", "Chicken Tikka Masala");
+        assertThat(texts(index.suggest("chicken", 2))).containsExactly("Chicken Shack", "Chicken Wings");
+    }
+
+    @Test
+    void aRebuildRanksByTheStoredOrderCountsPlusOrdersSeenSinceItStarted() {
+        for (int i = 0; i < 5; i++) {
+            index.recordOrder(2L);
+        }
+        index.applyOrders();
+
+        // The stored counts replace what this instance had counted; an order applied while the tables are read is kept
+        index.startRebuild();
+        index.recordOrder(1L);
+        index.applyOrders();
+        index.finishRebuild(new CatalogIndex.Snapshot(
+                List.of(restaurant(1L, "Spice Garden", 3), restaurant(2L, "Chicken Shack", 2)),
+                List.of(menuItem(20L, 2L, "Chicken Wings"))));
+
+        // Spice Garden 1 + 3 + 1, Chicken Shack and its wings 1 + 2
+        assertThat(texts(index.suggest("s", 10))).containsExactly("Spice Garden", "Chicken Shack");
+        assertThat(texts(index.suggest("chicken", 10))).containsExactly("Chicken Shack", "Chicken Wings");
+    }
+
+    @Test
+    void catalogChangesShowUpImmediately() {
+        index.putMenuItem(20L, 2L, "Buffalo Wings");
+        index.removeMenuItem(10L);
+        index.putRestaurant(1L, "Curry House");
+
+        assertThat(texts(index.suggest("wings", 10))).containsExactly("Buffalo Wings");
+        assertThat(texts(index.suggest("chicken", 10))).containsExactly("Chicken Shack", "Chicken Tikka Masala");
+        assertThat(texts(index.suggest("spice", 10))).isEmpty();
+        assertThat(index.suggest("curry", 10)).singleElement()
+                .satisfies(suggestion -> {
+                    assertThat(suggestion.getType()).isEqualTo(SuggestionIndex.RESTAURANT);
+                    assertThat(suggestion.getRestaurantId()).isEqualTo(1L);
+                });
+
+        // Removing the restaurant's last serving of the masala removes the dish
+        index.removeMenuItem(21L);
+        index.removeRestaurant(2L);
+        assertThat(index.suggest("chicken", 10)).isEmpty();
+    }
+
+    private static Restaurant restaurant(Long id, String name, long orderCount) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setName(name);
+        restaurant.setOrderCount(orderCount);
+        return restaurant;
+    }
+
+    private static MenuItem menuItem(Long id, Long restaurantId, String name) {
+        MenuItem item = new MenuItem();
+        item.setId(id);
+        item.setName(name);
+        item.setRestaurant(restaurant(restaurantId, null, 0));
+        return item;
+    }
+
+    private static List<String> texts(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getText).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.treatz.common.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Only active when read replicas are configured; otherwise Spring Boot's single DataSource is used as before.
+// Transactions marked @Transactional(readOnly = true) read from a replica; everything else goes to the primary.
+// Runs before DataSourceAutoConfiguration, which then backs off because a DataSource already exists.
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@ConditionalOnExpression("!'${treatz.read-replicas.urls:}'.isBlank()")
+@EnableConfigurationProperties({DataSourceProperties.class, ReadReplicaProperties.class})
+public class ReadReplicaAutoConfiguration {
+
+    // The primary pool, configured exactly like Spring Boot's default one (spring.datasource.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadReplicaDataSource readReplicaDataSource(HikariDataSource primaryDataSource,
+                                                       DataSourceProperties properties,
+                                                       ReadReplicaProperties replicaProperties) {
+        List<DataSource> replicas = new ArrayList<>(replicaProperties.getUrls().size());
+        for (String url : replicaProperties.getUrls()) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url.trim()).build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(replicaProperties.getMaxPoolSize());
+            // A dead replica must cost a read one short wait (then the primary serves it), and must not stop startup
+            replica.setConnectionTimeout(replicaProperties.getConnectTimeoutMs());
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReadReplicaDataSource(primaryDataSource, replicas,
+                replicaProperties.getMaxLagMs(), replicaProperties.getCheckIntervalMs());
+    }
+
+    // The DataSource JPA uses. Connections are only fetched at the first statement, by which time the
+    // transaction has marked them read-only or not, so the right pool can be picked.
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadReplicaDataSource readReplicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readReplicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,149 @@
+package com.treatz.common.db;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions, spread round-robin over the read replicas.
+ *
+ * Every few seconds each replica is asked how far behind the primary it is. Replicas that can't be reached,
+ * are further behind than the allowed lag, or have lost their connection to the primary (so their lag is
+ * unknown), are skipped until a later check finds them healthy again.
+ * If no replica is usable, or the one picked fails to connect, the connection comes from the primary,
+ * so losing a replica makes reads slower, never fail.
+ */
+@Slf4j
+public class ReadReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // Replication lag in milliseconds. 0 on a server that isn't a standby, and on a standby that has replayed
+    // everything it received (an idle primary sends nothing, so the last replay time alone would look stale).
+    // "Everything it received" only means caught up while the standby is still receiving: NULL (unknown) if its
+    // WAL receiver isn't streaming, or hasn't heard from the primary within wal_receiver_timeout.
+    static final String LAG_QUERY = "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming'"
+            + "   AND (current_setting('wal_receiver_timeout')::interval = interval '0'"
+            + "     OR last_msg_receipt_time > clock_timestamp() - current_setting('wal_receiver_timeout')::interval))"
+            + " THEN NULL"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000, 0)"
+            + " END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService checker;
+
+    public ReadReplicaDataSource(DataSource primary, List<DataSource> replicas, long maxLagMillis, long checkIntervalMillis) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.maxLagMillis = maxLagMillis;
+
+        // Know which replicas are usable before the first read is routed
+        checkReplicas();
+        this.checker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-check").daemon().factory());
+        checker.scheduleWithFixedDelay(this::checkReplicas, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isUsable()) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markUnreachable(e); // skipped until the next check reaches it
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Read replicas always use the credentials they were configured with");
+    }
+
+    // Measures every replica's lag; runs in the background, public so it can be triggered on demand
+    public void checkReplicas() {
+        replicas.forEach(Replica::check);
+    }
+
+    @Override
+    public void close() throws Exception {
+        checker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean reachable = true;
+        private volatile boolean receiving = true;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isUsable() {
+            return reachable && receiving && lagMillis <= maxLagMillis;
+        }
+
+        void check() {
+            boolean wasUsable = isUsable();
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                lag.next();
+                lagMillis = lag.getLong(1);
+                receiving = !lag.wasNull();
+                reachable = true;
+            } catch (SQLException e) {
+                markUnreachable(e);
+                return;
+            }
+            if (isUsable() != wasUsable) {
+                if (isUsable()) {
+                    log.info("Read replica {} is back in rotation ({} ms behind)", name, lagMillis);
+                } else if (!receiving) {
+                    log.warn("Read replica {} is not receiving from the primary, reads skip it", name);
+                } else {
+                    log.warn("Read replica {} is {} ms behind (allowed {} ms), reads skip it", name, lagMillis, maxLagMillis);
+                }
+            }
+        }
+
+        void markUnreachable(SQLException e) {
+            if (reachable) {
+                log.warn("Read replica {} is unreachable, reads skip it: {}", name, e.getMessage());
+            }
+            reachable = false;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.treatz.common.db;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// treatz.read-replicas.*: replicas share the primary's credentials (spring.datasource.*)
+@Data
+@ConfigurationProperties("treatz.read-replicas")
+public class ReadReplicaProperties {
+
+    // JDBC URLs of the replicas; empty means everything uses the primary
+    private List<String> urls = new ArrayList<>();
+
+    private int maxPoolSize = 10;
+
+    private long connectTimeoutMs = 1000;
+
+    // Replicas further behind than this are skipped until they catch up
+    private long maxLagMs = 5000;
+
+    private long checkIntervalMs = 5000;
+}